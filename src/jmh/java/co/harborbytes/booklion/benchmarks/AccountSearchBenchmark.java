@@ -0,0 +1,70 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Answers the account search the way the frontend asks it, one keystroke at a time, against charts far larger than
+ * any real one. The chart is loaded once in the setup, so only the index lookup and the ranking are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class AccountSearchBenchmark {
+
+    private static final String[] WORDS = {"cash", "bank", "petty", "savings", "checking", "payable", "receivable",
+            "salary", "rent", "utilities", "groceries", "travel", "insurance", "interest", "equipment", "owner"};
+
+    @Param({"100", "10000", "100000"})
+    private int accounts;
+
+    @Param({"c", "ca", "cas", "cash", "savings acc"})
+    private String query;
+
+    private ChartOfAccounts chartOfAccounts;
+
+    @Setup(Level.Trial)
+    public void createChart() {
+        Random random = new Random(42);
+        List<Account> chart = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            Account account = new Account();
+            account.setId((long) i + 1);
+            account.setNumber(String.format("%d%02d", 1 + i % 5, i % 100));
+            account.setName(String.format("%s %s account %d", WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)], i));
+            chart.add(account);
+        }
+
+        List<Object[]> usage = new ArrayList<>(accounts);
+        for (Account account : chart)
+            usage.add(new Object[]{account.getId(), (long) random.nextInt(10_000)});
+
+        AccountRepository accountRepository = Mockito.mock(AccountRepository.class);
+        Mockito.when(accountRepository.findAll(any(Sort.class))).thenReturn(chart);
+        Mockito.when(accountRepository.findLineCountPerAccount()).thenReturn(usage);
+
+        chartOfAccounts = new ChartOfAccounts(accountRepository, Mockito.mock(PlatformTransactionManager.class), Duration.ofDays(1));
+        chartOfAccounts.findAll();
+    }
+
+    @Benchmark
+    public List<Account> search() {
+        return chartOfAccounts.search(query, null, 20);
+    }
+}
@@ -0,0 +1,143 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.Application;
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.budget.BudgetMonthlySpenditure;
+import co.harborbytes.booklion.budget.BudgetService;
+import co.harborbytes.booklion.transaction.Transaction;
+import co.harborbytes.booklion.transaction.TransactionLine;
+import co.harborbytes.booklion.user.Role;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The six-month history of a budget, bucketed by month in the database: the application is started on an in-memory
+ * H2 database, the synthetic ledger is loaded into it with plain JDBC batches, and what is measured is the real
+ * native query behind {@link BudgetService#computeBudgetSpenditureBetweenDates}. The cost grows with the lines of the
+ * account in the window, so the larger ledgers are where the monthly rollups pay off.
+ * <p>
+ * H2 is not the PostgreSQL the application runs on, the numbers are for comparing changes to the query, not for
+ * capacity planning. The ledger stops at a million lines, which is as many as H2 holds in memory comfortably.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class BudgetSpenditureBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "501";
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int lines;
+
+    private ConfigurableApplicationContext context;
+    private BudgetService budgetService;
+    private Long userId;
+    private Instant from;
+    private Instant to;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        // as arguments, default properties would lose to application.properties; the security configuration needs the
+        // web context, it listens on a random port nobody calls
+        context = new SpringApplicationBuilder(Application.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:budget-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=warn",
+                        "--google.keys.jwks-location=classpath:google-jwks.json",
+                        "--booklion.budgets.spenditure-from-rollup=false");
+        budgetService = context.getBean(BudgetService.class);
+
+        SyntheticLedger ledger = new SyntheticLedger(lines, 42);
+        userId = saveUser(context.getBean(UserRepository.class));
+        Map<Long, Long> accountIds = saveAccounts(context.getBean(AccountRepository.class), ledger.getAccounts());
+        insertLedger(context.getBean(JdbcTemplate.class), ledger, accountIds);
+
+        to = Instant.now();
+        from = to.atZone(ZoneOffset.UTC).minusMonths(6).toInstant();
+
+        // a query that found nothing would be fast for the wrong reason
+        if (sixMonthHistory().stream().allMatch(month -> month.getSpentAmount().signum() == 0))
+            throw new IllegalStateException("the budget history found no spending in the synthetic ledger");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BudgetMonthlySpenditure> sixMonthHistory() {
+        return budgetService.computeBudgetSpenditureBetweenDates(userId, ACCOUNT_NUMBER, from, to);
+    }
+
+    private static Long saveUser(UserRepository userRepository) {
+        User user = new User();
+        user.setRole(Role.USER);
+        user.setEmail("benchmark@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        return userRepository.saveAndFlush(user).getId();
+    }
+
+    // the synthetic ids are whatever the database hands out here, the lines are pointed at those
+    private static Map<Long, Long> saveAccounts(AccountRepository accountRepository, List<Account> accounts) {
+        Map<Long, Long> accountIds = new HashMap<>();
+        for (Account synthetic : accounts) {
+            Account account = new Account();
+            account.setNumber(synthetic.getNumber());
+            account.setName(synthetic.getName());
+            accountIds.put(synthetic.getId(), accountRepository.saveAndFlush(account).getId());
+        }
+        return accountIds;
+    }
+
+    // straight through JDBC, going through the entities would make loading the ledger the benchmark
+    private void insertLedger(JdbcTemplate jdbcTemplate, SyntheticLedger ledger, Map<Long, Long> accountIds) {
+        List<Object[]> transactionRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> lineRows = new ArrayList<>(BATCH_SIZE * 2);
+        long lineId = 1;
+        for (Transaction transaction : ledger.getTransactions()) {
+            Object createdAt = transaction.getCreatedAt().atOffset(ZoneOffset.UTC);
+            transactionRows.add(new Object[]{transaction.getId(), userId, transaction.getDescription(), createdAt});
+            for (TransactionLine line : transaction.getLines()) {
+                lineRows.add(new Object[]{lineId++, transaction.getId(), accountIds.get(line.getAccount().getId()), line.getDebitAmount(), line.getCreditAmount(), createdAt});
+            }
+
+            if (transactionRows.size() == BATCH_SIZE) {
+                flush(jdbcTemplate, transactionRows, lineRows);
+            }
+        }
+        flush(jdbcTemplate, transactionRows, lineRows);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> transactionRows, List<Object[]> lineRows) {
+        jdbcTemplate.batchUpdate("INSERT INTO transaction (id, user_id, description, created_at) VALUES (?, ?, ?, ?)", transactionRows);
+        jdbcTemplate.batchUpdate("INSERT INTO transaction_line (id, transaction_id, account_id, debit_amount, credit_amount, created_at) VALUES (?, ?, ?, ?, ?, ?)", lineRows);
+        transactionRows.clear();
+        lineRows.clear();
+    }
+}
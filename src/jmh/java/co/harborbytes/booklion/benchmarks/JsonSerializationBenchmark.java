@@ -0,0 +1,55 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
+import co.harborbytes.booklion.json.LedgerJsonModule;
+import co.harborbytes.booklion.transaction.TransactionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the ledger as a list of transactions wrapped in the response envelope, once with Jackson's bean serializers
+ * and once with {@link LedgerJsonModule}, to a stream that drops the bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class JsonSerializationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int lines;
+
+    private ApiResponseSuccess<List<TransactionDTO>> response;
+    private ObjectMapper beanMapper;
+    private ObjectMapper moduleMapper;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        response = new ApiResponseSuccess<>(new SyntheticLedger(lines, 42).toDtos());
+
+        // what Spring Boot configures by default, less the modules the ledger doesn't need
+        beanMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        moduleMapper = beanMapper.copy().registerModule(new LedgerJsonModule());
+    }
+
+    @Benchmark
+    public void beanSerializers() throws IOException {
+        beanMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void ledgerModule() throws IOException {
+        moduleMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+}
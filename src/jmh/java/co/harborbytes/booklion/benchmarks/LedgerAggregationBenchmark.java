@@ -0,0 +1,100 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountActivity;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.account.AccountService;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.account.IndividualAccountOverview;
+import co.harborbytes.booklion.report.ReportCache;
+import co.harborbytes.booklion.report.ReportCacheStore;
+import co.harborbytes.booklion.transaction.BalanceSheetReport;
+import co.harborbytes.booklion.transaction.LedgerVersions;
+import co.harborbytes.booklion.transaction.Transaction;
+import co.harborbytes.booklion.transaction.TransactionLine;
+import co.harborbytes.booklion.transaction.TransactionRepository;
+import co.harborbytes.booklion.transaction.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * The V1 balance sheet loads the whole ledger and folds it in memory; the repository is stubbed so only that folding
+ * is measured. The per-account overview is aggregated by the database, so its repository answers with one row per
+ * account, as the real query would. The report cache is handed a store that keeps nothing, every call computes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class LedgerAggregationBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int lines;
+
+    private TransactionService transactionService;
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        SyntheticLedger ledger = new SyntheticLedger(lines, 42);
+
+        TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+        Mockito.when(transactionRepository.findAllTransactionsByUserIdAndCreatedAtAfter(any(), any())).thenReturn(ledger.getTransactions());
+
+        AccountRepository accountRepository = Mockito.mock(AccountRepository.class);
+        Mockito.when(accountRepository.findAll(any(Sort.class))).thenReturn(ledger.getAccounts());
+        Mockito.when(accountRepository.findAccountActivityByUserIdAfter(any(), any())).thenReturn(aggregate(ledger));
+        ChartOfAccounts chartOfAccounts = new ChartOfAccounts(accountRepository, Mockito.mock(PlatformTransactionManager.class), Duration.ofDays(1));
+
+        ReportCache reportCache = new ReportCache(Mockito.mock(ReportCacheStore.class), Mockito.mock(LedgerVersions.class), chartOfAccounts, new SimpleMeterRegistry());
+
+        transactionService = new TransactionService(transactionRepository, null, null, null, null, null, chartOfAccounts, reportCache);
+        accountService = new AccountService(accountRepository, null, null, chartOfAccounts, reportCache);
+    }
+
+    private static List<AccountActivity> aggregate(SyntheticLedger ledger) {
+        Map<Account, List<TransactionLine>> linesByAccount = new HashMap<>();
+        for (Transaction transaction : ledger.getTransactions()) {
+            for (TransactionLine line : transaction.getLines()) {
+                linesByAccount.computeIfAbsent(line.getAccount(), account -> new ArrayList<>()).add(line);
+            }
+        }
+
+        List<AccountActivity> activities = new ArrayList<>();
+        linesByAccount.forEach((account, accountLines) -> activities.add(new AccountActivity(
+                account.getNumber(),
+                account.getName(),
+                account.getAccountType(),
+                (long) accountLines.size(),
+                accountLines.stream().map(line -> line.getTransaction().getCreatedAt()).max(Instant::compareTo).orElseThrow(),
+                accountLines.stream().map(TransactionLine::getDebitAmount).reduce(BigDecimal.ZERO, BigDecimal::add),
+                accountLines.stream().map(TransactionLine::getCreditAmount).reduce(BigDecimal.ZERO, BigDecimal::add))));
+        return activities;
+    }
+
+    @Benchmark
+    public BalanceSheetReport balanceSheetReport() {
+        return transactionService.getBalanceSheetReport(1L, Instant.EPOCH);
+    }
+
+    @Benchmark
+    public List<IndividualAccountOverview> accountOverviewPerAccount() {
+        return accountService.getAccountOverviewPerAccount(1L, Instant.EPOCH);
+    }
+}
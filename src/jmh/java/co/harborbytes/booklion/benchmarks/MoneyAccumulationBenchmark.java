@@ -0,0 +1,53 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.money.MoneyAccumulator;
+import co.harborbytes.booklion.transaction.Transaction;
+import co.harborbytes.booklion.transaction.TransactionLine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds the debits and credits of every line of the ledger into one balance, the inner step of the V1 reports and of
+ * the running balance updates, once with chained {@link BigDecimal} arithmetic and once with a
+ * {@link MoneyAccumulator}. Run with {@code -prof gc} to compare the allocation rate along with the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class MoneyAccumulationBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int lines;
+
+    private List<TransactionLine> ledger;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        ledger = new ArrayList<>(lines);
+        for (Transaction transaction : new SyntheticLedger(lines, 42).getTransactions())
+            ledger.addAll(transaction.getLines());
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalFold() {
+        BigDecimal balance = new BigDecimal("0.00");
+        for (TransactionLine line : ledger)
+            balance = balance.add(line.getDebitAmount()).subtract(line.getCreditAmount());
+        return balance;
+    }
+
+    @Benchmark
+    public BigDecimal accumulatorFold() {
+        MoneyAccumulator balance = new MoneyAccumulator();
+        for (TransactionLine line : ledger)
+            balance.add(line.getDebitAmount()).subtract(line.getCreditAmount());
+        return balance.toBigDecimal();
+    }
+}
@@ -0,0 +1,135 @@
+package co.harborbytes.booklion.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Not a JMH benchmark: a closed-loop load test against a running instance, to compare the latency of the platform
+ * thread pool with {@code spring.threads.virtual.enabled=true}. Each of {@code load.clients} clients (5000 by default)
+ * sends a request, waits for the answer and sends the next one, for {@code load.warmup} unrecorded and then for
+ * {@code load.duration}; the percentiles, throughput and non-2xx answers are printed at the end.
+ * <p>
+ * Start the application twice against the same database, once as is and once built with {@code -P java21} and run
+ * with {@code --spring.threads.virtual.enabled=true}, and against each run:
+ * <pre>
+ * ./mvnw -P benchmarks -DskipTests test-compile exec:exec@run-load-test -Dload.args="-Dload.email=user@example.com -Dload.password=secret"
+ * </pre>
+ * The client needs as many open sockets as clients, raise {@code ulimit -n} on both ends first.
+ */
+public class RequestLatencyLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        // load.args come after the class name, as program arguments, and are read as the system properties they look like
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("-D") || equals < 0)
+                throw new IllegalArgumentException("expected -Dname=value, got " + arg);
+            System.setProperty(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        URI baseUrl = URI.create(System.getProperty("load.base-url", "http://localhost:8080"));
+        String path = System.getProperty("load.path", "/api/transactions/balance-sheet?from=2024-01-01T00:00:00Z");
+        int clients = Integer.getInteger("load.clients", 5000);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String token = login(http, baseUrl, System.getProperty("load.email"), System.getProperty("load.password"));
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        Recorder recorder = new Recorder(System.nanoTime() + warmup.toNanos(), System.nanoTime() + warmup.plus(duration).toNanos());
+        CountDownLatch finished = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++)
+            sendNext(http, request, recorder, finished);
+
+        finished.await();
+        recorder.print(clients, duration);
+    }
+
+    private static String login(HttpClient http, URI baseUrl, String email, String password) throws Exception {
+        ObjectMapper jsonMapper = new ObjectMapper();
+        HttpRequest login = HttpRequest.newBuilder(baseUrl.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(Map.of("email", email, "password", password))))
+                .build();
+
+        HttpResponse<String> response = http.send(login, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2)
+            throw new IllegalStateException("login failed with " + response.statusCode() + ": " + response.body());
+        return jsonMapper.readTree(response.body()).path("data").path("token").asText();
+    }
+
+    private static void sendNext(HttpClient http, HttpRequest request, Recorder recorder, CountDownLatch finished) {
+        long start = System.nanoTime();
+        if (start >= recorder.endsAt) {
+            finished.countDown();
+            return;
+        }
+
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            recorder.record(start, System.nanoTime(), error != null ? -1 : response.statusCode());
+            sendNext(http, request, recorder, finished);
+        });
+    }
+
+    private static final class Recorder {
+        private final long recordsFrom;
+        private final long endsAt;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<Integer, LongAdder> failures = new ConcurrentHashMap<>();
+
+        private Recorder(long recordsFrom, long endsAt) {
+            this.recordsFrom = recordsFrom;
+            this.endsAt = endsAt;
+        }
+
+        void record(long start, long end, int status) {
+            if (start < recordsFrom || end > endsAt)
+                return;
+            if (status < 200 || status >= 300)
+                failures.computeIfAbsent(status, s -> new LongAdder()).increment();
+            latencies.add(end - start);
+        }
+
+        void print(int clients, Duration duration) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+
+            System.out.printf("clients: %d, requests: %d, throughput: %.1f req/s%n", clients, sorted.length, sorted.length / (double) duration.toSeconds());
+            if (sorted.length > 0) {
+                System.out.printf("latency ms  p50: %.1f  p90: %.1f  p99: %.1f  p99.9: %.1f  max: %.1f%n",
+                        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                        sorted[sorted.length - 1] / 1e6);
+            }
+
+            Map<Integer, Long> byStatus = new TreeMap<>();
+            failures.forEach((status, count) -> byStatus.put(status, count.sum()));
+            System.out.println("failed (status -1 is a client side error or timeout): " + byStatus);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.transaction.Transaction;
+import co.harborbytes.booklion.transaction.TransactionDTO;
+import co.harborbytes.booklion.transaction.TransactionLine;
+import co.harborbytes.booklion.transaction.TransactionLineDTO;
+import co.harborbytes.booklion.user.Role;
+import co.harborbytes.booklion.user.User;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A reproducible ledger of balanced, two-line transactions spread over the last year, posted against a small chart of
+ * accounts covering every account type. Amounts come from a fixed pool so that ten million lines still fit in a
+ * reasonable heap.
+ */
+public class SyntheticLedger {
+
+    private static final int AMOUNT_POOL_SIZE = 1024;
+    private static final String[] ACCOUNT_NUMBERS = {
+            "101", "102", "103", "104", "201", "202", "203", "301", "302",
+            "401", "402", "403", "501", "502", "503", "504", "505", "506"
+    };
+
+    private final List<Account> accounts = new ArrayList<>();
+    private final List<Transaction> transactions;
+    private final User user;
+
+    public SyntheticLedger(int lineCount, long seed) {
+        Random random = new Random(seed);
+
+        user = new User();
+        user.setId(1L);
+        user.setRole(Role.USER);
+        user.setEmail("benchmark@example.com");
+
+        for (int i = 0; i < ACCOUNT_NUMBERS.length; i++) {
+            Account account = new Account();
+            account.setId((long) i + 1);
+            account.setNumber(ACCOUNT_NUMBERS[i]);
+            account.setName("account " + ACCOUNT_NUMBERS[i]);
+            accounts.add(account);
+        }
+
+        BigDecimal[] amounts = new BigDecimal[AMOUNT_POOL_SIZE];
+        for (int i = 0; i < AMOUNT_POOL_SIZE; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(1_000_000) + 1, 2);
+        }
+
+        BigDecimal zero = new BigDecimal("0.00");
+        Instant end = Instant.now();
+        long yearInSeconds = Duration.ofDays(365).toSeconds();
+
+        transactions = new ArrayList<>(lineCount / 2);
+        for (long id = 1; id <= lineCount / 2; id++) {
+            BigDecimal amount = amounts[random.nextInt(AMOUNT_POOL_SIZE)];
+            Account debited = accounts.get(random.nextInt(accounts.size()));
+            Account credited = accounts.get(random.nextInt(accounts.size()));
+            while (credited == debited) {
+                credited = accounts.get(random.nextInt(accounts.size()));
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setId(id);
+            transaction.setUser(user);
+            transaction.setDescription("synthetic transaction " + id);
+            transaction.setCreatedAt(end.minusSeconds(random.nextLong(yearInSeconds)));
+            transaction.setLines(List.of(line(transaction, debited, amount, zero), line(transaction, credited, zero, amount)));
+            transactions.add(transaction);
+        }
+    }
+
+    private static TransactionLine line(Transaction transaction, Account account, BigDecimal debit, BigDecimal credit) {
+        TransactionLine line = new TransactionLine();
+        line.setTransaction(transaction);
+        line.setAccount(account);
+        line.setDebitAmount(debit);
+        line.setCreditAmount(credit);
+        return line;
+    }
+
+    public List<TransactionDTO> toDtos() {
+        List<TransactionDTO> dtos = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            TransactionDTO dto = new TransactionDTO();
+            dto.setId(transaction.getId());
+            dto.setDescription(transaction.getDescription());
+            dto.setCreatedAt(transaction.getCreatedAt());
+
+            List<TransactionLineDTO> lines = new ArrayList<>(transaction.getLines().size());
+            for (TransactionLine line : transaction.getLines()) {
+                TransactionLineDTO lineDto = new TransactionLineDTO();
+                lineDto.setAccountId(line.getAccount().getId());
+                lineDto.setDebitAmount(line.getDebitAmount());
+                lineDto.setCreditAmount(line.getCreditAmount());
+                lines.add(lineDto);
+            }
+            dto.setLines(lines);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public User getUser() {
+        return user;
+    }
+}
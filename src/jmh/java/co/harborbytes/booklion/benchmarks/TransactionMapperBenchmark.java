@@ -0,0 +1,60 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.account.AccountMapperImpl;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.transaction.Transaction;
+import co.harborbytes.booklion.transaction.TransactionDTO;
+import co.harborbytes.booklion.transaction.TransactionMapper;
+import co.harborbytes.booklion.transaction.TransactionMapperImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Maps the ledger from DTOs to entities and back again, as creating a transaction and answering with it does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class TransactionMapperBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int lines;
+
+    private List<TransactionDTO> transactions;
+    private TransactionMapper mapper;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        SyntheticLedger ledger = new SyntheticLedger(lines, 42);
+        transactions = ledger.toDtos();
+
+        AccountRepository accountRepository = Mockito.mock(AccountRepository.class);
+        Mockito.when(accountRepository.findAll(any(Sort.class))).thenReturn(ledger.getAccounts());
+
+        TransactionMapperImpl mapper = new TransactionMapperImpl();
+        mapper.setAccountMapper(new AccountMapperImpl());
+        mapper.setChartOfAccounts(new ChartOfAccounts(accountRepository, Mockito.mock(PlatformTransactionManager.class), Duration.ofDays(1)));
+        this.mapper = mapper;
+    }
+
+    @Benchmark
+    public void roundTrip(Blackhole blackhole) {
+        for (TransactionDTO dto : transactions) {
+            Transaction transaction = mapper.dtoToTransaction(dto);
+            blackhole.consume(mapper.transactionToDto(transaction));
+        }
+    }
+}
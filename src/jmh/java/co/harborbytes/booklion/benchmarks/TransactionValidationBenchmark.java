@@ -0,0 +1,42 @@
+package co.harborbytes.booklion.benchmarks;
+
+import co.harborbytes.booklion.transaction.TransactionDTO;
+import co.harborbytes.booklion.transaction.TransactionMapperImpl;
+import co.harborbytes.booklion.transaction.validation.TransactionValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the balanced-and-no-duplicate-accounts check over every transaction of the ledger, the way a bulk import
+ * would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class TransactionValidationBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int lines;
+
+    private List<TransactionDTO> transactions;
+    private TransactionValidator validator;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        transactions = new SyntheticLedger(lines, 42).toDtos();
+        validator = new TransactionValidator(new TransactionMapperImpl());
+    }
+
+    @Benchmark
+    public void validateLedger(Blackhole blackhole) {
+        for (TransactionDTO transaction : transactions) {
+            blackhole.consume(validator.isValid(transaction.getLines(), null));
+        }
+    }
+}
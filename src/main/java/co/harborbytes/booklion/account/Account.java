@@ -11,6 +11,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @Entity
+@EntityListeners(AccountChangeListener.class)
 @Table(name = "account", uniqueConstraints = {
         @UniqueConstraint(name = "account_number_unique", columnNames = "number"),
         @UniqueConstraint(name = "account_name_unique", columnNames = "name"),
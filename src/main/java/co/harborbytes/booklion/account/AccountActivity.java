@@ -0,0 +1,29 @@
+package co.harborbytes.booklion.account;
+
+import co.harborbytes.booklion.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class AccountActivity {
+    private String number;
+    private String name;
+    private AccountType accountType;
+    private Long lineCount;
+    private Instant dateLastTransaction;
+    private BigDecimal debits;
+    private BigDecimal credits;
+
+    public Money getBalance() {
+        long debitCents = Money.centsOf(debits);
+        long creditCents = Money.centsOf(credits);
+        if (accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES)
+            return Money.ofCents(Math.subtractExact(debitCents, creditCents));
+
+        return Money.ofCents(Math.subtractExact(creditCents, debitCents));
+    }
+}
@@ -0,0 +1,30 @@
+package co.harborbytes.booklion.account;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener on {@link Account}. Hooking the entity rather than {@link AccountService} means writes that go
+ * straight through the repository, like the accounts import in LedgerImportWriter, invalidate the chart of accounts too.
+ */
+@Component
+public class AccountChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Autowired
+    public AccountChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void accountChanged(Account account) {
+        publisher.publishEvent(new ChartOfAccountsChangedEvent(account.getId()));
+    }
+}
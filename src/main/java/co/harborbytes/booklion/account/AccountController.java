@@ -6,10 +6,17 @@ import co.harborbytes.booklion.budget.BudgetDTO;
 import co.harborbytes.booklion.budget.BudgetService;
 import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import co.harborbytes.booklion.patch.PartialUpdater;
+import co.harborbytes.booklion.report.ReportETag;
+import co.harborbytes.booklion.report.ReportJobController;
+import co.harborbytes.booklion.report.ReportJobService;
+import co.harborbytes.booklion.report.ReportResponses;
+import co.harborbytes.booklion.report.ReportType;
 import co.harborbytes.booklion.user.User;
 import co.harborbytes.booklion.user.UserRepository;
 import com.github.javafaker.Faker;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
@@ -17,7 +24,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.BindingResult;
@@ -41,11 +50,15 @@ import static co.harborbytes.booklion.account.Account.ACCOUNT_NUMBER_ERROR;
 public class AccountController {
 
     private final AccountService accountService;
+    private final ReportJobService reportJobService;
+    private final ReportResponses reportResponses;
 private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
 
     @Autowired
-    public AccountController(AccountService accountService){
+    public AccountController(AccountService accountService, ReportJobService reportJobService, ReportResponses reportResponses){
         this.accountService = accountService;
+        this.reportJobService = reportJobService;
+        this.reportResponses = reportResponses;
     }
     @PostMapping("/accounts")
     @ResponseStatus(HttpStatus.CREATED)
@@ -81,8 +94,7 @@ private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
     }
 
     @GetMapping( value = "/accounts/overview", params = "from")
-    @ResponseStatus(HttpStatus.OK)
-    public ApiResponseSuccess<List<AccountOverviewByType>> getAccountOverviewGroupedByAccountType(@RequestParam(value = "from", required = false) String fromDate){
+    public ResponseEntity<?> getAccountOverviewGroupedByAccountType(@RequestParam(value = "from", required = false) String fromDate, @RequestHeader HttpHeaders requestHeaders){
 
         Instant date;
         try{
@@ -93,14 +105,16 @@ private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
         }
 
         User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<AccountOverviewByType> result = accountService.getAccountOverviewGroupedByAccountType(loggedInUser.getId(), date);
+        ReportETag eTag = reportResponses.eTagOf(loggedInUser.getId(), "overview", date);
+        if (eTag.matches(requestHeaders))
+            return reportResponses.notModified(eTag, requestHeaders);
 
-        return new ApiResponseSuccess<>(result);
+        Instant from = date;
+        return reportResponses.ok(eTag, requestHeaders, () -> accountService.getAccountOverviewGroupedByAccountType(loggedInUser.getId(), from));
     }
 
     @GetMapping( value = "/accounts/overviewPerAccount", params = "from")
-    @ResponseStatus(HttpStatus.OK)
-    public ApiResponseSuccess<List<IndividualAccountOverview>> getAccountOverviewPerAccount(@RequestParam(value = "from") String fromDate){
+    public ResponseEntity<?> getAccountOverviewPerAccount(@RequestParam(value = "from") String fromDate, @RequestHeader HttpHeaders requestHeaders){
 
         Instant date;
         try{
@@ -111,9 +125,15 @@ private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
         }
 
         User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<IndividualAccountOverview> result = accountService.getAccountOverviewPerAccount(loggedInUser.getId(), date);
+        ReportETag eTag = reportResponses.eTagOf(loggedInUser.getId(), "overview-per-account", date);
+        if (eTag.matches(requestHeaders))
+            return reportResponses.notModified(eTag, requestHeaders);
 
-        return new ApiResponseSuccess<>(result);
+        if (reportJobService.shouldRunInBackground(loggedInUser.getId(), date))
+            return ReportJobController.accepted(reportJobService.submit(loggedInUser.getId(), ReportType.ACCOUNT_OVERVIEW_PER_ACCOUNT, date));
+
+        Instant from = date;
+        return reportResponses.ok(eTag, requestHeaders, () -> accountService.getAccountOverviewPerAccount(loggedInUser.getId(), from));
     }
 
     @GetMapping(value = "/accounts/findNextAccountNumber", params = "accountType")
@@ -122,15 +142,17 @@ private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
     }
 
     @GetMapping(value = "/accounts/searchBy", params = {"name", "accountType"})
-    public ApiResponseSuccess<List<AccountDTO>> findAccountsByNameAndType(@RequestParam("name") String queryName, @Valid @RequestParam("accountType") AccountType type)
+    public ApiResponseSuccess<List<AccountDTO>> findAccountsByNameAndType(@RequestParam("name") String queryName, @Valid @RequestParam("accountType") AccountType type,
+                                                                          @RequestParam(value = "limit", defaultValue = "20") @Positive @Max(100) Integer limit)
     {
-        return new ApiResponseSuccess(accountService.findAccountsByNameAndType(queryName, type));
+        return new ApiResponseSuccess(accountService.findAccountsByNameAndType(queryName, type, limit));
     }
 
     @GetMapping(value = "/accounts/searchBy", params = {"name", "accountType=all"})
-    public ApiResponseSuccess<List<AccountDTO>> findAccountsByName(@RequestParam("name") String queryName)
+    public ApiResponseSuccess<List<AccountDTO>> findAccountsByName(@RequestParam("name") String queryName,
+                                                                   @RequestParam(value = "limit", defaultValue = "20") @Positive @Max(100) Integer limit)
     {
-        return new ApiResponseSuccess(accountService.findAccountsByName(queryName));
+        return new ApiResponseSuccess(accountService.findAccountsByName(queryName, limit));
     }
 
     @PutMapping("/accounts/{id}")
@@ -147,9 +169,15 @@ private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
         return ResponseEntity.status(status).body(response);
     }
 
-    @PatchMapping("/accounts/{id}")
+    @PatchMapping(value = "/accounts/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, PartialUpdater.APPLICATION_MERGE_PATCH_JSON_VALUE})
     @ResponseStatus(HttpStatus.OK)
     public ApiResponseSuccess<AccountDTO> partiallyUpdateAccount(@PathVariable("id") @Positive Long id, @RequestBody Map<String, Object> accountToUpdate) {
         return new ApiResponseSuccess<>(accountService.partiallyUpdateAccount(accountToUpdate, id));
     }
+
+    @PatchMapping(value = "/accounts", consumes = {MediaType.APPLICATION_JSON_VALUE, PartialUpdater.APPLICATION_MERGE_PATCH_JSON_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public ApiResponseSuccess<List<AccountDTO>> partiallyUpdateAccounts(@RequestBody List<Map<String, Object>> accountsToUpdate) {
+        return new ApiResponseSuccess<>(accountService.partiallyUpdateAccounts(accountsToUpdate));
+    }
 }
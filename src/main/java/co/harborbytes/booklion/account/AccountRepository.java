@@ -23,6 +23,13 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT MAX(a.number) FROM Account a WHERE a.accountType = :accountType")
     String findMaxAccountNumberForAccountType(@Param("accountType")AccountType accountType);
 
-    List<Account> findByNameIgnoreCaseContainingAndAccountTypeIs(String queryName, AccountType accountType);
-    List<Account> findByNameIgnoreCaseContaining(String queryName);
+    @Query("SELECT new co.harborbytes.booklion.account.AccountActivity(a.number, a.name, a.accountType, COUNT(tl), MAX(t.createdAt), SUM(tl.debitAmount), SUM(tl.creditAmount)) " +
+            "FROM TransactionLine tl INNER JOIN tl.transaction t INNER JOIN tl.account a " +
+            "WHERE t.user.id = :userId AND t.createdAt > :from AND tl.createdAt > :from " +
+            "GROUP BY a.number, a.name, a.accountType")
+    List<AccountActivity> findAccountActivityByUserIdAfter(@Param("userId") Long userId, @Param("from") Instant from);
+
+    // how many transaction lines every user together has posted per account, read off the running balances
+    @Query("SELECT ab.account.id, SUM(ab.lineCount) FROM AccountBalance ab GROUP BY ab.account.id")
+    List<Object[]> findLineCountPerAccount();
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package co.harborbytes.booklion.account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * N-gram index over the names and numbers of a fixed set of accounts, built along with each {@link ChartOfAccounts}
+ * snapshot and thrown away with it.
+ * <p>
+ * Every 1, 2 and 3 character substring of a lower-cased name or number maps to the accounts containing it. A query of
+ * up to three characters is answered by a single lookup; a longer one intersects the postings of its trigrams,
+ * starting from the shortest, and checks the few survivors with {@code contains}. Matches are ranked by how they
+ * match (number, then name prefix, then a word of the name, then anywhere), then by how many transaction lines have
+ * been posted against the account, then by number.
+ */
+class AccountSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private static final int EXACT_NUMBER = 0;
+    private static final int NUMBER_PREFIX = 1;
+    private static final int NAME_PREFIX = 2;
+    private static final int WORD_PREFIX = 3;
+    private static final int SUBSTRING = 4;
+
+    private final Account[] accounts;
+    private final String[] names;
+    private final String[] numbers;
+    private final long[] usage;
+    private final Map<String, int[]> postings;
+
+    AccountSearchIndex(List<Account> accounts, Map<Long, Long> usageByAccountId) {
+        this.accounts = accounts.toArray(new Account[0]);
+        this.names = new String[this.accounts.length];
+        this.numbers = new String[this.accounts.length];
+        this.usage = new long[this.accounts.length];
+
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int i = 0; i < this.accounts.length; i++) {
+            Account account = this.accounts[i];
+            names[i] = account.getName().toLowerCase(Locale.ROOT);
+            numbers[i] = account.getNumber();
+            usage[i] = usageByAccountId.getOrDefault(account.getId(), 0L);
+
+            Set<String> accountGrams = new LinkedHashSet<>();
+            addGrams(names[i], accountGrams);
+            addGrams(numbers[i], accountGrams);
+            for (String gram : accountGrams)
+                grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+        }
+
+        this.postings = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, positions) -> postings.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Up to {@code limit} accounts whose name or number contains {@code query}, ignoring case, best match first.
+     * A null {@code type} searches every account type, and a blank query matches everything.
+     */
+    List<Account> search(String query, AccountType type, int limit) {
+        String normalizedQuery = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+
+        Comparator<Match> bestFirst = Comparator.<Match>comparingInt(match -> match.rank)
+                .thenComparing(match -> usage[match.position], Comparator.reverseOrder())
+                .thenComparing(match -> numbers[match.position]);
+
+        // keeps the worst of the best `limit` matches at the head, so it's the one dropped when a better one shows up
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, bestFirst.reversed());
+        for (int position : candidates(normalizedQuery)) {
+
+            if (type != null && accounts[position].getAccountType() != type)
+                continue;
+
+            int rank = rank(position, normalizedQuery);
+            if (rank < 0)
+                continue;
+
+            best.add(new Match(position, rank));
+            if (best.size() > limit)
+                best.poll();
+        }
+
+        Match[] ranked = best.toArray(new Match[0]);
+        Arrays.sort(ranked, bestFirst);
+
+        List<Account> found = new ArrayList<>(ranked.length);
+        for (Match match : ranked)
+            found.add(accounts[match.position]);
+        return found;
+    }
+
+    private int[] candidates(String query) {
+        if (query.isEmpty()) {
+            int[] everything = new int[accounts.length];
+            Arrays.setAll(everything, i -> i);
+            return everything;
+        }
+
+        if (query.length() <= GRAM_LENGTH)
+            return postings.getOrDefault(query, NO_POSTINGS);
+
+        int gramCount = query.length() - GRAM_LENGTH + 1;
+        int[][] gramPostings = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            gramPostings[i] = postings.get(query.substring(i, i + GRAM_LENGTH));
+            if (gramPostings[i] == null)
+                return NO_POSTINGS;
+        }
+
+        // shortest first, so the running intersection is as small as it gets from the start
+        Arrays.sort(gramPostings, Comparator.comparingInt(p -> p.length));
+        int[] candidates = gramPostings[0];
+        for (int i = 1; i < gramCount && candidates.length > 0; i++)
+            candidates = intersect(candidates, gramPostings[i]);
+
+        // sharing every trigram doesn't make the query a substring, rank() has the final word
+        return candidates;
+    }
+
+    // both are ascending, postings are built by walking the accounts in order
+    private static int[] intersect(int[] left, int[] right) {
+        int[] both = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        for (int l = 0, r = 0; l < left.length && r < right.length; ) {
+            if (left[l] < right[r])
+                l++;
+            else if (left[l] > right[r])
+                r++;
+            else {
+                both[count++] = left[l];
+                l++;
+                r++;
+            }
+        }
+        return count == both.length ? both : Arrays.copyOf(both, count);
+    }
+
+    private int rank(int position, String query) {
+        String name = names[position];
+        String number = numbers[position];
+
+        if (number.equals(query))
+            return EXACT_NUMBER;
+        if (number.startsWith(query))
+            return NUMBER_PREFIX;
+        if (name.startsWith(query))
+            return NAME_PREFIX;
+
+        int index = name.indexOf(query);
+        if (index < 0)
+            return number.contains(query) ? SUBSTRING : -1;
+
+        for (; index >= 0; index = name.indexOf(query, index + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(index - 1)))
+                return WORD_PREFIX;
+        }
+        return SUBSTRING;
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= text.length(); i++)
+                grams.add(text.substring(i, i + length));
+        }
+    }
+
+    private record Match(int position, int rank) {
+    }
+}
@@ -3,38 +3,40 @@ package co.harborbytes.booklion.account;
 
 import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
-import co.harborbytes.booklion.transaction.Transaction;
-import co.harborbytes.booklion.transaction.TransactionLine;
-import co.harborbytes.booklion.transaction.TransactionRepository;
-import jakarta.persistence.Column;
+import co.harborbytes.booklion.money.MoneyAccumulator;
+import co.harborbytes.booklion.patch.PartialUpdater;
+import co.harborbytes.booklion.report.ReportCache;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.validation.*;
 
 @Service
 public class AccountService {
+    private static final PartialUpdater<Account> ACCOUNT_UPDATER = PartialUpdater.of(Account.class);
+
     private final AccountRepository repo;
     private final AccountMapper mapper;
-    private final TransactionRepository transactionRepository;
     private final Validator validator;
+    private final ChartOfAccounts chartOfAccounts;
+    private final ReportCache reportCache;
 
     @Autowired
-    public AccountService(AccountRepository repo, AccountMapper mapper, Validator validator, TransactionRepository transactionRepository) {
+    public AccountService(AccountRepository repo, AccountMapper mapper, Validator validator, ChartOfAccounts chartOfAccounts, ReportCache reportCache) {
         this.repo = repo;
         this.mapper = mapper;
         this.validator = validator;
-        this.transactionRepository = transactionRepository;
+        this.chartOfAccounts = chartOfAccounts;
+        this.reportCache = reportCache;
     }
 
     @Transactional
@@ -45,7 +47,7 @@ public class AccountService {
     }
 
     public AccountDTO findAccountById(Long id) {
-        Account accountToFind = repo.findById(id)
+        Account accountToFind = chartOfAccounts.findById(id)
                 .orElseThrow(() -> new DomainEntityNotFoundException(Account.class.getSimpleName(), "id", id.toString()));
 
         return mapper.accountToDto(accountToFind);
@@ -59,7 +61,7 @@ public class AccountService {
     }
 
     public AccountDTO findAccountByNumber(String number) {
-        Account accountToFind = repo.findByNumber(number)
+        Account accountToFind = chartOfAccounts.findByNumber(number)
                 .orElseThrow(() -> new DomainEntityNotFoundException(Account.class.getSimpleName(), "number", number));
 
         return mapper.accountToDto(accountToFind);
@@ -93,143 +95,105 @@ public class AccountService {
         Account accountToUpdate = repo.findById(id)
                 .orElseThrow(() -> new DomainEntityNotFoundException(Account.class.getSimpleName(), "id", id.toString()));
 
-
-        Field[] accountFields = Account.class.getDeclaredFields();
         BindingResult result = new BeanPropertyBindingResult(accountToUpdate, "accountToUpdate");
+        ACCOUNT_UPDATER.apply(accountToUpdate, incompleteAccount, result);
 
-        for (Field accountField : accountFields) {
-
-            if (!incompleteAccount.keySet().contains(accountField.getName()))
-                continue;
-
-            if (Modifier.isStatic(accountField.getModifiers()))
-                continue;
+        validator.validate(accountToUpdate, result);
+        if (result.hasErrors())
+            throw new DomainEntityValidationException(result);
 
-            if (accountField.getName().equals("id"))
-                continue;
+        return mapper.accountToDto(accountToUpdate);
+    }
 
-            Column column = accountField.getAnnotation(Column.class);
+    @Transactional
+    public List<AccountDTO> partiallyUpdateAccounts(List<Map<String, Object>> incompleteAccounts) {
 
-            if (column == null)
-                continue;
+        List<Long> ids = PartialUpdater.idsOf(incompleteAccounts, "accountsToUpdate");
+        Map<Long, Account> accountsById = repo.findAllById(ids).stream().collect(Collectors.toMap(Account::getId, Function.identity()));
 
-            if (!column.updatable())
-                continue;
+        List<Account> accountsToUpdate = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Account account = accountsById.get(id);
+            if (account == null)
+                throw new DomainEntityNotFoundException(Account.class.getSimpleName(), "id", id.toString());
+            accountsToUpdate.add(account);
+        }
 
-            Object jsonValue = incompleteAccount.get(accountField.getName());
-            accountField.setAccessible(true);
+        BindingResult result = new BeanPropertyBindingResult(accountsToUpdate, "accountsToUpdate");
+        for (int i = 0; i < accountsToUpdate.size(); i++) {
+            ACCOUNT_UPDATER.apply(accountsToUpdate.get(i), incompleteAccounts.get(i), result, String.format("[%d].", i));
 
-            try {
-                accountField.set(accountToUpdate, jsonValue);
-            } catch (IllegalAccessException | IllegalArgumentException e) {
-                result.addError(
-                        new FieldError(
-                                "accountToUpdate",
-                                accountField.getName(),
-                                String.format("field cannot be set with  \"%s\"", jsonValue)));
-            }
+            result.pushNestedPath(String.format("[%d]", i));
+            validator.validate(accountsToUpdate.get(i), result);
+            result.popNestedPath();
         }
 
-        validator.validate(accountToUpdate, result);
         if (result.hasErrors())
             throw new DomainEntityValidationException(result);
 
-        return mapper.accountToDto(accountToUpdate);
+        return accountsToUpdate.stream().map(mapper::accountToDto).collect(Collectors.toList());
     }
 
 
     public List<AccountOverviewByType> getAccountOverviewGroupedByAccountType(Long userId, Instant from) {
-        List<Transaction> transactionList =  transactionRepository.findAllTransactionsByUserIdAndCreatedAtAfter(userId, from);
-
-        Map<AccountType, AccountOverviewByType> overviewMap = new HashMap<>();
-
-        for(Transaction transaction : transactionList){
-            for(TransactionLine transactionLine: transaction.getLines()){
-
-
-                AccountType accountType = transactionLine.getAccount().getAccountType();
-                AccountOverviewByType overview = overviewMap.get(accountType);
+        return reportCache.get(userId, "overview", from, () -> computeAccountOverviewGroupedByAccountType(userId, from));
+    }
 
-                if(overview == null){
-                    overview = new AccountOverviewByType();
-                    overviewMap.put(accountType, overview);
-                }
+    private List<AccountOverviewByType> computeAccountOverviewGroupedByAccountType(Long userId, Instant from) {
+        List<AccountActivity> activities = repo.findAccountActivityByUserIdAfter(userId, from);
 
-                if(overview.getDateLastTransaction() == null){
-                    overview.setDateLastTransaction(transaction.getCreatedAt());
-                }
+        Map<AccountType, AccountOverviewByType> overviewMap = new HashMap<>();
+        Map<AccountType, MoneyAccumulator> balances = new EnumMap<>(AccountType.class);
 
-                if(transaction.getCreatedAt().isAfter(overview.getDateLastTransaction())){
-                    overview.setDateLastTransaction(transaction.getCreatedAt());
-                }
+        for(AccountActivity activity : activities){
 
-                overview.setTransactionCount(overview.getTransactionCount() + 1);
+            AccountType accountType = activity.getAccountType();
+            AccountOverviewByType overview = overviewMap.get(accountType);
 
+            if(overview == null){
+                overview = new AccountOverviewByType();
                 overview.setType(accountType.toString());
-
-                if(accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES){
-                    overview.setBalance(overview.getBalance().add(transactionLine.getDebitAmount()).subtract(transactionLine.getCreditAmount()));
-                }
-
-                if(accountType == AccountType.LIABILITIES || accountType == AccountType.EQUITY || accountType == AccountType.REVENUE ){
-                    overview.setBalance(overview.getBalance().add(transactionLine.getCreditAmount()).subtract(transactionLine.getDebitAmount()));
-                }
+                overviewMap.put(accountType, overview);
             }
-        }
 
+            if(overview.getDateLastTransaction() == null || activity.getDateLastTransaction().isAfter(overview.getDateLastTransaction())){
+                overview.setDateLastTransaction(activity.getDateLastTransaction());
+            }
 
+            overview.setTransactionCount(overview.getTransactionCount() + activity.getLineCount().intValue());
+            balances.computeIfAbsent(accountType, type -> new MoneyAccumulator()).add(activity.getBalance());
+        }
 
+        overviewMap.forEach((accountType, overview) -> overview.setBalance(balances.get(accountType).toBigDecimal()));
         return new ArrayList<>(overviewMap.values());
     }
 
     public List<IndividualAccountOverview> getAccountOverviewPerAccount(Long userId, Instant from) {
-        List<Transaction> transactionList =  transactionRepository.findAllTransactionsByUserIdAndCreatedAtAfter(userId, from);
-
-        Map<String, IndividualAccountOverview> overviewMap = new HashMap<>();
-
-        for(Transaction transaction : transactionList){
-            for(TransactionLine transactionLine: transaction.getLines()) {
-
-                String accountNumber = transactionLine.getAccount().getNumber();
-                IndividualAccountOverview overview = overviewMap.get(accountNumber);
-
-                if(overview == null){
-                    overview = new IndividualAccountOverview();
-                    overviewMap.put(accountNumber, overview);
-                }
-
-                if(overview.getDateLastTransaction() == null){
-                    overview.setDateLastTransaction(transaction.getCreatedAt());
-                }
-
-                if(transaction.getCreatedAt().isAfter(overview.getDateLastTransaction())){
-                    overview.setDateLastTransaction(transaction.getCreatedAt());
-                }
-
-                overview.setTransactionCount(overview.getTransactionCount() + 1);
-
-                AccountType accountType = transactionLine.getAccount().getAccountType();
-                overview.setType(accountType.toString());
-
-                if(accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES){
-                    overview.setBalance(overview.getBalance().add(transactionLine.getDebitAmount()).subtract(transactionLine.getCreditAmount()));
-                }
-
-                if(accountType == AccountType.LIABILITIES || accountType == AccountType.EQUITY || accountType == AccountType.REVENUE ){
-                    overview.setBalance(overview.getBalance().add(transactionLine.getCreditAmount()).subtract(transactionLine.getDebitAmount()));
-                }
+        return reportCache.get(userId, "overview-per-account", from, () -> computeAccountOverviewPerAccount(userId, from));
+    }
 
-                overview.setName(transactionLine.getAccount().getName());
-                overview.setNumber(transactionLine.getAccount().getNumber());
-            }
+    private List<IndividualAccountOverview> computeAccountOverviewPerAccount(Long userId, Instant from) {
+        List<AccountActivity> activities = repo.findAccountActivityByUserIdAfter(userId, from);
+
+        List<IndividualAccountOverview> overviews = new ArrayList<>(activities.size());
+        for(AccountActivity activity : activities){
+            IndividualAccountOverview overview = new IndividualAccountOverview();
+            overview.setType(activity.getAccountType().toString());
+            overview.setTransactionCount(activity.getLineCount().intValue());
+            overview.setName(activity.getName());
+            overview.setNumber(activity.getNumber());
+            overview.setDateLastTransaction(activity.getDateLastTransaction());
+            overview.setBalance(activity.getBalance().toBigDecimal());
+            overviews.add(overview);
         }
 
-        return new ArrayList<>(overviewMap.values());
-
+        return overviews;
     }
+
     public String findNextAccountNumberForAccountType(AccountType type){
-        String accountNumber = this.repo.findMaxAccountNumberForAccountType(type);
-        if(accountNumber != null && !accountNumber.equals("")){
+        List<Account> accountsOfType = chartOfAccounts.findByType(type);
+        if(!accountsOfType.isEmpty()){
+            String accountNumber = accountsOfType.get(accountsOfType.size() - 1).getNumber();
             return String.format("%s", Integer.parseInt(accountNumber) + 1);
         }
 
@@ -242,11 +206,11 @@ public class AccountService {
         };
     }
 
-    public List<AccountDTO> findAccountsByNameAndType(String queryName, AccountType accountType){
-        return this.repo.findByNameIgnoreCaseContainingAndAccountTypeIs(queryName, accountType).stream().map(mapper::accountToDto).collect(Collectors.toList());
+    public List<AccountDTO> findAccountsByNameAndType(String queryName, AccountType accountType, int limit){
+        return chartOfAccounts.search(queryName, accountType, limit).stream().map(mapper::accountToDto).collect(Collectors.toList());
     }
 
-    public List<AccountDTO> findAccountsByName(String queryName){
-        return this.repo.findByNameIgnoreCaseContaining(queryName).stream().map(mapper::accountToDto).collect(Collectors.toList());
+    public List<AccountDTO> findAccountsByName(String queryName, int limit){
+        return chartOfAccounts.search(queryName, null, limit).stream().map(mapper::accountToDto).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,192 @@
+package co.harborbytes.booklion.account;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process copy of the account table, indexed by id, by number, by account type and for search (see
+ * {@link AccountSearchIndex}). The table is small and changes rarely, so it is read whole on first use and kept until
+ * an account is written (see {@link AccountChangeListener}), until another node says so (see
+ * {@link ChartOfAccountsRevisionWatcher}) or until {@code booklion.accounts.cache.time-to-live} has passed, whichever
+ * comes first.
+ * <p>
+ * The accounts handed out are shared between threads: read them, never modify them. Code that wants to change an
+ * account loads it through {@link AccountRepository}. The table is read in a read-only transaction of its own, not as
+ * part of whatever the caller is in the middle of, and the accounts are copied out of it, so no persistence context
+ * tracks the cached ones or hands them out as its own.
+ */
+@Component
+public class ChartOfAccounts {
+
+    private final AccountRepository repo;
+    private final TransactionTemplate loadTransaction;
+    private final Duration timeToLive;
+
+    private final AtomicLong generation = new AtomicLong();
+    // a lock rather than synchronized: the load reads the database, which must not pin a virtual thread's carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public ChartOfAccounts(AccountRepository repo, PlatformTransactionManager transactionManager,
+                           @Value("${booklion.accounts.cache.time-to-live:PT10M}") Duration timeToLive) {
+        this.repo = repo;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.timeToLive = timeToLive;
+    }
+
+    public Optional<Account> findById(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    public Optional<Account> findByNumber(String number) {
+        return Optional.ofNullable(current().byNumber.get(number));
+    }
+
+    /**
+     * Accounts of the given type, ordered by number.
+     */
+    public List<Account> findByType(AccountType type) {
+        return current().byType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Accounts of every type, ordered by number.
+     */
+    public List<Account> findAll() {
+        return current().all;
+    }
+
+    /**
+     * Up to {@code limit} accounts whose name or number contains {@code query}, best match first. A null {@code type}
+     * searches every account type. How often an account is used only counts as of when the snapshot was loaded.
+     */
+    public List<Account> search(String query, AccountType type, int limit) {
+        return current().searchIndex.search(query, type, limit);
+    }
+
+    /**
+     * Swaps a reference to an account, typically the lazy one on a {@code TransactionLine}, for the cached copy, so
+     * reading its number, name or type doesn't hit the database. Accounts the cache doesn't know yet are returned as
+     * they are.
+     */
+    public Account resolve(Account account) {
+        if (account == null || account.getId() == null)
+            return account;
+
+        Account cached = current().byId.get(account.getId());
+        return cached == null ? account : cached;
+    }
+
+    /**
+     * A hash of every account's id, number and name, which changes whenever anything a report shows about the accounts
+     * does. Only as fresh as the cached copy it's computed from.
+     */
+    public long fingerprint() {
+        return current().fingerprint;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChartOfAccountsChanged(ChartOfAccountsChangedEvent event) {
+        invalidate();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.loadedAt.plus(timeToLive).isAfter(Instant.now()))
+            return current;
+
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (current != null && current.loadedAt.plus(timeToLive).isAfter(Instant.now()))
+                return current;
+
+            // an invalidation that lands while the table is being read means what was read may already be stale,
+            // so it's handed to this caller but not kept for the next one
+            long loadingGeneration = generation.get();
+            Snapshot loaded = loadTransaction.execute(status -> load());
+            if (generation.get() == loadingGeneration)
+                snapshot = loaded;
+
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        List<Account> accounts = repo.findAll(Sort.by("number")).stream().map(ChartOfAccounts::copyOf).toList();
+        Map<Long, Long> usage = new HashMap<>();
+        for (Object[] row : repo.findLineCountPerAccount())
+            usage.put((Long) row[0], ((Number) row[1]).longValue());
+
+        return new Snapshot(accounts, usage, Instant.now());
+    }
+
+    // with open in view the read-only transaction still shares the request's persistence context, so a copy it is
+    private static Account copyOf(Account account) {
+        Account copy = new Account();
+        copy.setId(account.getId());
+        copy.setNumber(account.getNumber());
+        copy.setName(account.getName());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        private final List<Account> all;
+        private final Map<Long, Account> byId;
+        private final Map<String, Account> byNumber;
+        private final Map<AccountType, List<Account>> byType;
+        private final AccountSearchIndex searchIndex;
+        private final long fingerprint;
+        private final Instant loadedAt;
+
+        private Snapshot(List<Account> accounts, Map<Long, Long> usage, Instant loadedAt) {
+            this.all = List.copyOf(accounts);
+            this.byId = new HashMap<>(accounts.size() * 2);
+            this.byNumber = new HashMap<>(accounts.size() * 2);
+            long fingerprint = 1;
+            for (Account account : accounts) {
+                byId.put(account.getId(), account);
+                byNumber.put(account.getNumber(), account);
+                fingerprint = 31 * fingerprint + Objects.hash(account.getId(), account.getNumber(), account.getName());
+            }
+            this.fingerprint = fingerprint;
+
+            Map<AccountType, List<Account>> byType = accounts.stream().collect(Collectors.groupingBy(
+                    Account::getAccountType,
+                    () -> new EnumMap<>(AccountType.class),
+                    Collectors.collectingAndThen(Collectors.toList(), List::copyOf)));
+            this.byType = Collections.unmodifiableMap(byType);
+            this.searchIndex = new AccountSearchIndex(accounts, usage);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package co.harborbytes.booklion.account;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever an account is created, changed or removed, so that {@link ChartOfAccounts} drops its copy of the
+ * table once the change is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class ChartOfAccountsChangedEvent {
+    private Long accountId;
+}
@@ -0,0 +1,72 @@
+package co.harborbytes.booklion.account;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cross-node invalidation for {@link ChartOfAccounts}. Every write to the account table bumps a revision counter in
+ * the same transaction (a trigger from the V6__chart_of_accounts_revision migration), and this polls it: whenever it
+ * moves, some node, or someone outside the application, changed an account and the local copy is dropped.
+ * <p>
+ * Only registered with {@code booklion.accounts.cache.cross-node-invalidation=true}. The revision table exists on
+ * PostgreSQL only, anywhere else the watcher turns itself off after the first poll.
+ */
+@Component
+@ConditionalOnProperty(name = "booklion.accounts.cache.cross-node-invalidation", havingValue = "true")
+public class ChartOfAccountsRevisionWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ChartOfAccountsRevisionWatcher.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChartOfAccounts chartOfAccounts;
+
+    // with virtual threads the scheduler runs on them too, and a synchronized poll would pin its carrier on the query
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private Long lastRevision;
+    private boolean available = true;
+
+    @Autowired
+    public ChartOfAccountsRevisionWatcher(JdbcTemplate jdbcTemplate, ChartOfAccounts chartOfAccounts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chartOfAccounts = chartOfAccounts;
+    }
+
+    @Scheduled(fixedDelayString = "${booklion.accounts.cache.revision-poll-interval-ms:5000}")
+    public void pollRevision() {
+        pollLock.lock();
+        try {
+            poll();
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private void poll() {
+        if (!available)
+            return;
+
+        Long revision;
+        try {
+            revision = jdbcTemplate.queryForObject("SELECT revision FROM chart_of_accounts_revision WHERE id = 1", Long.class);
+        } catch (DataAccessException e) {
+            if (lastRevision == null) {
+                log.warn("chart_of_accounts_revision can't be read, accounts changed on other nodes will only show up once the cache expires", e);
+                available = false;
+            }
+            return;
+        }
+
+        if (lastRevision != null && !lastRevision.equals(revision))
+            chartOfAccounts.invalidate();
+
+        lastRevision = revision;
+    }
+}
@@ -4,6 +4,9 @@ import co.harborbytes.booklion.apiresponsewrapper.ApiResponseFail;
 import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
 
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import co.harborbytes.booklion.exception.PasswordHashingRejectedException;
+import co.harborbytes.booklion.exception.ReportJobRejectedException;
+import co.harborbytes.booklion.exception.TransactionBatchRejectedException;
 import co.harborbytes.booklion.exception.TransactionValidationException;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -72,6 +75,16 @@ public class ApplicationExceptionHandler {
 
 
 
+    @ExceptionHandler(value = {ReportJobRejectedException.class, PasswordHashingRejectedException.class})
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ApiResponseFail tooManyRequestsHandler(Exception ex) {
+        ApiResponseFail error = new ApiResponseFail<>();
+        error.addMessage(ex.getMessage());
+        error.setTimestamp(Instant.now());
+        error.setDebug(ex.getClass().getName());
+        return error;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
     public ApiResponseFail unsupportedMediaType(HttpMediaTypeNotSupportedException ex){
@@ -123,6 +136,9 @@ public class ApplicationExceptionHandler {
 
                 String message = String.format("validation error: %s%n", tve.getMessage());
                 error.addMessage(message);
+
+                if (tve instanceof TransactionBatchRejectedException tbre)
+                    tbre.getErrors().forEach(error::addMessage);
         }
 
         if (ex instanceof MethodArgumentTypeMismatchException matm) {
@@ -0,0 +1,18 @@
+package co.harborbytes.booklion.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+public class AccountSpenditure {
+    private String accountNumber;
+    private BigDecimal debits;
+    private BigDecimal credits;
+
+    public BigDecimal getSpent() {
+        return debits.subtract(credits);
+    }
+}
@@ -17,6 +17,7 @@ import java.math.BigDecimal;
 @Setter
 @NoArgsConstructor
 @Entity
+@EntityListeners(BudgetChangeListener.class)
 @Table(name ="budget", uniqueConstraints = {
         @UniqueConstraint( name = "budget_account_id_unique", columnNames = "account_id")
 })
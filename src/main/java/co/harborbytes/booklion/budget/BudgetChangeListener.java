@@ -0,0 +1,29 @@
+package co.harborbytes.booklion.budget;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener on {@link Budget}, so budgets written straight through the repository are seen too.
+ */
+@Component
+public class BudgetChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Autowired
+    public BudgetChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void budgetChanged(Budget budget) {
+        publisher.publishEvent(new BudgetChangedEvent(budget.getUser().getId()));
+    }
+}
@@ -0,0 +1,13 @@
+package co.harborbytes.booklion.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever one of a user's budgets is created, changed or removed.
+ */
+@Getter
+@AllArgsConstructor
+public class BudgetChangedEvent {
+    private Long userId;
+}
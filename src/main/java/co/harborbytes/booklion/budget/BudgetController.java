@@ -2,6 +2,7 @@ package co.harborbytes.booklion.budget;
 
 import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import co.harborbytes.booklion.patch.PartialUpdater;
 import co.harborbytes.booklion.user.User;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
@@ -10,6 +11,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -92,7 +94,7 @@ public class BudgetController {
 //    }
 
     @ResponseStatus(HttpStatus.OK)
-    @PatchMapping("/budgets/{id}")
+    @PatchMapping(value = "/budgets/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, PartialUpdater.APPLICATION_MERGE_PATCH_JSON_VALUE})
     public ApiResponseSuccess<BudgetWithSpendingOverTimeDTO> partiallyUpdateBudget(@PathVariable("id") @Positive Long id, @RequestBody Map<String, Object> incompleteBudget) {
 
         User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -102,6 +104,17 @@ public class BudgetController {
         );
     }
 
+    @ResponseStatus(HttpStatus.OK)
+    @PatchMapping(value = "/budgets", consumes = {MediaType.APPLICATION_JSON_VALUE, PartialUpdater.APPLICATION_MERGE_PATCH_JSON_VALUE})
+    public ApiResponseSuccess<List<BudgetWithSpendingOverTimeDTO>> partiallyUpdateBudgets(@RequestBody List<Map<String, Object>> incompleteBudgets) {
+
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        return new ApiResponseSuccess<>(
+                budgetService.partiallyUpdateBudgets(incompleteBudgets, loggedInUser.getId())
+        );
+    }
+
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/budgets/{id}")
     public ApiResponseSuccess<String> deleteBudgetById(@PathVariable("id") @Positive Long id) {
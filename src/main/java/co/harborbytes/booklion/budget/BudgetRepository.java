@@ -3,8 +3,13 @@ package co.harborbytes.booklion.budget;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +17,36 @@ import java.util.Optional;
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
 //    @Query("SELECT b from Budget b WHERE b.user.id = ?1")
-    Page<Budget> findAllByUserId(Long userId, Pageable pageable);
+    @Query(value = "SELECT b FROM Budget b JOIN FETCH b.account JOIN FETCH b.user WHERE b.user.id = :userId",
+            countQuery = "SELECT COUNT(b) FROM Budget b WHERE b.user.id = :userId")
+    Page<Budget> findAllByUserId(@Param("userId") Long userId, Pageable pageable);
     Optional<Budget> findByIdAndUserId(Long id, Long userId);
     void deleteByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT new co.harborbytes.booklion.budget.AccountSpenditure(a.number, SUM(tl.debitAmount), SUM(tl.creditAmount)) " +
+            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t " +
+            "WHERE t.user.id = :userId AND a.number IN :accountNumbers AND t.createdAt >= :startDate AND t.createdAt < :endDate " +
+            "AND tl.createdAt >= :startDate AND tl.createdAt < :endDate " +
+            "GROUP BY a.number")
+    List<AccountSpenditure> sumSpenditureByAccountNumbersBetweenDates(@Param("userId") Long userId, @Param("accountNumbers") Collection<String> accountNumbers, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
+
+    @Query("SELECT new co.harborbytes.booklion.budget.AccountSpenditure(a.number, m.debits, m.credits) " +
+            "FROM AccountMonthlyBalance m INNER JOIN m.account a " +
+            "WHERE m.user.id = :userId AND a.number IN :accountNumbers AND m.periodStart = :periodStart")
+    List<AccountSpenditure> findMonthlySpenditureByAccountNumbers(@Param("userId") Long userId, @Param("accountNumbers") Collection<String> accountNumbers, @Param("periodStart") LocalDate periodStart);
+
+    // months are cut in the given zone, which JPQL has no way to express, hence the native query; the zone is bound
+    // once in the inner select so the outer GROUP BY only sees a plain column
+    @Query(value = "SELECT p.period, SUM(p.debit_amount), SUM(p.credit_amount) FROM (" +
+            "SELECT TO_CHAR(t.created_at AT TIME ZONE :zone, 'YYYY-MM') AS period, tl.debit_amount, tl.credit_amount " +
+            "FROM transaction_line tl INNER JOIN transaction t ON t.id = tl.transaction_id INNER JOIN account a ON a.id = tl.account_id " +
+            "WHERE t.user_id = :userId AND a.number = :accountNumber AND t.created_at >= :startDate AND t.created_at < :endDate " +
+            "AND tl.created_at >= :startDate AND tl.created_at < :endDate" +
+            ") p GROUP BY p.period", nativeQuery = true)
+    List<Object[]> sumMonthlySpenditureBetweenDates(@Param("userId") Long userId, @Param("accountNumber") String accountNumber, @Param("zone") String zone, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
+
+    @Query("SELECT new co.harborbytes.booklion.budget.PeriodSpenditure(m.periodStart, m.debits, m.credits) " +
+            "FROM AccountMonthlyBalance m INNER JOIN m.account a " +
+            "WHERE m.user.id = :userId AND a.number = :accountNumber AND m.periodStart >= :firstMonth AND m.periodStart <= :lastMonth")
+    List<PeriodSpenditure> findMonthlySpenditureBetweenMonths(@Param("userId") Long userId, @Param("accountNumber") String accountNumber, @Param("firstMonth") LocalDate firstMonth, @Param("lastMonth") LocalDate lastMonth);
 }
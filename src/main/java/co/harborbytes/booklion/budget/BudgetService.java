@@ -4,49 +4,62 @@ import co.harborbytes.booklion.account.Account;
 import co.harborbytes.booklion.account.AccountRepository;
 import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
-import co.harborbytes.booklion.transaction.AccountTransactionLedger;
+import co.harborbytes.booklion.money.Money;
+import co.harborbytes.booklion.money.MoneyAccumulator;
+import co.harborbytes.booklion.patch.PartialUpdater;
+import co.harborbytes.booklion.report.ReportCache;
 import co.harborbytes.booklion.transaction.Transaction;
 import co.harborbytes.booklion.transaction.TransactionRepository;
 import co.harborbytes.booklion.user.User;
 import co.harborbytes.booklion.user.UserRepository;
-import jakarta.persistence.Column;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
-import org.springframework.validation.FieldError;
 import org.springframework.validation.Validator;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BudgetService {
 
+    private static final PartialUpdater<Budget> BUDGET_UPDATER = PartialUpdater.of(Budget.class);
+
     private final BudgetMapper mapper;
     private final BudgetRepository budgetRepo;
     private final AccountRepository accountRepo;
     private final UserRepository userRepo;
     private final TransactionRepository transactionRepository;
+    private final ReportCache reportCache;
 
     private final Validator validator;
+    private final boolean spenditureFromRollup;
+    private final ZoneId budgetZone;
+
     @Autowired
-    public BudgetService(BudgetMapper mapper, BudgetRepository budgetRepo, AccountRepository accountRepo, UserRepository userRepo, Validator validator, TransactionRepository transactionRepository) {
+    public BudgetService(BudgetMapper mapper, BudgetRepository budgetRepo, AccountRepository accountRepo, UserRepository userRepo, Validator validator, TransactionRepository transactionRepository, ReportCache reportCache,
+                         @Value("${booklion.budgets.spenditure-from-rollup:false}") boolean spenditureFromRollup,
+                         @Value("${booklion.budgets.time-zone:UTC}") String budgetZone) {
         this.mapper = mapper;
         this.accountRepo = accountRepo;
         this.budgetRepo = budgetRepo;
         this.userRepo = userRepo;
         this.validator = validator;
         this.transactionRepository = transactionRepository;
+        this.reportCache = reportCache;
+        this.spenditureFromRollup = spenditureFromRollup;
+        this.budgetZone = ZoneId.of(budgetZone);
     }
 
 
@@ -95,87 +108,119 @@ public class BudgetService {
     }
 
     public Page<ReadBudgetDTO> findBudgetsByUserId(Long userId, Pageable pageable) {
+        // what was spent so far is this month's, a cached page must not outlive the month
+        YearMonth currentMonth = YearMonth.now(budgetZone);
+        return reportCache.get(userId, "budgets", currentMonth + ":" + pageable, () -> computeBudgetsByUserId(userId, pageable));
+    }
 
-
+    private Page<ReadBudgetDTO> computeBudgetsByUserId(Long userId, Pageable pageable) {
         Page<ReadBudgetDTO> readBudgetDTOPage = budgetRepo.findAllByUserId(userId, pageable)
                 .map(mapper::budgetToReadBudgetDto);
 
+        Set<String> accountNumbers = readBudgetDTOPage.stream().map(ReadBudgetDTO::getAccountNumber).collect(Collectors.toSet());
+        Map<String, BigDecimal> spenditures = computeBudgetSpenditureForCurrentMonth(userId, accountNumbers);
+
         readBudgetDTOPage.forEach(readBudgetDTO -> {
-            readBudgetDTO.setSpentSoFar(computeBudgetSpenditureForCurrentMonth(userId, readBudgetDTO.getAccountNumber()));
+            readBudgetDTO.setSpentSoFar(spenditures.getOrDefault(readBudgetDTO.getAccountNumber(), Money.ZERO.toBigDecimal()));
         });
 
         return readBudgetDTOPage;
     }
 
     public BigDecimal computeBudgetSpenditureForCurrentMonth(Long userId, String accountNumber){
+        return computeBudgetSpenditureForCurrentMonth(userId, Set.of(accountNumber)).getOrDefault(accountNumber, Money.ZERO.toBigDecimal());
+    }
+
+    public Map<String, BigDecimal> computeBudgetSpenditureForCurrentMonth(Long userId, Collection<String> accountNumbers){
 
+        if (accountNumbers.isEmpty())
+            return Map.of();
 
-        Instant startDate = Instant.parse(String.format("%sT00:00:00Z", YearMonth.from(Instant.now().atZone(ZoneId.of("UTC"))).atDay(1)));
-        Instant endDate = Instant.parse(String.format("%sT00:00:00Z", YearMonth.from(Instant.now().atZone(ZoneId.of("UTC"))).atEndOfMonth()));
-        List<AccountTransactionLedger> transactions = transactionRepository.findTransactionsByUserIdAndAccountNumberBetweenDates(userId, accountNumber,startDate, endDate);
+        YearMonth currentMonth = YearMonth.now(budgetZone);
+        List<AccountSpenditure> spenditures;
 
-        BigDecimal spentSoFar =  new BigDecimal("0.00");
-        for(AccountTransactionLedger transaction : transactions){
-            spentSoFar = spentSoFar.add(transaction.getDebits().subtract(transaction.getCredits()));
+        // the rollup holds whole UTC months, so the current month's row is exactly what has been spent so far
+        if (canUseRollup()) {
+            spenditures = budgetRepo.findMonthlySpenditureByAccountNumbers(userId, accountNumbers, currentMonth.atDay(1));
+        } else {
+            Instant startDate = currentMonth.atDay(1).atStartOfDay(budgetZone).toInstant();
+            Instant endDate = currentMonth.plusMonths(1).atDay(1).atStartOfDay(budgetZone).toInstant();
+            spenditures = budgetRepo.sumSpenditureByAccountNumbersBetweenDates(userId, accountNumbers, startDate, endDate);
         }
-        return spentSoFar;
+
+        return spenditures.stream().collect(Collectors.toMap(AccountSpenditure::getAccountNumber, AccountSpenditure::getSpent));
     }
 
     public List<BudgetMonthlySpenditure> computeBudgetSpenditureUpUntilDate(Long userId, String accountNumber, Instant to){
 
-        Instant from = to.atZone(ZoneId.of("UTC")).minusMonths(6).toInstant();
+        Instant from = to.atZone(budgetZone).minusMonths(6).toInstant();
         return computeBudgetSpenditureBetweenDates(userId, accountNumber, from , to);
     }
 
     public List<BudgetMonthlySpenditure> computeBudgetSpenditureBetweenDates(Long userId, String accountNumber, Instant from, Instant to){
 
+        Map<String, MoneyAccumulator> spenditureOverTime = getBaseSpenditureOverTime(from, to);
+        if (spenditureOverTime.isEmpty())
+            return new ArrayList<>();
+
+        // the skeleton runs from to's month back to, but not including, from's month; the query covers exactly those
+        // months so it returns at most one row per entry
+        YearMonth lastMonth = YearMonth.from(to.atZone(budgetZone));
+        YearMonth firstMonth = lastMonth.minusMonths(spenditureOverTime.size() - 1);
+
+        List<PeriodSpenditure> spenditures;
+        if (canUseRollup()) {
+            spenditures = budgetRepo.findMonthlySpenditureBetweenMonths(userId, accountNumber, firstMonth.atDay(1), lastMonth.atDay(1));
+        } else {
+            Instant startDate = firstMonth.atDay(1).atStartOfDay(budgetZone).toInstant();
+            Instant endDate = lastMonth.plusMonths(1).atDay(1).atStartOfDay(budgetZone).toInstant();
+            spenditures = budgetRepo.sumMonthlySpenditureBetweenDates(userId, accountNumber, budgetZone.getId(), startDate, endDate)
+                    .stream()
+                    .map(row -> new PeriodSpenditure((String) row[0], (BigDecimal) row[1], (BigDecimal) row[2]))
+                    .toList();
+        }
 
-        List<AccountTransactionLedger> transactions = transactionRepository.findTransactionsByUserIdAndAccountNumberBetweenDates(userId, accountNumber,from, to);
-        Map<String, BigDecimal> spenditureOverTime = getBaseSpenditureOverTime(from, to);
-
-        for(AccountTransactionLedger transaction : transactions){
-
-            String period = getMonthAndYear(transaction.getDate());
-            BigDecimal spentOnPeriod = spenditureOverTime.get(period);
-//            if(spentOnPeriod == null){
-//                spentOnPeriod = new BigDecimal("0.00");
-//            }
-
-            spenditureOverTime.put(period, spentOnPeriod.add(transaction.getDebits().subtract(transaction.getCredits())));
+        for (PeriodSpenditure spenditure : spenditures) {
+            MoneyAccumulator spentOnPeriod = spenditureOverTime.get(spenditure.getPeriod());
+            if (spentOnPeriod != null)
+                spentOnPeriod.add(spenditure.getDebits()).subtract(spenditure.getCredits());
         }
 
         List<BudgetMonthlySpenditure> monthlySpenditures = new ArrayList<>();
         spenditureOverTime.forEach((month, spentAmount) ->{
-            monthlySpenditures.add(new BudgetMonthlySpenditure(month, spentAmount));
+            monthlySpenditures.add(new BudgetMonthlySpenditure(month, spentAmount.toBigDecimal()));
         });
 
         return monthlySpenditures;
     }
 
     public String getMonthAndYear(Instant instant){
-        ZoneId z = ZoneId.of("UTC");
-        ZonedDateTime zdt = ZonedDateTime.now(z);
+        ZonedDateTime zdt = instant.atZone(budgetZone);
         return String.format("%s-%02d", zdt.getYear(), zdt.getMonthValue());
     }
 
-    private Map<String, BigDecimal> getBaseSpenditureOverTime (Instant from, Instant to){
+    private Map<String, MoneyAccumulator> getBaseSpenditureOverTime (Instant from, Instant to){
 
-        Map<String, BigDecimal> result = new LinkedHashMap<>();
+        Map<String, MoneyAccumulator> result = new LinkedHashMap<>();
         if(from.compareTo(to) >= 0)
             return result;
 
-        ZoneId zid = ZoneId.of("UTC");
-        ZonedDateTime startDate = to.atZone(zid);
-        ZonedDateTime endDate = from.atZone(zid);
+        ZonedDateTime startDate = to.atZone(budgetZone);
+        ZonedDateTime endDate = from.atZone(budgetZone);
 
         do{
-            result.put(String.format("%s-%02d", startDate.getYear(), startDate.getMonthValue()), new BigDecimal("0.00"));
+            result.put(getMonthAndYear(startDate.toInstant()), new MoneyAccumulator());
             startDate = startDate.minusMonths(1);
         }while (startDate.getYear() != endDate.getYear() || startDate.getMonthValue() != endDate.getMonthValue());
-        
+
         return result;
     }
 
+    // account_monthly_balance is bucketed by UTC month, so it only answers for budgets reported in UTC
+    private boolean canUseRollup() {
+        return spenditureFromRollup && budgetZone.normalized().equals(ZoneOffset.UTC);
+    }
+
 
 //    @Transactional
 //    public BudgetDTO updateBudget(BudgetDTO budgetDto, Long accountId, Long userId, AtomicBoolean didCreate) {
@@ -216,66 +261,53 @@ public class BudgetService {
                 .findByIdAndUserId(id, userId).orElseThrow(() -> new DomainEntityNotFoundException(Budget.class.getSimpleName(), "id", id.toString()));
 
 
-        Field[] budgetFields = Budget.class.getDeclaredFields();
         BindingResult result = new BeanPropertyBindingResult(budgetToUpdate, "budgetToUpdate");
+        BUDGET_UPDATER.apply(budgetToUpdate, incompleteBudget, result);
 
-        for (Field budgetField : budgetFields) {
-
-            if(!incompleteBudget.keySet().contains(budgetField.getName()))
-                continue;
-
-            if (Modifier.isStatic(budgetField.getModifiers()))
-                continue;
-
-            if (budgetField.getName().equals("id"))
-                continue;
-
-            Column column = budgetField.getAnnotation(Column.class);
-
-            if(column == null)
-                continue;
-
-            if (!column.updatable())
-                continue;
-
-
-            Object jsonValue = incompleteBudget.get(budgetField.getName());
+        validator.validate(budgetToUpdate, result);
+        if (result.hasErrors())
+            throw new DomainEntityValidationException(result);
 
-            budgetField.setAccessible(true);
-            try {
+        BudgetWithSpendingOverTimeDTO budgetWithSpendingOverTimeDTO = mapper.budgetToBudgetWithSpendingOverTimeDTO(budgetToUpdate);
+        budgetWithSpendingOverTimeDTO.setSpending(computeBudgetSpenditureUpUntilDate(userId, budgetToUpdate.getAccount().getNumber(), Instant.now()));
+//        return mapper.budgetToDto(budgetToUpdate);
 
-                if(budgetField.getType().equals(BigDecimal.class)){
-                    if(jsonValue == null) throw new IllegalArgumentException();
-                    BigDecimal amount = new BigDecimal(jsonValue.toString());
-                    budgetField.set(budgetToUpdate, amount);
-                }
-                else{
-                    budgetField.set(budgetToUpdate, jsonValue);
+        return budgetWithSpendingOverTimeDTO;
+    }
 
-                }
+    @Transactional
+    public List<BudgetWithSpendingOverTimeDTO> partiallyUpdateBudgets(List<Map<String, Object>> incompleteBudgets, Long userId) {
+
+        List<Long> ids = PartialUpdater.idsOf(incompleteBudgets, "budgetsToUpdate");
+        Map<Long, Budget> budgetsById = budgetRepo.findAllById(ids).stream()
+                .filter(budget -> budget.getUser().getId().equals(userId))
+                .collect(Collectors.toMap(Budget::getId, Function.identity()));
+
+        List<Budget> budgetsToUpdate = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Budget budget = budgetsById.get(id);
+            if (budget == null)
+                throw new DomainEntityNotFoundException(Budget.class.getSimpleName(), "id", id.toString());
+            budgetsToUpdate.add(budget);
+        }
 
-            } catch (IllegalAccessException | IllegalArgumentException e) {
-                result.addError(
-                        new FieldError(
-                                "budgetToUpdate",
-                                budgetField.getName(),
-                                String.format("field cannot be set with  \"%s\"", jsonValue)));
-            }
+        BindingResult result = new BeanPropertyBindingResult(budgetsToUpdate, "budgetsToUpdate");
+        for (int i = 0; i < budgetsToUpdate.size(); i++) {
+            BUDGET_UPDATER.apply(budgetsToUpdate.get(i), incompleteBudgets.get(i), result, String.format("[%d].", i));
 
+            result.pushNestedPath(String.format("[%d]", i));
+            validator.validate(budgetsToUpdate.get(i), result);
+            result.popNestedPath();
         }
 
-//        if (result.hasErrors())
-//            throw new DomainEntityValidationException(result);
-
-        validator.validate(budgetToUpdate, result);
         if (result.hasErrors())
             throw new DomainEntityValidationException(result);
 
-        BudgetWithSpendingOverTimeDTO budgetWithSpendingOverTimeDTO = mapper.budgetToBudgetWithSpendingOverTimeDTO(budgetToUpdate);
-        budgetWithSpendingOverTimeDTO.setSpending(computeBudgetSpenditureUpUntilDate(userId, budgetToUpdate.getAccount().getNumber(), Instant.now()));
-//        return mapper.budgetToDto(budgetToUpdate);
-
-        return budgetWithSpendingOverTimeDTO;
+        return budgetsToUpdate.stream().map(budget -> {
+            BudgetWithSpendingOverTimeDTO budgetWithSpendingOverTimeDTO = mapper.budgetToBudgetWithSpendingOverTimeDTO(budget);
+            budgetWithSpendingOverTimeDTO.setSpending(computeBudgetSpenditureUpUntilDate(userId, budget.getAccount().getNumber(), Instant.now()));
+            return budgetWithSpendingOverTimeDTO;
+        }).collect(Collectors.toList());
     }
 
     @Transactional
@@ -0,0 +1,23 @@
+package co.harborbytes.booklion.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class PeriodSpenditure {
+    private String period;
+    private BigDecimal debits;
+    private BigDecimal credits;
+
+    public PeriodSpenditure(LocalDate periodStart, BigDecimal debits, BigDecimal credits) {
+        this(String.format("%s-%02d", periodStart.getYear(), periodStart.getMonthValue()), debits, credits);
+    }
+
+    public BigDecimal getSpent() {
+        return debits.subtract(credits);
+    }
+}
@@ -0,0 +1,89 @@
+package co.harborbytes.booklion.concurrency;
+
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseFail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits at most a fixed number of requests at a time, sized from the connection pool. With a platform thread per
+ * request Tomcat's 200 threads were the limit and the pool rarely saw more waiters than that; with a virtual thread per
+ * request thousands of them can queue on the pool at once, all of them holding memory and most of them ending in
+ * Hikari's connection timeout after 30 seconds. Here the excess waits a short while for a permit and is then turned
+ * away with a 503 and a Retry-After instead.
+ * <p>
+ * The wait parks the virtual thread, the semaphore doesn't pin it.
+ */
+public class ConnectionPoolLimiterFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maximumConcurrentRequests;
+    private final long admissionTimeoutMillis;
+    private final ObjectMapper jsonMapper;
+    private final Counter rejected;
+
+    public ConnectionPoolLimiterFilter(int maximumConcurrentRequests, Duration admissionTimeout, ObjectMapper jsonMapper, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maximumConcurrentRequests, true);
+        this.maximumConcurrentRequests = maximumConcurrentRequests;
+        this.admissionTimeoutMillis = admissionTimeout.toMillis();
+        this.jsonMapper = jsonMapper;
+        this.rejected = Counter.builder("booklion.requests.limiter.rejected")
+                .description("Requests turned away because every database slot stayed busy")
+                .register(meterRegistry);
+        Gauge.builder("booklion.requests.limiter.in-flight", () -> maximumConcurrentRequests - permits.availablePermits())
+                .description("Requests currently admitted by the connection pool limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            rejected.increment();
+            reject(response);
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ApiResponseFail error = new ApiResponseFail<>();
+        error.addMessage(String.format("the server is handling %d requests already, please try again shortly", maximumConcurrentRequests));
+        error.setTimestamp(Instant.now());
+        error.setDebug(getClass().getName());
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        jsonMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,61 @@
+package co.harborbytes.booklion.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * What the application needs on top of Spring Boot's own switch, {@code spring.threads.virtual.enabled=true}, to serve
+ * requests on virtual threads. Boot only honours the switch on Java 21, build with {@code -P java21} for that; on
+ * Java 17 none of this is registered and Tomcat keeps its platform thread pool.
+ * <p>
+ * Pinning audit of the request path, as of this change:
+ * <ul>
+ *     <li>{@code JwtTokenFilter} and {@code JwtAuthenticationCache}: no locks, Caffeine only holds a map bin while
+ *     computing, never across I/O.</li>
+ *     <li>{@code JwksGooglePublicKeySource} and {@code ChartOfAccounts} held a monitor while reading from Google and
+ *     from the database, both now take a {@code ReentrantLock} instead. So does
+ *     {@code ChartOfAccountsRevisionWatcher}, since the scheduler moves to virtual threads as well.</li>
+ *     <li>HikariCP hands connections over without monitors from 5.1.0 on, which the {@code java21} profile moves
+ *     to; the PostgreSQL driver Boot manages, 42.6.0, already replaced its {@code synchronized} blocks with locks.</li>
+ *     <li>BCrypt doesn't pin, and being pure CPU it runs on the {@code BoundedPasswordEncoder}'s own platform threads,
+ *     the request's virtual thread just parks until the hash is ready.</li>
+ * </ul>
+ * Run with {@code -Djdk.tracePinnedThreads=short} to catch anything this list missed.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<ConnectionPoolLimiterFilter> connectionPoolLimiterFilter(DataSource dataSource, ObjectMapper jsonMapper, MeterRegistry meterRegistry,
+                                                                                           @Value("${booklion.virtual-threads.requests-per-connection:2}") int requestsPerConnection,
+                                                                                           @Value("${booklion.virtual-threads.admission-timeout:PT2S}") Duration admissionTimeout) throws SQLException {
+
+        int maximumConcurrentRequests = maximumPoolSize(dataSource) * requestsPerConnection;
+        FilterRegistrationBean<ConnectionPoolLimiterFilter> registration = new FilterRegistrationBean<>(
+                new ConnectionPoolLimiterFilter(maximumConcurrentRequests, admissionTimeout, jsonMapper, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        // ahead of spring security, resolving a bearer token can already take a connection
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    private static int maximumPoolSize(DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class))
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        // hikari's default
+        return 10;
+    }
+}
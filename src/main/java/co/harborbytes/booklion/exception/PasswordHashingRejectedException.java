@@ -0,0 +1,7 @@
+package co.harborbytes.booklion.exception;
+
+public class PasswordHashingRejectedException extends RuntimeException{
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package co.harborbytes.booklion.exception;
+
+public class ReportJobRejectedException extends RuntimeException{
+    public ReportJobRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package co.harborbytes.booklion.exception;
+
+import java.util.List;
+
+public class TransactionBatchRejectedException extends TransactionValidationException{
+
+    private final List<String> errors;
+
+    public TransactionBatchRejectedException(String message, List<String> errors) {
+        super(message);
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
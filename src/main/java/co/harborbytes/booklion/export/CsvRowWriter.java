@@ -0,0 +1,112 @@
+package co.harborbytes.booklion.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * RFC 4180 CSV in UTF-8: comma separated, CRLF terminated, fields quoted only when they have to be. Amounts are plain
+ * decimals and times ISO-8601 in UTC, so the file reads back exactly.
+ * <p>
+ * Text that a spreadsheet would take for a formula (starting with {@code = + - @}, a tab or a carriage return) is
+ * prefixed with an apostrophe. Descriptions are typed in by users, and these files are opened in spreadsheets.
+ */
+class CsvRowWriter implements RowWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private boolean firstCell = true;
+
+    CsvRowWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public void header(String... names) throws IOException {
+        for (String name : names)
+            text(name);
+        endRow();
+    }
+
+    @Override
+    public void text(String value) throws IOException {
+        separate();
+        if (value == null || value.isEmpty())
+            return;
+
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        if (!formula && !needsQuotes(value)) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        if (formula)
+            out.write('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    @Override
+    public void number(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+    }
+
+    @Override
+    public void amount(BigDecimal value) throws IOException {
+        separate();
+        if (value != null)
+            out.write(value.toPlainString());
+    }
+
+    @Override
+    public void time(Instant value) throws IOException {
+        separate();
+        if (value != null)
+            out.write(value.toString());
+    }
+
+    @Override
+    public void blank() throws IOException {
+        separate();
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        out.write("\r\n");
+        firstCell = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private void separate() throws IOException {
+        if (!firstCell)
+            out.write(',');
+        firstCell = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r')
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,127 @@
+package co.harborbytes.booklion.export;
+
+import co.harborbytes.booklion.exception.TransactionValidationException;
+import co.harborbytes.booklion.user.User;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Exports as CSV ({@code format=csv}, the default) or as a workbook ({@code format=xlsx}). Dates are instants or plain
+ * days, taken as UTC midnight; {@code from} is inclusive and {@code to} exclusive. {@code accountNumber} can be
+ * repeated.
+ * <p>
+ * The export is written on the request thread rather than handed over as a {@code StreamingResponseBody}: it can take
+ * longer than the async request timeout, which is sized for the report job long polls. Everything that can be refused
+ * is checked before the first byte; a failure before anything was sent is answered like any other error, one after that
+ * leaves the document unfinished, so a truncated export can't pass for a complete one.
+ */
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/transactions")
+    public void exportTransactions(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                   @RequestParam(value = "from", required = false) String from,
+                                   @RequestParam(value = "to", required = false) String to,
+                                   @RequestParam(value = "accountNumber", required = false) List<String> accountNumbers,
+                                   HttpServletResponse response) throws IOException {
+        Long userId = loggedInUserId();
+        ExportFilter filter = exportService.filterOf(parseDate("from", from), parseDate("to", to), accountNumbers);
+
+        write(response, ExportFormat.of(format), "transactions", "Transactions", out -> exportService.exportTransactions(userId, filter, out));
+    }
+
+    @GetMapping("/ledgers")
+    public void exportLedgers(@RequestParam(value = "format", defaultValue = "csv") String format,
+                              @RequestParam(value = "from", required = false) String from,
+                              @RequestParam(value = "to", required = false) String to,
+                              @RequestParam(value = "accountNumber", required = false) List<String> accountNumbers,
+                              HttpServletResponse response) throws IOException {
+        Long userId = loggedInUserId();
+        ExportFilter filter = exportService.filterOf(parseDate("from", from), parseDate("to", to), accountNumbers);
+
+        write(response, ExportFormat.of(format), "ledgers", "Ledgers", out -> exportService.exportLedgers(userId, filter, out));
+    }
+
+    @GetMapping("/balance-sheet")
+    public void exportBalanceSheet(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                   @RequestParam(value = "from", required = false) String from,
+                                   HttpServletResponse response) throws IOException {
+        Long userId = loggedInUserId();
+        Instant fromDate = parseDate("from", from);
+
+        write(response, ExportFormat.of(format), "balance-sheet", "Balance sheet", out -> exportService.exportBalanceSheet(userId, fromDate, out));
+    }
+
+    @GetMapping("/income-statement")
+    public void exportIncomeStatement(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                      @RequestParam(value = "from", required = false) String from,
+                                      HttpServletResponse response) throws IOException {
+        Long userId = loggedInUserId();
+        Instant fromDate = parseDate("from", from);
+
+        write(response, ExportFormat.of(format), "income-statement", "Income statement", out -> exportService.exportIncomeStatement(userId, fromDate, out));
+    }
+
+    private static void write(HttpServletResponse response, ExportFormat format, String fileName, String sheetName, Export export) throws IOException {
+        response.setContentType(format.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + format.getExtension())
+                .build()
+                .toString());
+
+        // not closed on failure, see above
+        try {
+            RowWriter out = format.open(response.getOutputStream(), sheetName);
+            export.writeTo(out);
+            out.close();
+        } catch (IOException | RuntimeException ex) {
+            // nothing has gone out yet: drop the export's headers and what's buffered so the error can be answered as JSON
+            if (!response.isCommitted())
+                response.reset();
+            throw ex;
+        }
+    }
+
+    private static Instant parseDate(String name, String value) {
+        if (value == null || value.isBlank())
+            return null;
+
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new TransactionValidationException(String.format("\"%s\" is not a valid %s date, use 2024-01-31 or 2024-01-31T00:00:00Z", value, name));
+        }
+    }
+
+    private static Long loggedInUserId() {
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return loggedInUser.getId();
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(RowWriter out) throws IOException;
+    }
+}
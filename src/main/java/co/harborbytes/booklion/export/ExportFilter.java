@@ -0,0 +1,21 @@
+package co.harborbytes.booklion.export;
+
+import co.harborbytes.booklion.account.Account;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What an export covers: transactions created from {@code from}, inclusive, until {@code to}, exclusive, either of
+ * which may be null for no bound, and touching any of {@code accounts}, or any account at all when it's empty.
+ */
+@Getter
+@AllArgsConstructor
+public class ExportFilter {
+
+    private Instant from;
+    private Instant to;
+    private List<Account> accounts;
+}
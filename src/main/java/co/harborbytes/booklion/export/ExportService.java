@@ -0,0 +1,174 @@
+package co.harborbytes.booklion.export;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountStatus;
+import co.harborbytes.booklion.account.AccountType;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import co.harborbytes.booklion.exception.TransactionValidationException;
+import co.harborbytes.booklion.money.MoneyAccumulator;
+import co.harborbytes.booklion.transaction.BalanceSheetReport;
+import co.harborbytes.booklion.transaction.IncomeStatementReport;
+import co.harborbytes.booklion.transaction.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Month-end exports: the transactions with their lines, the account ledgers with running balances, and the reports.
+ * The first two are streamed from the database to the writer row by row (see {@link LedgerExportQueries}), so they
+ * take the same memory whatever their length. The reports are a row per account, they come from
+ * {@link TransactionService} like the report endpoints' do.
+ */
+@Service
+public class ExportService {
+
+    private final LedgerExportQueries queries;
+    private final ChartOfAccounts chartOfAccounts;
+    private final TransactionService transactionService;
+
+    @Autowired
+    public ExportService(LedgerExportQueries queries, ChartOfAccounts chartOfAccounts, TransactionService transactionService) {
+        this.queries = queries;
+        this.chartOfAccounts = chartOfAccounts;
+        this.transactionService = transactionService;
+    }
+
+    public ExportFilter filterOf(Instant from, Instant to, List<String> accountNumbers) {
+        if (from != null && to != null && !from.isBefore(to))
+            throw new TransactionValidationException(String.format("the export range from %s to %s is empty", from, to));
+
+        List<Account> accounts = accountNumbers == null ? List.of() : accountNumbers.stream()
+                .distinct()
+                .map(number -> chartOfAccounts.findByNumber(number)
+                        .orElseThrow(() -> new DomainEntityNotFoundException(Account.class.getSimpleName(), "number", number)))
+                .toList();
+
+        return new ExportFilter(from, to, accounts);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTransactions(Long userId, ExportFilter filter, RowWriter out) throws IOException {
+        out.header("Transaction", "Date", "Description", "Account number", "Account name", "Account type", "Debit", "Credit");
+
+        queries.streamTransactionLines(userId, filter, (transactionId, createdAt, description, accountNumber, accountName, accountType, debit, credit) -> {
+            out.number(transactionId);
+            out.time(createdAt);
+            out.text(description);
+            out.text(accountNumber);
+            out.text(accountName);
+            out.text(accountType.name());
+            out.amount(debit);
+            out.amount(credit);
+            out.endRow();
+        });
+    }
+
+    /**
+     * One ledger after the other, by account number, each with its running balance. With a start date every account
+     * opens with what it stood at before it, accounts that saw no lines in the range included, so the closing balances
+     * are the real ones.
+     */
+    @Transactional(readOnly = true)
+    public void exportLedgers(Long userId, ExportFilter filter, RowWriter out) throws IOException {
+        out.header("Account number", "Account name", "Date", "Transaction", "Description", "Debit", "Credit", "Balance");
+
+        Deque<LedgerExportQueries.OpeningBalance> openings = filter.getFrom() == null
+                ? new ArrayDeque<>()
+                : new ArrayDeque<>(queries.sumNetDebitsBefore(userId, filter.getFrom(), filter.getAccounts()));
+        RunningLedger ledger = new RunningLedger();
+
+        queries.streamAccountLines(userId, filter, (transactionId, createdAt, description, accountNumber, accountName, accountType, debit, credit) -> {
+            if (!accountNumber.equals(ledger.accountNumber)) {
+                // both are ordered by account number, the accounts that only have an opening balance go in between
+                while (!openings.isEmpty() && openings.peekFirst().accountNumber().compareTo(accountNumber) < 0)
+                    writeOpening(out, openings.removeFirst(), filter.getFrom());
+
+                ledger.accountNumber = accountNumber;
+                ledger.balance = new MoneyAccumulator();
+                if (!openings.isEmpty() && openings.peekFirst().accountNumber().equals(accountNumber))
+                    ledger.balance.add(writeOpening(out, openings.removeFirst(), filter.getFrom()));
+            }
+
+            addSigned(ledger.balance, accountType, debit, credit);
+            out.text(accountNumber);
+            out.text(accountName);
+            out.time(createdAt);
+            out.number(transactionId);
+            out.text(description);
+            out.amount(debit);
+            out.amount(credit);
+            out.amount(ledger.balance.toBigDecimal());
+            out.endRow();
+        });
+
+        while (!openings.isEmpty())
+            writeOpening(out, openings.removeFirst(), filter.getFrom());
+    }
+
+    public void exportBalanceSheet(Long userId, Instant from, RowWriter out) throws IOException {
+        BalanceSheetReport report = transactionService.getBalanceSheetReportV2(userId, from);
+
+        out.header("Section", "Account", "Balance");
+        writeSection(out, "Assets", report.getAssets());
+        writeSection(out, "Liabilities", report.getLiabilities());
+        writeSection(out, "Equity", report.getEquity());
+    }
+
+    public void exportIncomeStatement(Long userId, Instant from, RowWriter out) throws IOException {
+        IncomeStatementReport report = transactionService.getIncomeStatementReportV2(userId, from);
+
+        out.header("Section", "Account", "Balance");
+        writeSection(out, "Revenue", report.getRevenue());
+        writeSection(out, "Expenses", report.getExpenses());
+    }
+
+    private static BigDecimal writeOpening(RowWriter out, LedgerExportQueries.OpeningBalance opening, Instant from) throws IOException {
+        MoneyAccumulator balance = new MoneyAccumulator();
+        addSigned(balance, opening.accountType(), opening.netDebits(), BigDecimal.ZERO);
+
+        out.text(opening.accountNumber());
+        out.text(opening.accountName());
+        out.time(from);
+        out.blank();
+        out.text("Opening balance");
+        out.blank();
+        out.blank();
+        out.amount(balance.toBigDecimal());
+        out.endRow();
+        return balance.toBigDecimal();
+    }
+
+    private static void writeSection(RowWriter out, String section, List<AccountStatus> accounts) throws IOException {
+        // the reports leave a section out as null when no account of its type has a balance
+        if (accounts == null)
+            return;
+
+        for (AccountStatus account : accounts) {
+            out.text(section);
+            out.text(account.getName());
+            out.amount(account.getBalance());
+            out.endRow();
+        }
+    }
+
+    // debits increase assets and expenses, credits increase everything else
+    private static void addSigned(MoneyAccumulator balance, AccountType accountType, BigDecimal debits, BigDecimal credits) {
+        if (accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES)
+            balance.add(debits).subtract(credits);
+        else
+            balance.add(credits).subtract(debits);
+    }
+
+    private static class RunningLedger {
+        private String accountNumber;
+        private MoneyAccumulator balance;
+    }
+}
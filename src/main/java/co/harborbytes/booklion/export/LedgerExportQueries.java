@@ -0,0 +1,169 @@
+package co.harborbytes.booklion.export;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ledger queries behind the exports, in plain JDBC: rows are read off a forward-only, read-only cursor
+ * {@code booklion.exports.fetch-size} at a time and handed over column by column, no entity or DTO is built for them.
+ * PostgreSQL only honours the fetch size inside a transaction, without one it reads the whole result first; callers
+ * hold one.
+ * <p>
+ * Both bounds are applied to the line's own created_at as well as the transaction's, which lets PostgreSQL prune the
+ * partitions of either table. The account's number, name and type come with each line, so an export never depends on
+ * the cached chart of accounts being current.
+ */
+@Component
+class LedgerExportQueries {
+
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+    private static final String LINE_COLUMNS = "SELECT t.id, t.created_at, t.description, a.number, a.name, a.type, tl.debit_amount, tl.credit_amount ";
+
+    @FunctionalInterface
+    interface LineSink {
+        void accept(long transactionId, Instant createdAt, String description, String accountNumber, String accountName, AccountType accountType,
+                    BigDecimal debit, BigDecimal credit) throws IOException;
+    }
+
+    record OpeningBalance(String accountNumber, String accountName, AccountType accountType, BigDecimal netDebits) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    @Autowired
+    LedgerExportQueries(JdbcTemplate jdbcTemplate, @Value("${booklion.exports.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Every line of the user's transactions in the range, ordered by transaction. With accounts, only the transactions
+     * with a line on one of them, but with all of their lines, so each one still balances.
+     */
+    void streamTransactionLines(Long userId, ExportFilter filter, LineSink sink) throws IOException {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(userId);
+
+        StringBuilder sql = new StringBuilder(LINE_COLUMNS +
+                "FROM transaction t INNER JOIN transaction_line tl ON tl.transaction_id = t.id INNER JOIN account a ON a.id = tl.account_id " +
+                "WHERE t.user_id = ?");
+        appendRange(sql, arguments, filter.getFrom(), filter.getTo(), "t", "tl");
+        if (!filter.getAccounts().isEmpty()) {
+            sql.append(" AND t.id IN (SELECT f.transaction_id FROM transaction_line f WHERE f.account_id IN ");
+            appendAccounts(sql, arguments, filter.getAccounts());
+            appendRange(sql, arguments, filter.getFrom(), filter.getTo(), null, "f");
+            sql.append(")");
+        }
+        sql.append(" ORDER BY t.created_at, t.id, tl.id");
+
+        stream(sql.toString(), arguments, sink);
+    }
+
+    /**
+     * The user's lines in the range on the given accounts, or on every account, ordered by account number and then as
+     * in the account's ledger.
+     */
+    void streamAccountLines(Long userId, ExportFilter filter, LineSink sink) throws IOException {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(userId);
+
+        StringBuilder sql = new StringBuilder(LINE_COLUMNS +
+                "FROM transaction_line tl INNER JOIN transaction t ON t.id = tl.transaction_id INNER JOIN account a ON a.id = tl.account_id " +
+                "WHERE t.user_id = ?");
+        appendRange(sql, arguments, filter.getFrom(), filter.getTo(), "t", "tl");
+        if (!filter.getAccounts().isEmpty()) {
+            sql.append(" AND tl.account_id IN ");
+            appendAccounts(sql, arguments, filter.getAccounts());
+        }
+        sql.append(" ORDER BY a.number, t.created_at, t.id, tl.id");
+
+        stream(sql.toString(), arguments, sink);
+    }
+
+    /**
+     * Debits minus credits per account over the user's lines before {@code before}, on the given accounts or on every
+     * account, ordered by account number. Accounts without lines are left out.
+     */
+    List<OpeningBalance> sumNetDebitsBefore(Long userId, Instant before, List<Account> accounts) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(userId);
+
+        StringBuilder sql = new StringBuilder("SELECT a.number, a.name, a.type, SUM(tl.debit_amount) - SUM(tl.credit_amount) " +
+                "FROM transaction_line tl INNER JOIN transaction t ON t.id = tl.transaction_id INNER JOIN account a ON a.id = tl.account_id " +
+                "WHERE t.user_id = ?");
+        appendRange(sql, arguments, null, before, "t", "tl");
+        if (!accounts.isEmpty()) {
+            sql.append(" AND tl.account_id IN ");
+            appendAccounts(sql, arguments, accounts);
+        }
+        sql.append(" GROUP BY a.number, a.name, a.type ORDER BY a.number");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNumber) -> new OpeningBalance(rs.getString(1), rs.getString(2), ACCOUNT_TYPES[rs.getInt(3)], rs.getBigDecimal(4)),
+                arguments.toArray());
+    }
+
+    private void stream(String sql, List<Object> arguments, LineSink sink) throws IOException {
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < arguments.size(); i++)
+                ps.setObject(i + 1, arguments.get(i));
+            return ps;
+        };
+
+        try {
+            jdbcTemplate.query(statement, (RowCallbackHandler) rs -> {
+                try {
+                    sink.accept(rs.getLong(1), rs.getObject(2, OffsetDateTime.class).toInstant(), rs.getString(3),
+                            rs.getString(4), rs.getString(5), ACCOUNT_TYPES[rs.getInt(6)], rs.getBigDecimal(7), rs.getBigDecimal(8));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static void appendRange(StringBuilder sql, List<Object> arguments, Instant from, Instant to, String transaction, String line) {
+        for (String alias : new String[]{transaction, line}) {
+            if (alias == null)
+                continue;
+            if (from != null) {
+                sql.append(" AND ").append(alias).append(".created_at >= ?");
+                arguments.add(OffsetDateTime.ofInstant(from, ZoneOffset.UTC));
+            }
+            if (to != null) {
+                sql.append(" AND ").append(alias).append(".created_at < ?");
+                arguments.add(OffsetDateTime.ofInstant(to, ZoneOffset.UTC));
+            }
+        }
+    }
+
+    private static void appendAccounts(StringBuilder sql, List<Object> arguments, List<Account> accounts) {
+        sql.append('(');
+        for (int i = 0; i < accounts.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            arguments.add(accounts.get(i).getId());
+        }
+        sql.append(')');
+    }
+}
@@ -0,0 +1,32 @@
+package co.harborbytes.booklion.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Writes an export one cell at a time, straight through to the response, so nothing is kept past the row being
+ * written. A row is its cells in order followed by {@link #endRow()}; the header is written first, once.
+ * <p>
+ * Closing finishes the document but leaves the underlying stream open, it belongs to the caller.
+ */
+public interface RowWriter extends Closeable {
+
+    void header(String... names) throws IOException;
+
+    void text(String value) throws IOException;
+
+    void number(long value) throws IOException;
+
+    /**
+     * An amount in the ledger's scale, written as is; null leaves the cell empty.
+     */
+    void amount(BigDecimal value) throws IOException;
+
+    void time(Instant value) throws IOException;
+
+    void blank() throws IOException;
+
+    void endRow() throws IOException;
+}
@@ -0,0 +1,268 @@
+package co.harborbytes.booklion.export;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Office Open XML workbook written as it goes: the rows are streamed into the worksheet's zip entry and the parts that
+ * list the worksheets are written last, once it's known how many there are. Nothing but the current row is held, so
+ * an export of any length takes the same memory, unlike a workbook library building the sheet as objects first.
+ * <p>
+ * Strings are written inline rather than into a shared string table, which would have to be held until the end.
+ * Amounts are numbers formatted with two decimals, times are spreadsheet dates in UTC. A sheet that reaches the
+ * format's row limit is continued on a new one, under the same header.
+ */
+class XlsxRowWriter implements RowWriter {
+
+    static final int MAXIMUM_ROWS = 1_048_576;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String MAIN_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    // indexes into cellXfs in styles.xml
+    private static final int AMOUNT_STYLE = 1;
+    private static final int TIME_STYLE = 2;
+    private static final int HEADER_STYLE = 3;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    // 1970-01-01 as a spreadsheet date, which counts days from 1899-12-30
+    private static final long EPOCH_DAY = 25_569;
+
+    private final ZipOutputStream zip;
+    private final Writer out;
+    private final String sheetName;
+
+    private String[] header;
+    private int sheets;
+    private int rowsInSheet;
+    private boolean rowOpen;
+    private boolean headerRow;
+
+    XlsxRowWriter(OutputStream out, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(new FilterOutputStream(out) {
+            // the response stream stays open when the workbook is finished
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+            }
+        });
+        this.zip.setLevel(Deflater.BEST_SPEED);
+        this.out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.sheetName = sheetName;
+        startSheet();
+    }
+
+    @Override
+    public void header(String... names) throws IOException {
+        header = names.clone();
+        writeHeader();
+    }
+
+    @Override
+    public void text(String value) throws IOException {
+        startCell();
+        if (value == null) {
+            out.write("<c/>");
+            return;
+        }
+
+        if (headerRow)
+            out.write("<c t=\"inlineStr\" s=\"" + HEADER_STYLE + "\"><is><t xml:space=\"preserve\">");
+        else
+            out.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        escape(value);
+        out.write("</t></is></c>");
+    }
+
+    @Override
+    public void number(long value) throws IOException {
+        startCell();
+        out.write("<c><v>");
+        out.write(Long.toString(value));
+        out.write("</v></c>");
+    }
+
+    @Override
+    public void amount(BigDecimal value) throws IOException {
+        startCell();
+        if (value == null) {
+            out.write("<c/>");
+            return;
+        }
+
+        out.write("<c s=\"" + AMOUNT_STYLE + "\"><v>");
+        out.write(value.toPlainString());
+        out.write("</v></c>");
+    }
+
+    @Override
+    public void time(Instant value) throws IOException {
+        startCell();
+        if (value == null) {
+            out.write("<c/>");
+            return;
+        }
+
+        double days = EPOCH_DAY + (value.getEpochSecond() + value.getNano() / 1e9) / SECONDS_PER_DAY;
+        out.write("<c s=\"" + TIME_STYLE + "\"><v>");
+        out.write(Double.toString(days));
+        out.write("</v></c>");
+    }
+
+    @Override
+    public void blank() throws IOException {
+        startCell();
+        out.write("<c/>");
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        startCell();
+        out.write("</row>");
+        rowOpen = false;
+        rowsInSheet++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finishSheet();
+        writeWorkbook();
+        zip.finish();
+        zip.flush();
+    }
+
+    private void startCell() throws IOException {
+        if (rowOpen)
+            return;
+
+        if (rowsInSheet == MAXIMUM_ROWS) {
+            finishSheet();
+            startSheet();
+            if (header != null)
+                writeHeader();
+        }
+        out.write("<row>");
+        rowOpen = true;
+    }
+
+    private void writeHeader() throws IOException {
+        headerRow = true;
+        for (String name : header)
+            text(name);
+        endRow();
+        headerRow = false;
+    }
+
+    private void startSheet() throws IOException {
+        sheets++;
+        rowsInSheet = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+        out.write(XML_DECLARATION);
+        out.write("<worksheet xmlns=\"" + MAIN_NAMESPACE + "\">");
+        // keeps the header in view while scrolling
+        out.write("<sheetViews><sheetView workbookViewId=\"0\">" +
+                "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>" +
+                "</sheetView></sheetViews>");
+        out.write("<sheetData>");
+    }
+
+    private void finishSheet() throws IOException {
+        if (rowOpen)
+            endRow();
+        out.write("</sheetData></worksheet>");
+        out.flush();
+        zip.closeEntry();
+    }
+
+    private void writeWorkbook() throws IOException {
+        StringBuilder contentTypes = new StringBuilder(XML_DECLARATION)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        StringBuilder workbook = new StringBuilder(XML_DECLARATION)
+                .append("<workbook xmlns=\"").append(MAIN_NAMESPACE).append("\" xmlns:r=\"").append(RELATIONSHIPS_NAMESPACE).append("\"><sheets>");
+        StringBuilder workbookRelationships = new StringBuilder(XML_DECLARATION)
+                .append("<Relationships xmlns=\"").append(PACKAGE_RELATIONSHIPS_NAMESPACE).append("\">");
+
+        for (int sheet = 1; sheet <= sheets; sheet++) {
+            contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(sheet)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            workbook.append("<sheet name=\"").append(sheet == 1 ? sheetName : sheetName + " " + sheet)
+                    .append("\" sheetId=\"").append(sheet).append("\" r:id=\"rId").append(sheet).append("\"/>");
+            workbookRelationships.append("<Relationship Id=\"rId").append(sheet)
+                    .append("\" Type=\"").append(RELATIONSHIPS_NAMESPACE).append("/worksheet\" Target=\"worksheets/sheet").append(sheet).append(".xml\"/>");
+        }
+
+        contentTypes.append("</Types>");
+        workbook.append("</sheets></workbook>");
+        workbookRelationships.append("<Relationship Id=\"rId").append(sheets + 1)
+                .append("\" Type=\"").append(RELATIONSHIPS_NAMESPACE).append("/styles\" Target=\"styles.xml\"/>")
+                .append("</Relationships>");
+
+        writeEntry("[Content_Types].xml", contentTypes);
+        writeEntry("_rels/.rels", new StringBuilder(XML_DECLARATION)
+                .append("<Relationships xmlns=\"").append(PACKAGE_RELATIONSHIPS_NAMESPACE).append("\">")
+                .append("<Relationship Id=\"rId1\" Type=\"").append(RELATIONSHIPS_NAMESPACE).append("/officeDocument\" Target=\"xl/workbook.xml\"/>")
+                .append("</Relationships>"));
+        writeEntry("xl/workbook.xml", workbook);
+        writeEntry("xl/_rels/workbook.xml.rels", workbookRelationships);
+        writeEntry("xl/styles.xml", new StringBuilder(XML_DECLARATION)
+                .append("<styleSheet xmlns=\"").append(MAIN_NAMESPACE).append("\">")
+                .append("<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd hh:mm:ss\"/></numFmts>")
+                .append("<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font><font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>")
+                .append("<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>")
+                .append("<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>")
+                .append("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>")
+                .append("<cellXfs count=\"4\">")
+                .append("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>")
+                // built-in format 4 is #,##0.00
+                .append("<xf numFmtId=\"4\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>")
+                .append("<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>")
+                .append("<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>")
+                .append("</cellXfs></styleSheet>"));
+    }
+
+    private void writeEntry(String name, CharSequence content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        out.append(content);
+        out.flush();
+        zip.closeEntry();
+    }
+
+    // characters XML 1.0 can't carry at all are dropped
+    private void escape(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                default -> {
+                    if (c >= 0x20 && c != 0xFFFE && c != 0xFFFF || c == '\t' || c == '\n' || c == '\r')
+                        out.write(c);
+                }
+            }
+        }
+    }
+}
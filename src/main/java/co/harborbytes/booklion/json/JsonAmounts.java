@@ -0,0 +1,61 @@
+package co.harborbytes.booklion.json;
+
+import co.harborbytes.booklion.money.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes amounts the way {@code ToStringSerializer} does, as a JSON string with the plain digits, but for the usual
+ * scale 2 amount without going through {@link BigDecimal#toString()}: the cents are formatted straight into a per
+ * thread buffer and handed to the generator, which copies them into its own. Any other scale takes the slow path and
+ * comes out exactly as before.
+ */
+final class JsonAmounts {
+
+    // sign, 18 digits and the decimal point, plus the leading zero of amounts under one
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[21]);
+
+    private JsonAmounts() {
+    }
+
+    static void writeAmount(JsonGenerator gen, BigDecimal amount) throws IOException {
+        if (amount == null) {
+            gen.writeNull();
+            return;
+        }
+
+        // up to 18 digits the cents always fit a long
+        if (amount.scale() != 2 || amount.precision() > 18) {
+            gen.writeString(amount.toString());
+            return;
+        }
+
+        long cents = Money.centsOf(amount);
+        char[] buffer = BUFFER.get();
+        boolean negative = cents < 0;
+        long remaining = negative ? -cents : cents;
+
+        int position = buffer.length;
+        buffer[--position] = (char) ('0' + remaining % 10);
+        remaining /= 10;
+        buffer[--position] = (char) ('0' + remaining % 10);
+        remaining /= 10;
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (negative)
+            buffer[--position] = '-';
+
+        gen.writeString(buffer, position, buffer.length - position);
+    }
+
+    static void writeAmountField(JsonGenerator gen, SerializableString name, BigDecimal amount) throws IOException {
+        gen.writeFieldName(name);
+        writeAmount(gen, amount);
+    }
+}
@@ -0,0 +1,289 @@
+package co.harborbytes.booklion.json;
+
+import co.harborbytes.booklion.account.AccountStatus;
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
+import co.harborbytes.booklion.transaction.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Hand-written serializers for the response envelope and for the DTOs that make up the largest responses: transaction
+ * pages, ledgers and the reports. Jackson's bean serializer finds every property by introspection and reads each one
+ * through a reflective call, and {@code ToStringSerializer} builds a string per amount; these write each field by
+ * name, with the names encoded once up front, and format amounts through {@link JsonAmounts}.
+ * <p>
+ * The output is what the bean serializer produced, down to field order and which nulls are left out. Dates, enums and
+ * anything else nested are still handed to the serializer the mapper has configured for them. A field added to one of
+ * these DTOs has to be added here as well, or it won't show up in responses.
+ * <p>
+ * Spring Boot registers every {@link com.fasterxml.jackson.databind.Module} bean with its {@code ObjectMapper}.
+ */
+@Component
+public class LedgerJsonModule extends SimpleModule {
+
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString DATA = new SerializedString("data");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString LINES = new SerializedString("lines");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString DEBIT_AMOUNT = new SerializedString("debitAmount");
+    private static final SerializedString CREDIT_AMOUNT = new SerializedString("creditAmount");
+    private static final SerializedString ACCOUNT_ID = new SerializedString("accountId");
+    private static final SerializedString ACCOUNT = new SerializedString("account");
+    private static final SerializedString DATE = new SerializedString("date");
+    private static final SerializedString ACCOUNT_TYPE = new SerializedString("accountType");
+    private static final SerializedString DEBITS = new SerializedString("debits");
+    private static final SerializedString CREDITS = new SerializedString("credits");
+    private static final SerializedString TRANSACTION_ID = new SerializedString("transactionId");
+    private static final SerializedString BALANCE = new SerializedString("balance");
+    private static final SerializedString ENTRIES = new SerializedString("entries");
+    private static final SerializedString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ASSETS = new SerializedString("assets");
+    private static final SerializedString LIABILITIES = new SerializedString("liabilities");
+    private static final SerializedString EQUITY = new SerializedString("equity");
+    private static final SerializedString REVENUE = new SerializedString("revenue");
+    private static final SerializedString EXPENSES = new SerializedString("expenses");
+
+    public LedgerJsonModule() {
+        super(LedgerJsonModule.class.getSimpleName());
+
+        TransactionLineDTOSerializer lineSerializer = new TransactionLineDTOSerializer();
+        AccountLedgerEntrySerializer entrySerializer = new AccountLedgerEntrySerializer();
+        AccountStatusSerializer statusSerializer = new AccountStatusSerializer();
+
+        addSerializer(new ApiResponseSuccessSerializer());
+        addSerializer(new TransactionDTOSerializer(lineSerializer));
+        addSerializer(lineSerializer);
+        addSerializer(new AccountTransactionLedgerSerializer());
+        addSerializer(entrySerializer);
+        addSerializer(new AccountLedgerPageSerializer(entrySerializer));
+        addSerializer(statusSerializer);
+        addSerializer(new BalanceSheetReportSerializer(statusSerializer));
+        addSerializer(new IncomeStatementReportSerializer(statusSerializer));
+    }
+
+    @SuppressWarnings("rawtypes")
+    static final class ApiResponseSuccessSerializer extends StdSerializer<ApiResponseSuccess> {
+
+        ApiResponseSuccessSerializer() {
+            super(ApiResponseSuccess.class);
+        }
+
+        // the envelope is @JsonInclude(NON_NULL)
+        @Override
+        public void serialize(ApiResponseSuccess response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(response);
+            gen.writeFieldName(STATUS);
+            gen.writeString(response.getStatus());
+            if (response.getData() != null) {
+                gen.writeFieldName(DATA);
+                provider.defaultSerializeValue(response.getData(), gen);
+            }
+            if (response.getPage() != null) {
+                gen.writeFieldName(PAGE);
+                provider.defaultSerializeValue(response.getPage(), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static final class TransactionDTOSerializer extends StdSerializer<TransactionDTO> {
+
+        private final TransactionLineDTOSerializer lineSerializer;
+
+        TransactionDTOSerializer(TransactionLineDTOSerializer lineSerializer) {
+            super(TransactionDTO.class);
+            this.lineSerializer = lineSerializer;
+        }
+
+        @Override
+        public void serialize(TransactionDTO transaction, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(transaction);
+            gen.writeFieldName(DESCRIPTION);
+            gen.writeString(transaction.getDescription());
+            gen.writeFieldName(LINES);
+            writeList(transaction.getLines(), lineSerializer, gen, provider);
+            writeLongField(gen, ID, transaction.getId());
+            writeValueField(gen, provider, CREATED_AT, transaction.getCreatedAt());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class TransactionLineDTOSerializer extends StdSerializer<TransactionLineDTO> {
+
+        TransactionLineDTOSerializer() {
+            super(TransactionLineDTO.class);
+        }
+
+        @Override
+        public void serialize(TransactionLineDTO line, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(line);
+            JsonAmounts.writeAmountField(gen, DEBIT_AMOUNT, line.getDebitAmount());
+            JsonAmounts.writeAmountField(gen, CREDIT_AMOUNT, line.getCreditAmount());
+            // accountId is @JsonInclude(NON_NULL)
+            if (line.getAccountId() != null)
+                writeLongField(gen, ACCOUNT_ID, line.getAccountId());
+            writeValueField(gen, provider, ACCOUNT, line.getAccount());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AccountTransactionLedgerSerializer extends StdSerializer<AccountTransactionLedger> {
+
+        AccountTransactionLedgerSerializer() {
+            super(AccountTransactionLedger.class);
+        }
+
+        @Override
+        public void serialize(AccountTransactionLedger ledger, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(ledger);
+            writeValueField(gen, provider, DATE, ledger.getDate());
+            gen.writeFieldName(DESCRIPTION);
+            gen.writeString(ledger.getDescription());
+            writeValueField(gen, provider, ACCOUNT_TYPE, ledger.getAccountType());
+            JsonAmounts.writeAmountField(gen, DEBITS, ledger.getDebits());
+            JsonAmounts.writeAmountField(gen, CREDITS, ledger.getCredits());
+            writeLongField(gen, TRANSACTION_ID, ledger.getTransactionId());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AccountLedgerEntrySerializer extends StdSerializer<AccountLedgerEntry> {
+
+        AccountLedgerEntrySerializer() {
+            super(AccountLedgerEntry.class);
+        }
+
+        @Override
+        public void serialize(AccountLedgerEntry entry, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(entry);
+            writeValueField(gen, provider, DATE, entry.getDate());
+            gen.writeFieldName(DESCRIPTION);
+            gen.writeString(entry.getDescription());
+            writeValueField(gen, provider, ACCOUNT_TYPE, entry.getAccountType());
+            JsonAmounts.writeAmountField(gen, DEBITS, entry.getDebits());
+            JsonAmounts.writeAmountField(gen, CREDITS, entry.getCredits());
+            writeLongField(gen, TRANSACTION_ID, entry.getTransactionId());
+            JsonAmounts.writeAmountField(gen, BALANCE, entry.getBalance());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AccountLedgerPageSerializer extends StdSerializer<AccountLedgerPage> {
+
+        private final AccountLedgerEntrySerializer entrySerializer;
+
+        AccountLedgerPageSerializer(AccountLedgerEntrySerializer entrySerializer) {
+            super(AccountLedgerPage.class);
+            this.entrySerializer = entrySerializer;
+        }
+
+        @Override
+        public void serialize(AccountLedgerPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName(ENTRIES);
+            writeList(page.getEntries(), entrySerializer, gen, provider);
+            gen.writeFieldName(NEXT_CURSOR);
+            gen.writeString(page.getNextCursor());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AccountStatusSerializer extends StdSerializer<AccountStatus> {
+
+        AccountStatusSerializer() {
+            super(AccountStatus.class);
+        }
+
+        @Override
+        public void serialize(AccountStatus status, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(status);
+            gen.writeFieldName(NAME);
+            gen.writeString(status.getName());
+            JsonAmounts.writeAmountField(gen, BALANCE, status.getBalance());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class BalanceSheetReportSerializer extends StdSerializer<BalanceSheetReport> {
+
+        private final AccountStatusSerializer statusSerializer;
+
+        BalanceSheetReportSerializer(AccountStatusSerializer statusSerializer) {
+            super(BalanceSheetReport.class);
+            this.statusSerializer = statusSerializer;
+        }
+
+        @Override
+        public void serialize(BalanceSheetReport report, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(report);
+            gen.writeFieldName(ASSETS);
+            writeList(report.getAssets(), statusSerializer, gen, provider);
+            gen.writeFieldName(LIABILITIES);
+            writeList(report.getLiabilities(), statusSerializer, gen, provider);
+            gen.writeFieldName(EQUITY);
+            writeList(report.getEquity(), statusSerializer, gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class IncomeStatementReportSerializer extends StdSerializer<IncomeStatementReport> {
+
+        private final AccountStatusSerializer statusSerializer;
+
+        IncomeStatementReportSerializer(AccountStatusSerializer statusSerializer) {
+            super(IncomeStatementReport.class);
+            this.statusSerializer = statusSerializer;
+        }
+
+        @Override
+        public void serialize(IncomeStatementReport report, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(report);
+            gen.writeFieldName(REVENUE);
+            writeList(report.getRevenue(), statusSerializer, gen, provider);
+            gen.writeFieldName(EXPENSES);
+            writeList(report.getExpenses(), statusSerializer, gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    private static <T> void writeList(List<T> items, StdSerializer<T> serializer, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (items == null) {
+            gen.writeNull();
+            return;
+        }
+
+        gen.writeStartArray(items, items.size());
+        for (T item : items) {
+            if (item == null)
+                gen.writeNull();
+            else
+                serializer.serialize(item, gen, provider);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeLongField(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null)
+            gen.writeNull();
+        else
+            gen.writeNumber(value);
+    }
+
+    private static void writeValueField(JsonGenerator gen, SerializerProvider provider, SerializableString name, Object value) throws IOException {
+        gen.writeFieldName(name);
+        provider.defaultSerializeValue(value, gen);
+    }
+}
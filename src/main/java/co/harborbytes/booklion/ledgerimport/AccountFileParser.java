@@ -0,0 +1,62 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the accounts file, an {@code number,name,opening balance} row per account. The name is everything between the
+ * first and the last comma, so it may hold commas of its own; an empty balance is zero. A first row that doesn't start
+ * with a digit is taken for a header.
+ */
+final class AccountFileParser {
+
+    /**
+     * An account row, or the reason it can't be one when {@code error} is set.
+     */
+    record AccountRow(long lineNumber, String number, String name, BigDecimal openingBalance, String error) {
+    }
+
+    private AccountFileParser() {
+    }
+
+    static List<AccountRow> readAll(ImportLineReader reader) throws IOException {
+        List<AccountRow> rows = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String row = TransactionFileParser.stripTrailingCommas(line.strip());
+            if (row.isEmpty())
+                continue;
+            if (reader.lineNumber() == 1 && !Character.isDigit(row.charAt(0)))
+                continue;
+
+            rows.add(parse(reader.lineNumber(), row));
+        }
+
+        return rows;
+    }
+
+    private static AccountRow parse(long lineNumber, String row) {
+        int firstComma = row.indexOf(',');
+        int lastComma = row.lastIndexOf(',');
+        if (firstComma < 0)
+            return new AccountRow(lineNumber, null, null, null, "the row should be number,name,opening balance");
+
+        String number = row.substring(0, firstComma).strip();
+        String name = firstComma == lastComma ? row.substring(firstComma + 1) : row.substring(firstComma + 1, lastComma);
+        String balance = firstComma == lastComma ? "" : row.substring(lastComma + 1).strip();
+
+        BigDecimal openingBalance;
+        try {
+            openingBalance = balance.isEmpty() ? BigDecimal.ZERO : new BigDecimal(balance);
+        } catch (NumberFormatException ex) {
+            return new AccountRow(lineNumber, number, null, null, String.format("%s is not an amount", balance));
+        }
+        if (openingBalance.scale() > 2)
+            return new AccountRow(lineNumber, number, null, null, "amounts can't have more than 2 decimals");
+
+        return new AccountRow(lineNumber, number, TransactionFileParser.unquote(name.strip()), openingBalance, null);
+    }
+}
@@ -0,0 +1,6 @@
+package co.harborbytes.booklion.ledgerimport;
+
+public enum ImportKind {
+    ACCOUNTS,
+    TRANSACTIONS
+}
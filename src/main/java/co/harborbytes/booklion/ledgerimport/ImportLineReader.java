@@ -0,0 +1,103 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads an import file a line at a time through one reused 64KB buffer, keeping the byte offset and number of the
+ * lines it hands out so an import can take a checkpoint after any of them and open the file again right there. Lines
+ * end at {@code \n}, a {@code \r} before it is dropped, and a UTF-8 byte order mark opening the file is skipped.
+ * <p>
+ * A plain read through a buffer rather than a memory mapping: the file is read once, front to back, which the page
+ * cache's read-ahead already serves as fast, and a mapping of a file of any size would stay around until collected.
+ */
+final class ImportLineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private byte[] line = new byte[256];
+    private long offset;
+    private long lineNumber;
+
+    ImportLineReader(Path path, long offset, long lineNumber) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        this.buffer.flip();
+    }
+
+    /**
+     * The next line, or null at the end of the file.
+     */
+    String readLine() throws IOException {
+        long start = offset;
+        int length = 0;
+        byte[] bytes = buffer.array();
+
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    if (offset == start)
+                        return null;
+                    break;
+                }
+            }
+
+            int from = buffer.position();
+            int limit = buffer.limit();
+            int end = from;
+            while (end < limit && bytes[end] != '\n')
+                end++;
+
+            if (length + end - from > line.length)
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + end - from));
+            System.arraycopy(bytes, from, line, length, end - from);
+            length += end - from;
+            offset += end - from;
+
+            if (end < limit) {
+                buffer.position(end + 1);
+                offset++;
+                break;
+            }
+            buffer.position(limit);
+        }
+
+        lineNumber++;
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        int first = start == 0 && length >= 3 && line[0] == (byte) 0xEF && line[1] == (byte) 0xBB && line[2] == (byte) 0xBF ? 3 : 0;
+        return new String(line, first, length - first, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Where the line after the last one read starts.
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * The number of the last line read, counting from 1.
+     */
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,50 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A row of an imported file that was left out, and why. For a transaction it's the line the transaction starts at.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "import_rejected_row")
+public class ImportRejectedRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "import_run_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(
+                    name = "import_rejected_row_import_run_id_fk"
+            ),
+            updatable = false,
+            nullable = false
+    )
+    private ImportRun importRun;
+
+    @NotNull
+    @Column(name = "line_number", updatable = false, nullable = false)
+    private Long lineNumber;
+
+    @NotNull
+    @Column(name = "message", length = 1024, updatable = false, nullable = false)
+    private String message;
+
+    public ImportRejectedRow(ImportRun importRun, long lineNumber, String message) {
+        this.importRun = importRun;
+        this.lineNumber = lineNumber;
+        this.message = message.length() > 1024 ? message.substring(0, 1021) + "..." : message;
+    }
+}
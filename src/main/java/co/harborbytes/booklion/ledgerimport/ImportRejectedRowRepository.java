@@ -0,0 +1,13 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportRejectedRowRepository extends JpaRepository<ImportRejectedRow, Long> {
+
+    // keyset pages, so the report reads in the same time however many rows were rejected before
+    List<ImportRejectedRow> findFirst1000ByImportRunIdAndIdGreaterThanOrderByIdAsc(Long importRunId, Long afterId);
+}
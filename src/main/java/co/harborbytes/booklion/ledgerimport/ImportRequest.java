@@ -0,0 +1,25 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ImportRequest {
+
+    @NotNull
+    @Positive
+    private Long userId;
+
+    @NotNull
+    private ImportKind kind;
+
+    @NotBlank
+    private String file;
+
+    // when an accounts file's opening balances are posted
+    private Instant openingBalancesAt;
+}
@@ -0,0 +1,128 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.user.User;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One file imported for one user, and how far into it the import has committed. The checkpoint only ever moves
+ * together with the writes it covers, see {@link LedgerImportWriter}; the version guards it against a second node
+ * importing the same file at the same time.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "import_run", uniqueConstraints = {
+        @UniqueConstraint(name = "import_run_user_id_kind_source_unique", columnNames = {"user_id", "kind", "source"})
+})
+public class ImportRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "user_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(
+                    name = "import_run_user_id_fk"
+            ),
+            updatable = false,
+            nullable = false
+    )
+    private User user;
+
+    @NotNull
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "kind", updatable = false, nullable = false)
+    private ImportKind kind;
+
+    @NotNull
+    @Column(name = "source", length = 1024, updatable = false, nullable = false)
+    private String source;
+
+    // SHA-256 of the file's first fingerprintLength bytes, to tell the file the checkpoint belongs to from another one
+    @NotNull
+    @Column(name = "fingerprint", length = 64, nullable = false)
+    private String fingerprint;
+
+    @NotNull
+    @Column(name = "fingerprint_length", nullable = false)
+    private Integer fingerprintLength;
+
+    @NotNull
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "status", nullable = false)
+    private ImportStatus status;
+
+    @NotNull
+    @Column(name = "byte_offset", nullable = false)
+    private Long byteOffset;
+
+    @NotNull
+    @Column(name = "line_number", nullable = false)
+    private Long lineNumber;
+
+    @NotNull
+    @Column(name = "transactions_created", nullable = false)
+    private Long transactionsCreated;
+
+    @NotNull
+    @Column(name = "rows_rejected", nullable = false)
+    private Long rowsRejected;
+
+    @Column(name = "failure", length = 1024)
+    private String failure;
+
+    @NotNull
+    @Column(name = "queued_at", nullable = false)
+    private Instant queuedAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public ImportRun(User user, ImportKind kind, String source) {
+        this.user = user;
+        this.kind = kind;
+        this.source = source;
+        this.byteOffset = 0L;
+        this.lineNumber = 0L;
+        this.transactionsCreated = 0L;
+        this.rowsRejected = 0L;
+    }
+
+    /**
+     * Moves the checkpoint past a committed block of the file.
+     */
+    public void advance(long byteOffset, long lineNumber, long transactionsCreated, long rowsRejected) {
+        this.byteOffset = byteOffset;
+        this.lineNumber = lineNumber;
+        this.transactionsCreated += transactionsCreated;
+        this.rowsRejected += rowsRejected;
+        this.updatedAt = Instant.now();
+    }
+
+    public ImportRunDTO toDTO() {
+        return new ImportRunDTO(id, kind, source, status, lineNumber, byteOffset, transactionsCreated, rowsRejected,
+                queuedAt, startedAt, updatedAt, finishedAt, failure);
+    }
+}
@@ -0,0 +1,26 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRunDTO {
+    private Long id;
+    private ImportKind kind;
+    private String source;
+    private ImportStatus status;
+    private Long linesRead;
+    private Long bytesRead;
+    private Long transactionsCreated;
+    private Long rowsRejected;
+    private Instant queuedAt;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+    private String failure;
+}
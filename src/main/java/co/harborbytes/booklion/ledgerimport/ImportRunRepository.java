@@ -0,0 +1,12 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportRunRepository extends JpaRepository<ImportRun, Long> {
+
+    Optional<ImportRun> findByUserIdAndKindAndSource(Long userId, ImportKind kind, String source);
+}
@@ -0,0 +1,8 @@
+package co.harborbytes.booklion.ledgerimport;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,77 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs an import from the command line and exits, with 0 when every file was imported to its end and 1 otherwise:
+ * <pre>
+ * java -jar booklion.jar --spring.main.web-application-type=none --import.user=someone@example.com \
+ *     --import.accounts=accounts.csv --import.opening-balances-at=2023-12-31T23:59:59Z --import.transactions=transactions.csv
+ * </pre>
+ * Either file can be left out, the accounts go first. Without {@code --import.user} the application starts as usual.
+ */
+@Component
+public class LedgerImportCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerImportCommand.class);
+
+    private final LedgerImportService ledgerImportService;
+    private final UserRepository userRepo;
+    private final ConfigurableApplicationContext context;
+
+    @Autowired
+    public LedgerImportCommand(LedgerImportService ledgerImportService, UserRepository userRepo, ConfigurableApplicationContext context) {
+        this.ledgerImportService = ledgerImportService;
+        this.userRepo = userRepo;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String email = option(args, "import.user");
+        if (email == null)
+            return;
+
+        User user = userRepo.findByEmail(email)
+                .orElseThrow(() -> new DomainEntityNotFoundException(User.class.getSimpleName(), "email", email));
+        String openingBalancesAt = option(args, "import.opening-balances-at");
+
+        List<ImportRunDTO> runs = new ArrayList<>();
+        String accounts = option(args, "import.accounts");
+        if (accounts != null)
+            runs.add(ledgerImportService.importFile(user.getId(), ImportKind.ACCOUNTS, accounts, openingBalancesAt == null ? null : Instant.parse(openingBalancesAt)));
+        String transactions = option(args, "import.transactions");
+        if (transactions != null && runs.stream().allMatch(run -> run.getStatus() == ImportStatus.COMPLETED))
+            runs.add(ledgerImportService.importFile(user.getId(), ImportKind.TRANSACTIONS, transactions, null));
+
+        boolean completed = true;
+        for (ImportRunDTO run : runs) {
+            // warn rather than info, so it shows with the default logging levels
+            log.warn("import {} of {}: {} at line {}, {} transactions created, {} rows rejected{}", run.getId(), run.getSource(), run.getStatus(), run.getLinesRead(),
+                    run.getTransactionsCreated(), run.getRowsRejected(), run.getFailure() == null ? "" : " (" + run.getFailure() + ")");
+            completed &= run.getStatus() == ImportStatus.COMPLETED;
+        }
+
+        int exitCode = completed ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -0,0 +1,66 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
+import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import co.harborbytes.booklion.export.ExportFormat;
+import co.harborbytes.booklion.export.RowWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/admin/imports")
+public class LedgerImportController {
+
+    private final LedgerImportService ledgerImportService;
+
+    @Autowired
+    public LedgerImportController(LedgerImportService ledgerImportService) {
+        this.ledgerImportService = ledgerImportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponseSuccess<?>> submitImport(@Valid @RequestBody ImportRequest request, BindingResult result) {
+
+        if (result.hasErrors()) {
+            throw new DomainEntityValidationException(result);
+        }
+
+        ImportRunDTO run = ledgerImportService.submit(request.getUserId(), request.getKind(), request.getFile(), request.getOpeningBalancesAt());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/imports/" + run.getId()))
+                .body(new ApiResponseSuccess<>(run));
+    }
+
+    @GetMapping("/{id}")
+    public ApiResponseSuccess<ImportRunDTO> getImport(@PathVariable("id") Long id) {
+        return new ApiResponseSuccess<>(ledgerImportService.findRun(id));
+    }
+
+    // the error report, a row per line that was left out, as csv (the default) or xlsx
+    @GetMapping("/{id}/rejected-rows")
+    public void exportRejectedRows(@PathVariable("id") Long id,
+                                   @RequestParam(value = "format", defaultValue = "csv") String format,
+                                   HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        ledgerImportService.findRun(id);
+
+        response.setContentType(exportFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("import-" + id + "-rejected-rows." + exportFormat.getExtension())
+                .build()
+                .toString());
+
+        RowWriter out = exportFormat.open(response.getOutputStream(), "Rejected rows");
+        ledgerImportService.writeRejectedRows(id, out);
+        out.close();
+    }
+}
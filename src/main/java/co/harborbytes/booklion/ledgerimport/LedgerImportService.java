@@ -0,0 +1,236 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import co.harborbytes.booklion.exception.TransactionValidationException;
+import co.harborbytes.booklion.export.RowWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports an accounts file or a transactions file into a user's books, see {@link AccountFileParser} and
+ * {@link TransactionFileParser} for their layout. Files are named relative to {@code booklion.imports.directory} and
+ * can't be outside of it.
+ * <p>
+ * A file is read once, front to back, and written {@code booklion.imports.block-size} transactions at a time, each
+ * block committed together with the checkpoint after it (see {@link LedgerImportWriter}). Importing a file again goes
+ * on from its checkpoint, which finishes an import that was interrupted and only picks up what was appended to one
+ * that completed. Rows that can't be imported are kept with the run and reported by line, they don't stop the rest.
+ * <p>
+ * Submitted imports run one at a time, in the order they were submitted, on a thread of their own; an import run from
+ * the command line (see {@link LedgerImportCommand}) runs on the caller's.
+ */
+@Service
+public class LedgerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerImportService.class);
+    private static final int FINGERPRINT_LENGTH = 64 * 1024;
+
+    private final LedgerImportWriter writer;
+    private final ImportRunRepository runRepo;
+    private final ImportRejectedRowRepository rejectedRowRepo;
+    private final ChartOfAccounts chartOfAccounts;
+    private final Path directory;
+    private final int blockSize;
+    private final ZoneId zone;
+    private final ExecutorService executor;
+    private final Set<String> importsInFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public LedgerImportService(LedgerImportWriter writer, ImportRunRepository runRepo, ImportRejectedRowRepository rejectedRowRepo, ChartOfAccounts chartOfAccounts,
+                               @Value("${booklion.imports.directory:imports}") String directory,
+                               @Value("${booklion.imports.block-size:1000}") int blockSize,
+                               @Value("${booklion.imports.time-zone:UTC}") String zone) {
+        this.writer = writer;
+        this.runRepo = runRepo;
+        this.rejectedRowRepo = rejectedRowRepo;
+        this.chartOfAccounts = chartOfAccounts;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.blockSize = blockSize;
+        this.zone = ZoneId.of(zone);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the import of {@code file} for the user and hands back its run to poll. {@code openingBalancesAt} is when
+     * an accounts file's opening balances are posted.
+     */
+    public ImportRunDTO submit(Long userId, ImportKind kind, String file, Instant openingBalancesAt) {
+        Path source = resolve(file);
+        String key = userId + ":" + kind + ":" + source;
+        if (!importsInFlight.add(key))
+            throw new TransactionValidationException(String.format("%s is already being imported for this user", file));
+
+        try {
+            ImportRun run = writer.queue(userId, kind, source.toString(), Fingerprint.of(source));
+            executor.submit(() -> {
+                try {
+                    run(run, source, openingBalancesAt);
+                } finally {
+                    importsInFlight.remove(key);
+                }
+            });
+            return run.toDTO();
+        } catch (RuntimeException ex) {
+            importsInFlight.remove(key);
+            throw ex;
+        }
+    }
+
+    /**
+     * Imports {@code file} for the user on the calling thread.
+     */
+    public ImportRunDTO importFile(Long userId, ImportKind kind, String file, Instant openingBalancesAt) {
+        Path source = resolve(file);
+        String key = userId + ":" + kind + ":" + source;
+        if (!importsInFlight.add(key))
+            throw new TransactionValidationException(String.format("%s is already being imported for this user", file));
+
+        try {
+            return run(writer.queue(userId, kind, source.toString(), Fingerprint.of(source)), source, openingBalancesAt);
+        } finally {
+            importsInFlight.remove(key);
+        }
+    }
+
+    public ImportRunDTO findRun(Long runId) {
+        return runRepo.findById(runId)
+                .orElseThrow(() -> new DomainEntityNotFoundException(ImportRun.class.getSimpleName(), "id", runId.toString()))
+                .toDTO();
+    }
+
+    /**
+     * The run's rejected rows, in the order they were found.
+     */
+    public void writeRejectedRows(Long runId, RowWriter out) throws IOException {
+        out.header("Line", "Reason");
+
+        long lastId = 0;
+        List<ImportRejectedRow> page;
+        do {
+            page = rejectedRowRepo.findFirst1000ByImportRunIdAndIdGreaterThanOrderByIdAsc(runId, lastId);
+            for (ImportRejectedRow row : page) {
+                out.number(row.getLineNumber());
+                out.text(row.getMessage());
+                out.endRow();
+                lastId = row.getId();
+            }
+        } while (!page.isEmpty());
+    }
+
+    private ImportRunDTO run(ImportRun run, Path source, Instant openingBalancesAt) {
+        long started = System.nanoTime();
+        try (ImportLineReader reader = new ImportLineReader(source, run.getByteOffset(), run.getLineNumber())) {
+            run = writer.start(run);
+            if (run.getKind() == ImportKind.ACCOUNTS)
+                run = writer.writeAccounts(run, AccountFileParser.readAll(reader), openingBalancesAt, reader.offset(), reader.lineNumber());
+            else
+                run = importTransactions(run, reader);
+            run = writer.finish(run);
+
+            log.info("imported {} up to line {} in {} ms, {} transactions created and {} rows rejected so far", source, run.getLineNumber(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), run.getTransactionsCreated(), run.getRowsRejected());
+            return run.toDTO();
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            // the file was queued again, on this node or another, and that import carries on from our last checkpoint
+            log.warn("the import of {} was taken over by another one", source);
+            return findRun(run.getId());
+        } catch (IOException | RuntimeException ex) {
+            log.error("the import of {} failed at line {}", source, run.getLineNumber(), ex);
+            // accounts created in the rolled back block may have made it into the chart of accounts on their way
+            if (run.getKind() == ImportKind.ACCOUNTS)
+                chartOfAccounts.invalidate();
+            return writer.fail(run.getId(), ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage()).toDTO();
+        }
+    }
+
+    private ImportRun importTransactions(ImportRun run, ImportLineReader reader) throws IOException {
+        Map<String, Long> accountIdsByNumber = chartOfAccounts.findAll().stream().collect(Collectors.toMap(Account::getNumber, Account::getId));
+        TransactionFileParser parser = new TransactionFileParser(reader, accountIdsByNumber, zone);
+
+        List<TransactionFileParser.ParsedTransaction> block = new ArrayList<>(blockSize);
+        TransactionFileParser.ParsedTransaction parsed;
+        while ((parsed = parser.next()) != null) {
+            block.add(parsed);
+            if (block.size() == blockSize) {
+                run = writer.writeTransactions(run, block, parser.offset(), parser.lineNumber());
+                block.clear();
+            }
+        }
+
+        // blank lines after the last transaction move the checkpoint too
+        if (!block.isEmpty() || parser.offset() != run.getByteOffset())
+            run = writer.writeTransactions(run, block, parser.offset(), parser.lineNumber());
+        return run;
+    }
+
+    private Path resolve(String file) {
+        Path source = directory.resolve(file).toAbsolutePath().normalize();
+        if (!source.startsWith(directory))
+            throw new TransactionValidationException(String.format("%s is not inside the import directory", file));
+        if (!Files.isRegularFile(source) || !Files.isReadable(source))
+            throw new TransactionValidationException(String.format("%s can't be read from the import directory", file));
+        return source;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A SHA-256 of the first {@code length} bytes of a file.
+     */
+    record Fingerprint(Path file, String hash, int length) {
+
+        static Fingerprint of(Path file) {
+            try {
+                int length = (int) Math.min(Files.size(file), FINGERPRINT_LENGTH);
+                return new Fingerprint(file, hash(file, length), length);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        boolean matches(String otherHash, int otherLength) {
+            try {
+                return Files.size(file) >= otherLength && hash(file, otherLength).equals(otherHash);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private static String hash(Path file, int length) throws IOException {
+            try (InputStream in = Files.newInputStream(file)) {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(in.readNBytes(length));
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
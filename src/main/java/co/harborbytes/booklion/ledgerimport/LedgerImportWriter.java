@@ -0,0 +1,212 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.account.AccountType;
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import co.harborbytes.booklion.exception.TransactionValidationException;
+import co.harborbytes.booklion.transaction.*;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The database side of an import. Every block of a file is written in a transaction of its own that also moves the
+ * run's checkpoint past it, so a block is either in with the checkpoint after it or not in at all. The transactions go
+ * through {@link TransactionBatchService}, which batches the inserts and keeps the balances, the monthly rollups and
+ * the ledger versions in step like for any other write.
+ * <p>
+ * The run is handed in detached and saved back, its version making a run moved on by someone else meanwhile fail
+ * rather than be overwritten.
+ */
+@Component
+class LedgerImportWriter {
+
+    private final ImportRunRepository runRepo;
+    private final ImportRejectedRowRepository rejectedRowRepo;
+    private final UserRepository userRepo;
+    private final AccountRepository accountRepo;
+    private final TransactionBatchService transactionBatchService;
+
+    @Autowired
+    LedgerImportWriter(ImportRunRepository runRepo, ImportRejectedRowRepository rejectedRowRepo, UserRepository userRepo, AccountRepository accountRepo,
+                       TransactionBatchService transactionBatchService) {
+        this.runRepo = runRepo;
+        this.rejectedRowRepo = rejectedRowRepo;
+        this.userRepo = userRepo;
+        this.accountRepo = accountRepo;
+        this.transactionBatchService = transactionBatchService;
+    }
+
+    /**
+     * The user's run for the file, new or the one an earlier import of it left, queued to go on from its checkpoint. A
+     * run that got somewhere only goes on if the file still starts like the one it read.
+     */
+    @Transactional
+    public ImportRun queue(Long userId, ImportKind kind, String source, LedgerImportService.Fingerprint fingerprint) {
+        User user = userRepo
+                .findById(userId).orElseThrow(() -> new DomainEntityNotFoundException(User.class.getSimpleName(), "id", userId.toString()));
+
+        ImportRun run = runRepo.findByUserIdAndKindAndSource(userId, kind, source).orElseGet(() -> new ImportRun(user, kind, source));
+        if (run.getByteOffset() > 0 && !fingerprint.matches(run.getFingerprint(), run.getFingerprintLength()))
+            throw new TransactionValidationException(String.format("%s is not the file the import %d read up to line %d, import it under another name",
+                    source, run.getId(), run.getLineNumber()));
+
+        if (run.getByteOffset() == 0) {
+            run.setFingerprint(fingerprint.hash());
+            run.setFingerprintLength(fingerprint.length());
+        }
+        run.setStatus(ImportStatus.QUEUED);
+        run.setFailure(null);
+        run.setQueuedAt(Instant.now());
+        run.setStartedAt(null);
+        run.setFinishedAt(null);
+        return runRepo.save(run);
+    }
+
+    @Transactional
+    public ImportRun start(ImportRun run) {
+        run.setStatus(ImportStatus.RUNNING);
+        run.setStartedAt(Instant.now());
+        return runRepo.save(run);
+    }
+
+    @Transactional
+    public ImportRun finish(ImportRun run) {
+        run.setStatus(ImportStatus.COMPLETED);
+        run.setFinishedAt(Instant.now());
+        return runRepo.save(run);
+    }
+
+    /**
+     * Marks the run failed whatever state it's in, the checkpoint stays where the last committed block left it.
+     */
+    @Transactional
+    public ImportRun fail(Long runId, String failure) {
+        ImportRun run = runRepo.findById(runId)
+                .orElseThrow(() -> new DomainEntityNotFoundException(ImportRun.class.getSimpleName(), "id", runId.toString()));
+        run.setStatus(ImportStatus.FAILED);
+        run.setFailure(failure == null || failure.length() <= 1024 ? failure : failure.substring(0, 1021) + "...");
+        run.setFinishedAt(Instant.now());
+        return run;
+    }
+
+    /**
+     * Writes a block of parsed transactions, the ones without errors that also pass validation, and records the
+     * others as rejected.
+     */
+    @Transactional
+    public ImportRun writeTransactions(ImportRun run, List<TransactionFileParser.ParsedTransaction> block, long byteOffset, long lineNumber) {
+        List<ImportRejectedRow> rejected = new ArrayList<>();
+        List<TransactionDTO> valid = new ArrayList<>(block.size());
+        List<Long> validLineNumbers = new ArrayList<>(block.size());
+        for (TransactionFileParser.ParsedTransaction parsed : block) {
+            if (parsed.errors().isEmpty()) {
+                valid.add(parsed.transaction());
+                validLineNumbers.add(parsed.lineNumber());
+            } else {
+                rejected.add(new ImportRejectedRow(run, parsed.lineNumber(), String.join("; ", parsed.errors())));
+            }
+        }
+
+        long created = 0;
+        if (!valid.isEmpty()) {
+            TransactionBatchResult result = transactionBatchService.createTransactions(valid, run.getUser().getId(), TransactionBatchMode.PARTIAL);
+            created = result.getCreated();
+            result.getItems().stream()
+                    .filter(item -> item.getStatus() == TransactionBatchItemResult.Status.REJECTED)
+                    .forEach(item -> rejected.add(new ImportRejectedRow(run, validLineNumbers.get(item.getIndex()), String.join("; ", item.getErrors()))));
+        }
+
+        rejectedRowRepo.saveAll(rejected);
+        run.advance(byteOffset, lineNumber, created, rejected.size());
+        return runRepo.save(run);
+    }
+
+    /**
+     * Creates the accounts the chart doesn't have yet and posts the opening balances as one transaction dated
+     * {@code openingBalancesAt}: debits for the assets and expenses, credits for the rest, the other way around for a
+     * negative balance. The accounts come out of one read of the account table, not one lookup per row. Opening
+     * balances that don't add up fail the whole block, an import can't leave half of them in.
+     */
+    @Transactional
+    public ImportRun writeAccounts(ImportRun run, List<AccountFileParser.AccountRow> rows, Instant openingBalancesAt, long byteOffset, long lineNumber) {
+        Map<String, Account> accountsByNumber = accountRepo.findAll().stream().collect(Collectors.toMap(Account::getNumber, Function.identity()));
+        Set<String> names = accountsByNumber.values().stream().map(Account::getName).collect(Collectors.toCollection(HashSet::new));
+
+        List<ImportRejectedRow> rejected = new ArrayList<>();
+        List<TransactionLineDTO> openingLines = new ArrayList<>();
+        for (AccountFileParser.AccountRow row : rows) {
+            String error = row.error() != null ? row.error() : checkNewAccount(row, accountsByNumber, names);
+            if (error != null) {
+                rejected.add(new ImportRejectedRow(run, row.lineNumber(), error));
+                continue;
+            }
+
+            Account account = accountsByNumber.get(row.number());
+            if (account == null) {
+                account = new Account();
+                account.setNumber(row.number());
+                account.setName(row.name());
+                account = accountRepo.save(account);
+                accountsByNumber.put(account.getNumber(), account);
+                names.add(account.getName());
+            }
+
+            if (row.openingBalance().signum() != 0)
+                openingLines.add(openingLine(account, row.openingBalance()));
+        }
+
+        long created = 0;
+        if (!openingLines.isEmpty()) {
+            if (openingBalancesAt == null)
+                throw new TransactionValidationException("the file has opening balances, the date to post them at is missing");
+
+            TransactionDTO opening = new TransactionDTO();
+            opening.setDescription("Opening balances");
+            opening.setCreatedAt(openingBalancesAt);
+            opening.setLines(openingLines);
+
+            TransactionBatchResult result = transactionBatchService.createTransactions(List.of(opening), run.getUser().getId(), TransactionBatchMode.ALL_OR_NOTHING);
+            if (result.getRejected() > 0)
+                throw new TransactionValidationException("the opening balances were rejected: " + String.join("; ", result.getItems().get(0).getErrors()));
+            created = result.getCreated();
+        }
+
+        rejectedRowRepo.saveAll(rejected);
+        run.advance(byteOffset, lineNumber, created, rejected.size());
+        return runRepo.save(run);
+    }
+
+    // what Account's own validation would refuse, checked up front so a bad row is reported instead of failing the block
+    private static String checkNewAccount(AccountFileParser.AccountRow row, Map<String, Account> accountsByNumber, Set<String> names) {
+        if (accountsByNumber.containsKey(row.number()))
+            return null;
+        if (!row.number().matches("^[12345]\\d{2}$"))
+            return String.format("account number %s should be 3 digits, the first one from 1 to 5", row.number());
+        if (row.name().length() < 2 || row.name().length() > 128)
+            return "the account name should be 2 to 128 characters long";
+        if (names.contains(row.name()))
+            return String.format("there is already an account named %s", row.name());
+        return null;
+    }
+
+    private static TransactionLineDTO openingLine(Account account, BigDecimal balance) {
+        boolean debitNormal = account.getAccountType() == AccountType.ASSETS || account.getAccountType() == AccountType.EXPENSES;
+        boolean debit = debitNormal == (balance.signum() > 0);
+
+        TransactionLineDTO line = new TransactionLineDTO();
+        line.setAccountId(account.getId());
+        line.setDebitAmount(debit ? balance.abs() : BigDecimal.ZERO);
+        line.setCreditAmount(debit ? BigDecimal.ZERO : balance.abs());
+        return line;
+    }
+}
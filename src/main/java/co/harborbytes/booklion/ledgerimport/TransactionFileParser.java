@@ -0,0 +1,149 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.transaction.TransactionDTO;
+import co.harborbytes.booklion.transaction.TransactionLineDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the transactions file a transaction at a time. Each transaction is a block of rows: a {@code yyyy-mm-dd} date
+ * row, taken as the start of that day in the import zone, an {@code account number,debit,credit} row per line, and a
+ * description row that closes it. Blank rows, and rows whose first field is empty, are skipped; spreadsheets pad the
+ * rows with trailing commas, those are ignored.
+ * <p>
+ * {@link #offset()} and {@link #lineNumber()} are just past the last transaction returned, a place the import can
+ * start over from. A transaction the file ends in the middle of is not returned and the offset stays before it, so an
+ * import of the file once the rest was appended reads it whole. Account numbers are resolved against the map handed
+ * in, nothing is asked of the database while parsing.
+ */
+final class TransactionFileParser {
+
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern AMOUNT = Pattern.compile("\\d+(\\.\\d+)?");
+
+    /**
+     * A transaction as read from the file, starting at {@code lineNumber}. With errors it's not to be written.
+     */
+    record ParsedTransaction(long lineNumber, TransactionDTO transaction, List<String> errors) {
+    }
+
+    private final ImportLineReader reader;
+    private final Map<String, Long> accountIdsByNumber;
+    private final ZoneId zone;
+    private long offset;
+    private long lineNumber;
+
+    TransactionFileParser(ImportLineReader reader, Map<String, Long> accountIdsByNumber, ZoneId zone) {
+        this.reader = reader;
+        this.accountIdsByNumber = accountIdsByNumber;
+        this.zone = zone;
+        this.offset = reader.offset();
+        this.lineNumber = reader.lineNumber();
+    }
+
+    /**
+     * The next transaction, or null at the end of the file.
+     */
+    ParsedTransaction next() throws IOException {
+        long firstLine = 0;
+        TransactionDTO transaction = new TransactionDTO();
+        List<TransactionLineDTO> lines = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String row = stripTrailingCommas(line.strip());
+            if (row.isEmpty() || row.startsWith(","))
+                continue;
+
+            if (firstLine == 0)
+                firstLine = reader.lineNumber();
+
+            String[] fields = row.split(",", -1);
+            if (fields.length == 1 && DATE.matcher(row).matches()) {
+                try {
+                    transaction.setCreatedAt(LocalDate.parse(row).atStartOfDay(zone).toInstant());
+                } catch (DateTimeException ex) {
+                    errors.add(String.format("line %d: %s is not a valid date", reader.lineNumber(), row));
+                }
+            } else if (fields.length == 3 && isAmountRow(fields)) {
+                TransactionLineDTO transactionLine = parseLine(fields, errors);
+                if (transactionLine != null)
+                    lines.add(transactionLine);
+            } else {
+                transaction.setDescription(unquote(row));
+                transaction.setLines(lines);
+                if (transaction.getCreatedAt() == null && errors.isEmpty())
+                    errors.add("the transaction has no date row");
+                offset = reader.offset();
+                lineNumber = reader.lineNumber();
+                return new ParsedTransaction(firstLine, transaction, errors);
+            }
+        }
+
+        // blank lines at the end are read past, a transaction without its description row isn't
+        if (firstLine == 0) {
+            offset = reader.offset();
+            lineNumber = reader.lineNumber();
+        }
+        return null;
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    private TransactionLineDTO parseLine(String[] fields, List<String> errors) {
+        Long accountId = accountIdsByNumber.get(fields[0]);
+        if (accountId == null) {
+            errors.add(String.format("line %d: account number %s was not found", reader.lineNumber(), fields[0]));
+            return null;
+        }
+
+        BigDecimal debit = new BigDecimal(fields[1]);
+        BigDecimal credit = new BigDecimal(fields[2]);
+        if (debit.scale() > 2 || credit.scale() > 2) {
+            errors.add(String.format("line %d: amounts can't have more than 2 decimals", reader.lineNumber()));
+            return null;
+        }
+
+        TransactionLineDTO transactionLine = new TransactionLineDTO();
+        transactionLine.setAccountId(accountId);
+        transactionLine.setDebitAmount(debit);
+        transactionLine.setCreditAmount(credit);
+        return transactionLine;
+    }
+
+    private static boolean isAmountRow(String[] fields) {
+        for (String field : fields) {
+            if (!AMOUNT.matcher(field).matches())
+                return false;
+        }
+        return true;
+    }
+
+    static String stripTrailingCommas(String row) {
+        int end = row.length();
+        while (end > 0 && row.charAt(end - 1) == ',')
+            end--;
+        return row.substring(0, end).strip();
+    }
+
+    static String unquote(String field) {
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\""))
+            return field.substring(1, field.length() - 1).replace("\"\"", "\"");
+        return field;
+    }
+}
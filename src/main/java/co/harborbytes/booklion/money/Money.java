@@ -0,0 +1,91 @@
+package co.harborbytes.booklion.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of cents. Every amount in the ledger has scale 2, so a {@code long} holds any
+ * of them exactly and adding two of them doesn't allocate. Arithmetic that would overflow throws
+ * {@link ArithmeticException} instead of wrapping around.
+ * <p>
+ * Amounts still enter and leave the application as {@link BigDecimal}s, in the entities and in the DTOs; convert with
+ * {@link #of(BigDecimal)} and {@link #toBigDecimal()} at those edges and fold with {@link MoneyAccumulator} in between.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofCents(centsOf(amount));
+    }
+
+    /**
+     * The amount in cents. Throws {@link ArithmeticException} if it has fractions of a cent or doesn't fit a long.
+     */
+    public static long centsOf(BigDecimal amount) {
+        // up to 18 digits a scale 2 amount is a long number of cents, moving the point is the whole conversion and the
+        // moved amount doesn't outlive the call; anything else takes the exact, allocating route
+        if (amount.scale() == 2 && amount.precision() <= 18)
+            return amount.movePointRight(2).longValueExact();
+
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
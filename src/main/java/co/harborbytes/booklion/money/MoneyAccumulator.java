@@ -0,0 +1,107 @@
+package co.harborbytes.booklion.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Mutable running total in cents, for the loops that fold a ledger into balances. One accumulator per balance replaces
+ * the {@code balance = balance.add(...).subtract(...)} chains that allocate a new {@link BigDecimal} per step; the
+ * total becomes a {@link BigDecimal} once, when it's handed to a DTO.
+ * <p>
+ * A total that leaves the range of a long carries on as a {@link BigDecimal} rather than wrapping around or failing
+ * the fold; only {@link #getCents()} and {@link #toMoney()} throw {@link ArithmeticException} for it. Fractions of a
+ * cent throw when they're added. Not thread safe.
+ */
+public final class MoneyAccumulator {
+
+    private long cents;
+    // null while the total fits a long, the whole total once it doesn't
+    private BigDecimal overflow;
+
+    public MoneyAccumulator add(BigDecimal amount) {
+        if (overflow == null && fitsCents(amount))
+            addCents(amount.movePointRight(2).longValueExact());
+        else
+            addBigDecimal(exactCents(amount));
+        return this;
+    }
+
+    public MoneyAccumulator subtract(BigDecimal amount) {
+        if (overflow == null && fitsCents(amount))
+            addCents(-amount.movePointRight(2).longValueExact());
+        else
+            addBigDecimal(exactCents(amount).negate());
+        return this;
+    }
+
+    public MoneyAccumulator add(Money amount) {
+        if (overflow == null)
+            addCents(amount.getCents());
+        else
+            addBigDecimal(amount.toBigDecimal());
+        return this;
+    }
+
+    public MoneyAccumulator add(MoneyAccumulator other) {
+        if (overflow == null && other.overflow == null)
+            addCents(other.cents);
+        else
+            addBigDecimal(other.toBigDecimal());
+        return this;
+    }
+
+    /**
+     * The total in cents. Throws {@link ArithmeticException} if it doesn't fit a long.
+     */
+    public long getCents() {
+        return overflow == null ? cents : overflow.movePointRight(2).longValueExact();
+    }
+
+    public boolean isZero() {
+        return overflow == null ? cents == 0 : overflow.signum() == 0;
+    }
+
+    public Money toMoney() {
+        return Money.ofCents(getCents());
+    }
+
+    public BigDecimal toBigDecimal() {
+        return overflow == null ? BigDecimal.valueOf(cents, 2) : overflow;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // a scale 2 amount of up to 18 digits is a long number of cents, moving the point is then the whole conversion;
+    // the amount moved exists only inside the call, which the JIT keeps off the heap
+    private static boolean fitsCents(BigDecimal amount) {
+        return amount.scale() == 2 && amount.precision() <= 18;
+    }
+
+    // setScale hands a scale 2 amount back as is, and throws for fractions of a cent
+    private static BigDecimal exactCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY);
+    }
+
+    private void addCents(long amount) {
+        long sum = cents + amount;
+        // both operands have the sign the sum lost, the long overflowed
+        if (((cents ^ sum) & (amount ^ sum)) < 0) {
+            overflow = BigDecimal.valueOf(cents, 2).add(BigDecimal.valueOf(amount, 2));
+            return;
+        }
+        cents = sum;
+    }
+
+    private void addBigDecimal(BigDecimal amount) {
+        BigDecimal total = (overflow == null ? BigDecimal.valueOf(cents, 2) : overflow).add(amount);
+        if (total.precision() <= 18) {
+            cents = total.movePointRight(2).longValueExact();
+            overflow = null;
+        } else {
+            overflow = total;
+        }
+    }
+}
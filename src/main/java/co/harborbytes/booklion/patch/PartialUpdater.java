@@ -0,0 +1,189 @@
+package co.harborbytes.booklion.patch;
+
+import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import jakarta.persistence.Column;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.MapBindingResult;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Applies a PATCH body (or a JSON Merge Patch, which for our flat entities is the same thing) to an entity.
+ * <p>
+ * Which properties can be patched is worked out once per entity class, when the updater is built: every non-static
+ * field other than {@code id} mapped with an updatable {@link Column}. Each of them gets a setter handle and a
+ * converter from whatever Jackson produced for the JSON value, so applying a patch is just a lookup per key. Keys
+ * that don't name a patchable property are ignored, values that can't be converted are reported in the
+ * {@link BindingResult} the same way validation errors are.
+ */
+public class PartialUpdater<T> {
+
+    public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private static final Map<Class<?>, Function<Object, Object>> CONVERTERS = Map.of(
+            String.class, PartialUpdater::toString,
+            BigDecimal.class, PartialUpdater::toBigDecimal,
+            Long.class, value -> value == null ? null : ((Number) value).longValue(),
+            Integer.class, value -> value == null ? null : ((Number) value).intValue(),
+            Boolean.class, value -> (Boolean) value,
+            Instant.class, value -> value == null ? null : Instant.parse((String) value)
+    );
+
+    private final Class<T> entityClass;
+    private final Map<String, PropertyBinder> binders;
+
+    private PartialUpdater(Class<T> entityClass, Map<String, PropertyBinder> binders) {
+        this.entityClass = entityClass;
+        this.binders = binders;
+    }
+
+    public static <T> PartialUpdater<T> of(Class<T> entityClass) {
+        Map<String, PropertyBinder> binders = new LinkedHashMap<>();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(entityClass, MethodHandles.lookup());
+            for (Field field : entityClass.getDeclaredFields()) {
+
+                if (Modifier.isStatic(field.getModifiers()) || field.getName().equals("id"))
+                    continue;
+
+                Column column = field.getAnnotation(Column.class);
+                if (column == null || !column.updatable())
+                    continue;
+
+                MethodHandle setter = findSetter(lookup, entityClass, field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                binders.put(field.getName(), new PropertyBinder(setter, converterFor(field.getType())));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(String.format("cannot build a partial updater for %s", entityClass.getName()), e);
+        }
+
+        return new PartialUpdater<>(entityClass, Collections.unmodifiableMap(binders));
+    }
+
+    public Set<String> getPatchableProperties() {
+        return binders.keySet();
+    }
+
+    /**
+     * Sets every patchable property present in {@code patch} on {@code target}, recording the values that could not be
+     * converted under {@code fieldPrefix} + property name in {@code result}.
+     */
+    public void apply(T target, Map<String, Object> patch, BindingResult result, String fieldPrefix) {
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+
+            PropertyBinder binder = binders.get(entry.getKey());
+            if (binder == null)
+                continue;
+
+            Object jsonValue = entry.getValue();
+            try {
+                binder.setter().invokeExact((Object) target, binder.converter().apply(jsonValue));
+            } catch (RuntimeException e) {
+                result.addError(
+                        new FieldError(
+                                result.getObjectName(),
+                                fieldPrefix + entry.getKey(),
+                                String.format("field cannot be set with  \"%s\"", jsonValue)));
+            } catch (Throwable e) {
+                throw new IllegalStateException(String.format("cannot set %s on %s", entry.getKey(), entityClass.getSimpleName()), e);
+            }
+        }
+    }
+
+    public void apply(T target, Map<String, Object> patch, BindingResult result) {
+        apply(target, patch, result, "");
+    }
+
+    /**
+     * Reads the {@code id} of every patch in a batch PATCH body, failing the whole batch if any of them is missing,
+     * not a positive number, or repeated.
+     */
+    public static List<Long> idsOf(List<Map<String, Object>> patches, String objectName) {
+        BindingResult result = new MapBindingResult(new HashMap<>(), objectName);
+        List<Long> ids = new ArrayList<>(patches.size());
+        Set<Long> seenIds = new HashSet<>();
+
+        for (int i = 0; i < patches.size(); i++) {
+            Object id = patches.get(i) == null ? null : patches.get(i).get("id");
+            String field = String.format("[%d].id", i);
+
+            if (!(id instanceof Number number) || number.longValue() <= 0) {
+                result.addError(new FieldError(objectName, field, "must be a positive number"));
+                continue;
+            }
+
+            if (!seenIds.add(number.longValue())) {
+                result.addError(new FieldError(objectName, field, "appears more than once in the batch"));
+                continue;
+            }
+
+            ids.add(number.longValue());
+        }
+
+        if (result.hasErrors())
+            throw new DomainEntityValidationException(result);
+
+        return ids;
+    }
+
+    private static MethodHandle findSetter(MethodHandles.Lookup lookup, Class<?> entityClass, Field field) throws IllegalAccessException {
+        String setterName = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        try {
+            return lookup.findVirtual(entityClass, setterName, MethodType.methodType(void.class, field.getType()));
+        } catch (NoSuchMethodException e) {
+            return lookup.unreflectSetter(field);
+        }
+    }
+
+    private static Function<Object, Object> converterFor(Class<?> fieldType) {
+        Class<?> type = MethodType.methodType(fieldType).wrap().returnType();
+        Function<Object, Object> converter = CONVERTERS.get(type);
+        if (converter != null)
+            return converter;
+
+        if (type.isEnum())
+            return value -> value == null ? null : toEnum(type, (String) value);
+
+        return value -> value == null ? null : type.cast(value);
+    }
+
+    private static Object toString(Object value) {
+        if (value == null || value instanceof String)
+            return value;
+
+        throw new IllegalArgumentException();
+    }
+
+    private static Object toBigDecimal(Object value) {
+        if (value instanceof Number || value instanceof String)
+            return new BigDecimal(value.toString());
+
+        throw new IllegalArgumentException();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> type, String value) {
+        return Enum.valueOf((Class<? extends Enum>) type, value);
+    }
+
+    private record PropertyBinder(MethodHandle setter, Function<Object, Object> converter) {
+    }
+}
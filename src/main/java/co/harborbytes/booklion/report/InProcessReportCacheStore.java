@@ -0,0 +1,80 @@
+package co.harborbytes.booklion.report;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The default {@link ReportCacheStore}: a Caffeine cache with one entry per user, holding that user's reports. Dropping
+ * a user is a single invalidation, and the cache is bounded by the number of reports across all users, least recently
+ * used user first. A user's reports are replaced as a whole on every put, they are few and small.
+ * <p>
+ * Evictions are counted in {@code booklion.reports.cache.evictions}, tagged with why: {@code size} and {@code expired}
+ * for the bound and the time to live, {@code invalidated} for writes.
+ */
+public class InProcessReportCacheStore implements ReportCacheStore {
+
+    private final Cache<Long, Map<String, Object>> reportsPerUser;
+
+    public InProcessReportCacheStore(long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        Counter evictedBySize = evictions(meterRegistry, "size");
+        Counter expired = evictions(meterRegistry, "expired");
+        Counter invalidated = evictions(meterRegistry, "invalidated");
+
+        this.reportsPerUser = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((Long userId, Map<String, Object> reports) -> reports.size())
+                .expireAfterWrite(timeToLive)
+                .removalListener((Long userId, Map<String, Object> reports, RemovalCause cause) -> {
+                    int count = reports == null ? 0 : reports.size();
+                    switch (cause) {
+                        case SIZE -> evictedBySize.increment(count);
+                        case EXPIRED -> expired.increment(count);
+                        case EXPLICIT -> invalidated.increment(count);
+                        default -> {
+                            // REPLACED is a put, COLLECTED can't happen with strong references
+                        }
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Object get(Long userId, String key) {
+        Map<String, Object> reports = reportsPerUser.getIfPresent(userId);
+        return reports == null ? null : reports.get(key);
+    }
+
+    @Override
+    public void put(Long userId, String key, Object report) {
+        // copied rather than changed in place, so the weight is recomputed and readers never see a map being written
+        reportsPerUser.asMap().compute(userId, (id, reports) -> {
+            Map<String, Object> updated = reports == null ? new HashMap<>() : new HashMap<>(reports);
+            updated.put(key, report);
+            return Map.copyOf(updated);
+        });
+    }
+
+    @Override
+    public void evictUser(Long userId) {
+        reportsPerUser.invalidate(userId);
+    }
+
+    @Override
+    public void evictAll() {
+        reportsPerUser.invalidateAll();
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("booklion.reports.cache.evictions")
+                .description("Cached reports dropped from the in-process report cache")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
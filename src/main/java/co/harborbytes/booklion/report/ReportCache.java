@@ -0,0 +1,130 @@
+package co.harborbytes.booklion.report;
+
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.account.ChartOfAccountsChangedEvent;
+import co.harborbytes.booklion.budget.BudgetChangedEvent;
+import co.harborbytes.booklion.transaction.LedgerChangedEvent;
+import co.harborbytes.booklion.transaction.LedgerVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Caches the reports, which are functions of a user's ledger, budgets and the chart of accounts and nothing else,
+ * keyed by user, report and parameters. A user's reports are dropped once a write to their ledger or budgets is
+ * committed, and everybody's once an account is written or the ledger is rebuilt. The events are acted upon after
+ * commit rather than when published, so the next report computed already sees the write.
+ * <p>
+ * A report computed while a write to the same user commits may be stale, and is then returned but not kept: each put
+ * is checked against an invalidation count read before the report was computed. The counts are striped by user id,
+ * a write to one user can cost a put for another user sharing the stripe, never a stale entry.
+ * <p>
+ * The evictions come after commit, but the user's ledger version and the chart fingerprint the report ETags are made
+ * of (see {@link ReportResponses}) move at commit. So the entries are also keyed by both, read before the lookup: a
+ * request that already sees a write misses the entry computed before it, instead of serving it under the new ETag
+ * until the eviction catches up. That costs a read of the ledger version per lookup.
+ * <p>
+ * Hits and misses are counted in {@code booklion.reports.cache.requests}. Reports are kept in the
+ * {@link ReportCacheStore} bean if there is one, otherwise in process, at most
+ * {@code booklion.reports.cache.maximum-size} of them for at most {@code booklion.reports.cache.time-to-live}. Reports
+ * handed out are shared: read them, never modify them.
+ */
+@Component
+public class ReportCache {
+
+    private static final int STRIPES = 1024;
+
+    private final ReportCacheStore store;
+    private final LedgerVersions ledgerVersions;
+    private final ChartOfAccounts chartOfAccounts;
+    private final AtomicLongArray invalidationsPerStripe = new AtomicLongArray(STRIPES);
+    private final AtomicLong invalidationsOfAll = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public ReportCache(ObjectProvider<ReportCacheStore> store, LedgerVersions ledgerVersions, ChartOfAccounts chartOfAccounts, MeterRegistry meterRegistry,
+                       @Value("${booklion.reports.cache.maximum-size:10000}") long maximumSize,
+                       @Value("${booklion.reports.cache.time-to-live:PT10M}") Duration timeToLive) {
+        this(store.getIfAvailable(() -> new InProcessReportCacheStore(maximumSize, timeToLive, meterRegistry)), ledgerVersions, chartOfAccounts, meterRegistry);
+    }
+
+    public ReportCache(ReportCacheStore store, LedgerVersions ledgerVersions, ChartOfAccounts chartOfAccounts, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.ledgerVersions = ledgerVersions;
+        this.chartOfAccounts = chartOfAccounts;
+        this.hits = Counter.builder("booklion.reports.cache.requests")
+                .description("Report lookups in the report cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("booklion.reports.cache.requests")
+                .description("Report lookups in the report cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, String report, Object parameters, Supplier<T> compute) {
+        long invalidations = invalidationsOf(userId);
+        String key = String.format("%s:%s@%d-%x", report, parameters, ledgerVersions.current(userId), chartOfAccounts.fingerprint());
+
+        Object cached = store.get(userId, key);
+        if (cached != null) {
+            hits.increment();
+            return (T) cached;
+        }
+
+        misses.increment();
+        T computed = compute.get();
+        if (computed != null && invalidationsOf(userId) == invalidations)
+            store.put(userId, key, computed);
+
+        return computed;
+    }
+
+    public void evictUser(Long userId) {
+        invalidationsPerStripe.incrementAndGet(stripeOf(userId));
+        store.evictUser(userId);
+    }
+
+    public void evictAll() {
+        invalidationsOfAll.incrementAndGet();
+        store.evictAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (event.getUserId() == null)
+            evictAll();
+        else
+            evictUser(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetChanged(BudgetChangedEvent event) {
+        evictUser(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChartOfAccountsChanged(ChartOfAccountsChangedEvent event) {
+        evictAll();
+    }
+
+    // both only ever grow, so their sum moves whenever either does
+    private long invalidationsOf(Long userId) {
+        return invalidationsPerStripe.get(stripeOf(userId)) + invalidationsOfAll.get();
+    }
+
+    private static int stripeOf(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+}
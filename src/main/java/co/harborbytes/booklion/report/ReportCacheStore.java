@@ -0,0 +1,24 @@
+package co.harborbytes.booklion.report;
+
+/**
+ * Where {@link ReportCache} keeps the reports it has computed, grouped by user so that one user's reports can be
+ * dropped at once. Without a bean of this type they are kept in process, in an {@link InProcessReportCacheStore}; a
+ * deployment running several nodes declares one backed by a shared store instead, so that a write committed on one
+ * node drops the reports every node would serve.
+ * <p>
+ * Implementations are called concurrently. Reports are handed over as computed and must be handed back unmodified;
+ * a shared store serializes them however it sees fit.
+ */
+public interface ReportCacheStore {
+
+    /**
+     * The report kept under {@code key} for the user, or null.
+     */
+    Object get(Long userId, String key);
+
+    void put(Long userId, String key, Object report);
+
+    void evictUser(Long userId);
+
+    void evictAll();
+}
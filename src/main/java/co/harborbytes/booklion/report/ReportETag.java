@@ -0,0 +1,57 @@
+package co.harborbytes.booklion.report;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+
+/**
+ * The strong ETag of one report for one user, built from everything the report is a function of: which report, from
+ * when, the user's ledger version and the fingerprint of the chart of accounts. The gzip encoded body is a different
+ * representation and is tagged the same with {@code -gzip} appended; a client holding either has the current report.
+ */
+public final class ReportETag {
+
+    private final Long userId;
+    private final String identity;
+    private final String gzip;
+
+    ReportETag(Long userId, String report, Instant from, long ledgerVersion, long chartFingerprint) {
+        String opaque = String.format("%s-%d-%d-%x", report, from.toEpochMilli(), ledgerVersion, chartFingerprint);
+        this.userId = userId;
+        this.identity = '"' + opaque + '"';
+        this.gzip = '"' + opaque + "-gzip" + '"';
+    }
+
+    /**
+     * Whether the request's {@code If-None-Match} names the current report, with the weak comparison the header calls
+     * for.
+     */
+    public boolean matches(HttpHeaders requestHeaders) {
+        return matchingTag(requestHeaders) != null;
+    }
+
+    String matchingTag(HttpHeaders requestHeaders) {
+        for (String tag : requestHeaders.getIfNoneMatch()) {
+            if (tag.equals("*"))
+                return identity;
+
+            String strong = tag.startsWith("W/") ? tag.substring(2) : tag;
+            if (strong.equals(identity) || strong.equals(gzip))
+                return strong;
+        }
+        return null;
+    }
+
+    String identity() {
+        return identity;
+    }
+
+    String gzip() {
+        return gzip;
+    }
+
+    // the tag doesn't name the user, two users can be at the same version
+    String cacheKey() {
+        return userId + ":" + identity;
+    }
+}
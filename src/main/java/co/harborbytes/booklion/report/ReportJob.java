@@ -0,0 +1,117 @@
+package co.harborbytes.booklion.report;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One report being generated in the background. The status only moves forward, QUEUED to RUNNING to one of the
+ * finished states, or straight to CANCELLED, and every move is a compare-and-set so a cancel racing the worker has
+ * exactly one winner.
+ */
+class ReportJob {
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final ReportType type;
+    private final Instant from;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicReference<ReportJobStatus> status = new AtomicReference<>(ReportJobStatus.QUEUED);
+    private final CompletableFuture<ReportJob> finished = new CompletableFuture<>();
+
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Object result;
+    private volatile String error;
+    private volatile Future<?> execution;
+
+    ReportJob(Long userId, ReportType type, Instant from) {
+        this.userId = userId;
+        this.type = type;
+        this.from = from;
+    }
+
+    boolean start() {
+        if (!status.compareAndSet(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING))
+            return false;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    void succeed(Object result) {
+        this.result = result;
+        // lost to a cancel, don't hold on to a report nobody can read
+        if (!finish(ReportJobStatus.RUNNING, ReportJobStatus.DONE))
+            this.result = null;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(ReportJobStatus.RUNNING, ReportJobStatus.FAILED);
+    }
+
+    /**
+     * Returns the status the job was cancelled from, or null if it had already finished.
+     */
+    ReportJobStatus cancel() {
+        for (ReportJobStatus current = status.get(); !current.isFinished(); current = status.get()) {
+            if (finish(current, ReportJobStatus.CANCELLED)) {
+                Future<?> execution = this.execution;
+                if (execution != null)
+                    execution.cancel(current == ReportJobStatus.RUNNING);
+                return current;
+            }
+        }
+        return null;
+    }
+
+    private boolean finish(ReportJobStatus expected, ReportJobStatus outcome) {
+        if (!status.compareAndSet(expected, outcome))
+            return false;
+        finishedAt = Instant.now();
+        finished.complete(this);
+        return true;
+    }
+
+    Future<?> getExecution() {
+        return execution;
+    }
+
+    void setExecution(Future<?> execution) {
+        this.execution = execution;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    ReportType getType() {
+        return type;
+    }
+
+    Instant getFrom() {
+        return from;
+    }
+
+    ReportJobStatus getStatus() {
+        return status.get();
+    }
+
+    CompletableFuture<ReportJob> whenFinished() {
+        return finished;
+    }
+
+    ReportJobDTO toDTO() {
+        ReportJobStatus current = status.get();
+        return new ReportJobDTO(id, type, from, current, submittedAt, startedAt,
+                current.isFinished() ? finishedAt : null,
+                current == ReportJobStatus.DONE ? result : null,
+                current == ReportJobStatus.FAILED ? error : null);
+    }
+}
@@ -0,0 +1,70 @@
+package co.harborbytes.booklion.report;
+
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
+import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import co.harborbytes.booklion.user.User;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @Autowired
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    /**
+     * The 202 the report endpoints answer with when the report is left to a job, pointing at where to poll for it.
+     */
+    public static ResponseEntity<ApiResponseSuccess<?>> accepted(ReportJobDTO job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.getId()))
+                .body(new ApiResponseSuccess<>(job));
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponseSuccess<?>> submitReportJob(@Valid @RequestBody ReportJobRequest request, BindingResult result) {
+
+        if (result.hasErrors()) {
+            throw new DomainEntityValidationException(result);
+        }
+
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return accepted(reportJobService.submit(loggedInUser.getId(), request.getType(), request.getFrom()));
+    }
+
+    @GetMapping("/{id}")
+    public ApiResponseSuccess<ReportJobDTO> getReportJob(@PathVariable("id") String id) {
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return new ApiResponseSuccess<>(reportJobService.findJob(id, loggedInUser.getId()));
+    }
+
+    // long poll, the request is parked without a servlet thread until the job finishes or the wait is over
+    @GetMapping(value = "/{id}", params = "wait")
+    public CompletableFuture<ApiResponseSuccess<ReportJobDTO>> awaitReportJob(@PathVariable("id") String id,
+                                                                              @RequestParam("wait") @Positive @Max(60) Integer waitSeconds) {
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return reportJobService.awaitJob(id, loggedInUser.getId(), Duration.ofSeconds(waitSeconds))
+                .thenApply(job -> new ApiResponseSuccess<>(job));
+    }
+
+    @DeleteMapping("/{id}")
+    public ApiResponseSuccess<ReportJobDTO> cancelReportJob(@PathVariable("id") String id) {
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return new ApiResponseSuccess<>(reportJobService.cancel(id, loggedInUser.getId()));
+    }
+}
@@ -0,0 +1,16 @@
+package co.harborbytes.booklion.report;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ReportJobRequest {
+
+    @NotNull
+    private ReportType type;
+
+    @NotNull
+    private Instant from;
+}
@@ -0,0 +1,173 @@
+package co.harborbytes.booklion.report;
+
+import co.harborbytes.booklion.account.AccountService;
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import co.harborbytes.booklion.exception.ReportJobRejectedException;
+import co.harborbytes.booklion.transaction.AccountBalanceService;
+import co.harborbytes.booklion.transaction.TransactionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the balance sheet, the income statement and the per-account overview away from the servlet threads.
+ * Jobs run on a fixed pool with a bounded queue and at most {@code booklion.reports.jobs.per-user-limit} of them per
+ * user are queued or running at once; a submission past either limit is rejected rather than piling up. A finished
+ * job, and its result, is kept for {@code booklion.reports.jobs.result-time-to-live} so it can be polled for.
+ */
+@Service
+public class ReportJobService {
+
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+    private final AccountBalanceService accountBalanceService;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, ReportJob> jobs;
+    private final Map<Long, Semaphore> permitsPerUser = new ConcurrentHashMap<>();
+    private final int perUserLimit;
+    private final long backgroundThresholdLines;
+
+    public ReportJobService(TransactionService transactionService, AccountService accountService, AccountBalanceService accountBalanceService,
+                            @Value("${booklion.reports.jobs.threads:2}") int threads,
+                            @Value("${booklion.reports.jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${booklion.reports.jobs.per-user-limit:2}") int perUserLimit,
+                            @Value("${booklion.reports.jobs.result-time-to-live:PT15M}") Duration resultTimeToLive,
+                            @Value("${booklion.reports.jobs.maximum-size:10000}") long maximumSize,
+                            @Value("${booklion.reports.background-threshold-lines:50000}") long backgroundThresholdLines) {
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+        this.accountBalanceService = accountBalanceService;
+        this.perUserLimit = perUserLimit;
+        this.backgroundThresholdLines = backgroundThresholdLines;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // unfinished jobs never expire, the time to live starts counting once the job is put back finished
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, ReportJob>() {
+                    @Override
+                    public long expireAfterCreate(String key, ReportJob job, long currentTime) {
+                        return job.getStatus().isFinished() ? resultTimeToLive.toNanos() : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, ReportJob job, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, job, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, ReportJob job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Whether a report for {@code from} onwards is big enough that the synchronous endpoints should hand it over to a
+     * job instead of answering it inline.
+     */
+    public boolean shouldRunInBackground(Long userId, Instant from) {
+        return backgroundThresholdLines > 0 && accountBalanceService.estimateLineCountSince(userId, from) > backgroundThresholdLines;
+    }
+
+    public ReportJobDTO submit(Long userId, ReportType type, Instant from) {
+        Semaphore permits = permitsPerUser.computeIfAbsent(userId, id -> new Semaphore(perUserLimit));
+        if (!permits.tryAcquire())
+            throw new ReportJobRejectedException(String.format("there are already %d reports being generated for this user, please wait for one of them to finish", perUserLimit));
+
+        ReportJob job = new ReportJob(userId, type, from);
+        jobs.put(job.getId(), job);
+        try {
+            job.setExecution(executor.submit(() -> run(job, permits)));
+        } catch (RejectedExecutionException ree) {
+            jobs.invalidate(job.getId());
+            permits.release();
+            throw new ReportJobRejectedException("too many reports are being generated right now, please try again later");
+        }
+
+        return job.toDTO();
+    }
+
+    public ReportJobDTO findJob(String id, Long userId) {
+        return findOwnedJob(id, userId).toDTO();
+    }
+
+    /**
+     * Completes with the job once it finishes, or with however far it got after {@code wait}.
+     */
+    public CompletableFuture<ReportJobDTO> awaitJob(String id, Long userId, Duration wait) {
+        ReportJob job = findOwnedJob(id, userId);
+        return job.whenFinished()
+                .thenApply(ReportJob::toDTO)
+                .completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(dto -> dto == null ? job.toDTO() : dto);
+    }
+
+    /**
+     * Cancels a queued or running job; cancelling a finished one changes nothing. A query that is already running
+     * isn't interrupted by the database, its result is just dropped.
+     */
+    public ReportJobDTO cancel(String id, Long userId) {
+        ReportJob job = findOwnedJob(id, userId);
+        // a job cancelled before it started never runs, so its permit has to be given back here
+        if (job.cancel() == ReportJobStatus.QUEUED) {
+            permitsPerUser.get(userId).release();
+            if (job.getExecution() instanceof Runnable queued)
+                executor.remove(queued);
+        }
+
+        jobs.put(job.getId(), job);
+        return job.toDTO();
+    }
+
+    private void run(ReportJob job, Semaphore permits) {
+        if (!job.start())
+            return;
+
+        try {
+            job.succeed(generate(job.getType(), job.getUserId(), job.getFrom()));
+        } catch (Exception ex) {
+            job.fail(ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage());
+        } finally {
+            permits.release();
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    private Object generate(ReportType type, Long userId, Instant from) {
+        return switch (type) {
+            case BALANCE_SHEET -> transactionService.getBalanceSheetReportV2(userId, from);
+            case INCOME_STATEMENT -> transactionService.getIncomeStatementReportV2(userId, from);
+            case ACCOUNT_OVERVIEW_PER_ACCOUNT -> accountService.getAccountOverviewPerAccount(userId, from);
+        };
+    }
+
+    private ReportJob findOwnedJob(String id, Long userId) {
+        ReportJob job = jobs.getIfPresent(id);
+        // someone else's job is as good as missing
+        if (job == null || !job.getUserId().equals(userId))
+            throw new DomainEntityNotFoundException(ReportJob.class.getSimpleName(), "id", id);
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
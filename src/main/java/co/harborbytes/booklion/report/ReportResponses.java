@@ -0,0 +1,139 @@
+package co.harborbytes.booklion.report;
+
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
+import co.harborbytes.booklion.transaction.LedgerVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GET and compression for the report endpoints. A report is tagged (see {@link ReportETag}) before it is
+ * computed, so a poll whose {@code If-None-Match} still names the current report is answered 304 without reading the
+ * ledger at all. The version is read before the report, never after: a write landing in between can only make the
+ * report newer than its tag, which costs the next poll a recomputation but never serves a stale report as current.
+ * <p>
+ * Reports of at least {@code booklion.reports.compression.min-response-size} go out gzip encoded to clients that
+ * accept it, and the compressed body is kept, up to {@code booklion.reports.compression.cache-size} in all, so the
+ * next poll for the same version is answered from it without recomputing or recompressing. Everything else is left to
+ * the servlet container's compression.
+ */
+@Component
+public class ReportResponses {
+
+    private static final Pattern Q_ZERO = Pattern.compile("q\\s*=\\s*0(\\.0{0,3})?", Pattern.CASE_INSENSITIVE);
+    // per user and revalidated on every use, the dashboards poll with If-None-Match and get a 304 while nothing changed
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final LedgerVersions ledgerVersions;
+    private final ChartOfAccounts chartOfAccounts;
+    private final ObjectMapper jsonMapper;
+    private final long minimumCompressedSize;
+    private final Cache<String, byte[]> compressed;
+
+    @Autowired
+    public ReportResponses(LedgerVersions ledgerVersions, ChartOfAccounts chartOfAccounts, ObjectMapper jsonMapper, MeterRegistry meterRegistry,
+                           @Value("${booklion.reports.compression.min-response-size:2KB}") DataSize minimumCompressedSize,
+                           @Value("${booklion.reports.compression.cache-size:64MB}") DataSize cacheSize) {
+        this.ledgerVersions = ledgerVersions;
+        this.chartOfAccounts = chartOfAccounts;
+        this.jsonMapper = jsonMapper;
+        this.minimumCompressedSize = minimumCompressedSize.toBytes();
+        this.compressed = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((String key, byte[] body) -> body.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, compressed, "booklion.reports.compressed");
+    }
+
+    public ReportETag eTagOf(Long userId, String report, Instant from) {
+        return new ReportETag(userId, report, from, ledgerVersions.current(userId), chartOfAccounts.fingerprint());
+    }
+
+    public ResponseEntity<?> notModified(ReportETag eTag, HttpHeaders requestHeaders) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag.matchingTag(requestHeaders))
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    public ResponseEntity<?> ok(ReportETag eTag, HttpHeaders requestHeaders, Supplier<?> report) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (!acceptsGzip(requestHeaders))
+            return response.eTag(eTag.identity()).body(new ApiResponseSuccess<>(report.get()));
+
+        byte[] body = compressed.getIfPresent(eTag.cacheKey());
+        if (body == null) {
+            byte[] json = toJson(new ApiResponseSuccess<>(report.get()));
+            if (json.length < minimumCompressedSize)
+                return response.eTag(eTag.identity()).contentType(MediaType.APPLICATION_JSON).body(json);
+
+            body = gzip(json);
+            compressed.put(eTag.cacheKey(), body);
+        }
+
+        return response.eTag(eTag.gzip())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(body);
+    }
+
+    static boolean acceptsGzip(HttpHeaders requestHeaders) {
+        for (String header : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : header.split(",")) {
+                String[] parameters = coding.trim().split(";");
+                if (!parameters[0].trim().equalsIgnoreCase("gzip") && !parameters[0].trim().equals("*"))
+                    continue;
+
+                boolean refused = false;
+                for (int i = 1; i < parameters.length; i++)
+                    refused |= Q_ZERO.matcher(parameters[i].trim()).matches();
+                if (!refused)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] toJson(Object response) {
+        try {
+            return jsonMapper.writeValueAsBytes(response);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return compressed.toByteArray();
+    }
+}
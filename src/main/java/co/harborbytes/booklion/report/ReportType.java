@@ -0,0 +1,7 @@
+package co.harborbytes.booklion.report;
+
+public enum ReportType {
+    BALANCE_SHEET,
+    INCOME_STATEMENT,
+    ACCOUNT_OVERVIEW_PER_ACCOUNT
+}
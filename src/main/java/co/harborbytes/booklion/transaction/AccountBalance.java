@@ -0,0 +1,81 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.user.User;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Running totals of every transaction line a user has posted against an account.
+ * Kept in step with the ledger by {@link AccountBalanceService} inside the same
+ * database transaction that writes or removes the lines.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "account_balance", uniqueConstraints = {
+        @UniqueConstraint(name = "account_balance_user_id_account_id_unique", columnNames = {"user_id", "account_id"})
+})
+public class AccountBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "user_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(
+                    name = "account_balance_user_id_fk"
+            ),
+            updatable = false,
+            nullable = false
+    )
+    private User user;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "account_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(
+                    name = "account_balance_account_id_fk"
+            ),
+            updatable = false,
+            nullable = false
+    )
+    private Account account;
+
+    @NotNull
+    @Column(name = "debits", nullable = false, scale = 2)
+    private BigDecimal debits;
+
+    @NotNull
+    @Column(name = "credits", nullable = false, scale = 2)
+    private BigDecimal credits;
+
+    @NotNull
+    @Column(name = "line_count", nullable = false)
+    private Long lineCount;
+
+    @Column(name = "last_tx_at")
+    private Instant lastTxAt;
+
+    public AccountBalance(User user, Account account) {
+        this.user = user;
+        this.account = account;
+        this.debits = new BigDecimal("0.00");
+        this.credits = new BigDecimal("0.00");
+        this.lineCount = 0L;
+    }
+}
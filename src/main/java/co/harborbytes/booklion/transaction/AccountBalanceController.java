@@ -0,0 +1,30 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/account-balances")
+public class AccountBalanceController {
+
+    private final AccountBalanceService accountBalanceService;
+
+    @Autowired
+    public AccountBalanceController(AccountBalanceService accountBalanceService) {
+        this.accountBalanceService = accountBalanceService;
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/verify")
+    public ApiResponseSuccess<AccountBalanceVerificationReport> verify() {
+        return new ApiResponseSuccess<>(accountBalanceService.verify());
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/rebuild")
+    public ApiResponseSuccess<AccountBalanceVerificationReport> rebuild() {
+        return new ApiResponseSuccess<>(accountBalanceService.rebuild());
+    }
+}
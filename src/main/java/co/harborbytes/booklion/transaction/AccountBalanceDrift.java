@@ -0,0 +1,13 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AccountBalanceDrift {
+    private Long userId;
+    private Long accountId;
+    private AccountBalanceSnapshot expected;
+    private AccountBalanceSnapshot stored;
+}
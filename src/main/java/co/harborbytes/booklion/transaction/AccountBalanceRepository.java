@@ -0,0 +1,58 @@
+package co.harborbytes.booklion.transaction;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountBalance b WHERE b.user.id = :userId AND b.account.id = :accountId")
+    Optional<AccountBalance> findForUpdate(@Param("userId") Long userId, @Param("accountId") Long accountId);
+
+    /**
+     * Inserts an empty balance unless there is one already, also one another transaction inserted and hasn't committed
+     * yet: the insert waits for it and leaves it be. The balance is there to lock afterwards either way. PostgreSQL only.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_balance (user_id, account_id, debits, credits, line_count) VALUES (:userId, :accountId, 0, 0, 0) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("accountId") Long accountId);
+
+    /**
+     * {@link #insertIfAbsent} for the databases without {@code ON CONFLICT}, the in-memory one the tests run on. A
+     * concurrent insert of the same balance can still fail on the unique key.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO account_balance b USING (VALUES (:userId, :accountId)) n (user_id, account_id) " +
+            "ON b.user_id = n.user_id AND b.account_id = n.account_id " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, account_id, debits, credits, line_count) VALUES (n.user_id, n.account_id, 0, 0, 0)", nativeQuery = true)
+    void mergeIfAbsent(@Param("userId") Long userId, @Param("accountId") Long accountId);
+
+    void deleteAllByUserId(Long userId);
+
+    @Query("SELECT MAX(t.createdAt) FROM TransactionLine tl JOIN tl.transaction t " +
+            "WHERE t.user.id = :userId AND tl.account.id = :accountId AND t.id <> :excludedTransactionId")
+    Instant findLastTransactionDateExcluding(@Param("userId") Long userId, @Param("accountId") Long accountId, @Param("excludedTransactionId") Long excludedTransactionId);
+
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountBalanceSnapshot(b.user.id, b.account.id, b.debits, b.credits, b.lineCount, b.lastTxAt) " +
+            "FROM AccountBalance b")
+    List<AccountBalanceSnapshot> findAllSnapshots();
+
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountBalanceSnapshot(t.user.id, tl.account.id, SUM(tl.debitAmount), SUM(tl.creditAmount), COUNT(tl), MAX(t.createdAt)) " +
+            "FROM TransactionLine tl JOIN tl.transaction t GROUP BY t.user.id, tl.account.id")
+    List<AccountBalanceSnapshot> computeSnapshotsFromLedger();
+
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountBalanceSnapshot(t.user.id, tl.account.id, SUM(tl.debitAmount), SUM(tl.creditAmount), COUNT(tl), MAX(t.createdAt)) " +
+            "FROM TransactionLine tl JOIN tl.transaction t WHERE t.createdAt >= :from GROUP BY t.user.id, tl.account.id")
+    List<AccountBalanceSnapshot> computeSnapshotsFromLedgerSince(@Param("from") Instant from);
+}
@@ -0,0 +1,376 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountType;
+import co.harborbytes.booklion.money.MoneyAccumulator;
+import co.harborbytes.booklion.user.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class AccountBalanceService {
+
+    private final AccountBalanceRepository balanceRepo;
+    private final AccountMonthlyBalanceRepository monthlyBalanceRepo;
+    private final TransactionRepository transactionRepo;
+    private final EntityManager entityManager;
+    private final LedgerVersions ledgerVersions;
+    private final LedgerPartitionMaintenance partitionMaintenance;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean onConflictSupported;
+
+    @Autowired
+    public AccountBalanceService(AccountBalanceRepository balanceRepo, AccountMonthlyBalanceRepository monthlyBalanceRepo, TransactionRepository transactionRepo, EntityManager entityManager,
+                                 LedgerVersions ledgerVersions, LedgerPartitionMaintenance partitionMaintenance, JdbcTemplate jdbcTemplate) {
+        this.balanceRepo = balanceRepo;
+        this.monthlyBalanceRepo = monthlyBalanceRepo;
+        this.transactionRepo = transactionRepo;
+        this.entityManager = entityManager;
+        this.ledgerVersions = ledgerVersions;
+        this.partitionMaintenance = partitionMaintenance;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTransaction(Transaction transaction) {
+        applyTransactions(List.of(transaction));
+    }
+
+    /**
+     * Folds the lines of all given transactions into one delta per account and per account-month
+     * before touching the tables, so a batch costs one row lock per affected row instead of one per line.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTransactions(List<Transaction> transactions) {
+        Map<String, BalanceDelta> totals = new LinkedHashMap<>();
+        Map<String, BalanceDelta> monthlyTotals = new LinkedHashMap<>();
+
+        for (Transaction transaction : transactions) {
+            LocalDate periodStart = periodStartOf(transaction.getCreatedAt());
+
+            for (TransactionLine line : transaction.getLines()) {
+                String key = String.format("%s:%s", transaction.getUser().getId(), line.getAccount().getId());
+                totals.computeIfAbsent(key, k -> new BalanceDelta(transaction.getUser(), line.getAccount(), null))
+                        .add(line, transaction.getCreatedAt());
+                monthlyTotals.computeIfAbsent(String.format("%s:%s", key, periodStart), k -> new BalanceDelta(transaction.getUser(), line.getAccount(), periodStart))
+                        .add(line, transaction.getCreatedAt());
+            }
+        }
+
+        for (BalanceDelta delta : monthlyTotals.values()) {
+            AccountMonthlyBalance monthlyBalance = lockMonthlyBalance(delta.user.getId(), delta.account.getId(), delta.periodStart);
+
+            monthlyBalance.setDebits(monthlyBalance.getDebits().add(delta.debits.toBigDecimal()));
+            monthlyBalance.setCredits(monthlyBalance.getCredits().add(delta.credits.toBigDecimal()));
+            monthlyBalance.setLineCount(monthlyBalance.getLineCount() + delta.lineCount);
+        }
+
+        for (BalanceDelta delta : totals.values()) {
+            AccountBalance balance = lockBalance(delta.user.getId(), delta.account.getId());
+
+            balance.setDebits(balance.getDebits().add(delta.debits.toBigDecimal()));
+            balance.setCredits(balance.getCredits().add(delta.credits.toBigDecimal()));
+            balance.setLineCount(balance.getLineCount() + delta.lineCount);
+
+            if (balance.getLastTxAt() == null || delta.lastTxAt.isAfter(balance.getLastTxAt()))
+                balance.setLastTxAt(delta.lastTxAt);
+        }
+
+        // in id order, so two batches spanning the same users can't take their row locks the other way round
+        transactions.stream().map(transaction -> transaction.getUser().getId()).distinct().sorted().forEach(ledgerVersions::bump);
+    }
+
+    // a missing row is inserted so that two transactions posting to a new account at once both get past, instead of
+    // the second failing on the unique key, then locked like one that was there
+    private AccountBalance lockBalance(Long userId, Long accountId) {
+        return balanceRepo.findForUpdate(userId, accountId).orElseGet(() -> {
+            if (isOnConflictSupported())
+                balanceRepo.insertIfAbsent(userId, accountId);
+            else
+                balanceRepo.mergeIfAbsent(userId, accountId);
+            return balanceRepo.findForUpdate(userId, accountId).orElseThrow();
+        });
+    }
+
+    private AccountMonthlyBalance lockMonthlyBalance(Long userId, Long accountId, LocalDate periodStart) {
+        return monthlyBalanceRepo.findForUpdate(userId, accountId, periodStart).orElseGet(() -> {
+            if (isOnConflictSupported())
+                monthlyBalanceRepo.insertIfAbsent(userId, accountId, periodStart);
+            else
+                monthlyBalanceRepo.mergeIfAbsent(userId, accountId, periodStart);
+            return monthlyBalanceRepo.findForUpdate(userId, accountId, periodStart).orElseThrow();
+        });
+    }
+
+    private boolean isOnConflictSupported() {
+        if (onConflictSupported == null)
+            onConflictSupported = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        return onConflictSupported;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revertTransaction(Transaction transaction) {
+        Long userId = transaction.getUser().getId();
+        LocalDate periodStart = periodStartOf(transaction.getCreatedAt());
+
+        for (TransactionLine line : transaction.getLines()) {
+            Long accountId = line.getAccount().getId();
+
+            monthlyBalanceRepo.findForUpdate(userId, accountId, periodStart).ifPresent(monthlyBalance -> {
+                if (monthlyBalance.getLineCount() <= 1) {
+                    monthlyBalanceRepo.delete(monthlyBalance);
+                    return;
+                }
+
+                monthlyBalance.setDebits(monthlyBalance.getDebits().subtract(line.getDebitAmount()));
+                monthlyBalance.setCredits(monthlyBalance.getCredits().subtract(line.getCreditAmount()));
+                monthlyBalance.setLineCount(monthlyBalance.getLineCount() - 1);
+            });
+
+            AccountBalance balance = balanceRepo.findForUpdate(userId, accountId).orElse(null);
+
+            if (balance == null)
+                continue;
+
+            if (balance.getLineCount() <= 1) {
+                balanceRepo.delete(balance);
+                continue;
+            }
+
+            balance.setDebits(balance.getDebits().subtract(line.getDebitAmount()));
+            balance.setCredits(balance.getCredits().subtract(line.getCreditAmount()));
+            balance.setLineCount(balance.getLineCount() - 1);
+
+            if (transaction.getCreatedAt().equals(balance.getLastTxAt()))
+                balance.setLastTxAt(balanceRepo.findLastTransactionDateExcluding(userId, accountId, transaction.getId()));
+        }
+
+        ledgerVersions.bump(userId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteBalancesByUserId(Long userId) {
+        balanceRepo.deleteAllByUserId(userId);
+        monthlyBalanceRepo.deleteAllByUserId(userId);
+        ledgerVersions.bump(userId);
+    }
+
+    /**
+     * Per-account debits and credits for lines created in {@code [from, to)}; a null {@code to} means "up to now".
+     * Whole months come from the monthly rollup, only the partial months at either end are read from the ledger.
+     */
+    public List<BalanceParts> queryAccountSummaryBetweenDates(Long userId, List<AccountType> accountTypes, Instant from, Instant to) {
+        LocalDate firstFullMonth = periodStartOf(from);
+        if (!firstFullMonth.atStartOfDay(ZoneOffset.UTC).toInstant().equals(from))
+            firstFullMonth = firstFullMonth.plusMonths(1);
+
+        Instant firstFullMonthStart = firstFullMonth.atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        if (to != null && !to.isAfter(firstFullMonthStart))
+            return mergeBalanceParts(
+                    monthlyBalanceRepo.queryAccountSummaryBetweenMonths(userId, firstFullMonth, firstFullMonth, accountTypes),
+                    transactionRepo.queryAccountSummaryBetweenDates(userId, from, to, accountTypes));
+
+        LocalDate endMonth = to == null ? YearMonth.now(ZoneOffset.UTC).plusMonths(1).atDay(1) : periodStartOf(to);
+        List<BalanceParts> summary = mergeBalanceParts(
+                monthlyBalanceRepo.queryAccountSummaryBetweenMonths(userId, firstFullMonth, endMonth, accountTypes),
+                from.equals(firstFullMonthStart) ? List.of() : transactionRepo.queryAccountSummaryBetweenDates(userId, from, firstFullMonthStart, accountTypes));
+
+        if (to == null)
+            return summary;
+
+        return mergeBalanceParts(summary,
+                transactionRepo.queryAccountSummaryBetweenDates(userId, endMonth.atStartOfDay(ZoneOffset.UTC).toInstant(), to, accountTypes));
+    }
+
+    /**
+     * Roughly how many ledger lines a report starting at {@code from} has to go through, read from the monthly rollup.
+     * The whole first month is counted, so it errs on the high side.
+     */
+    public long estimateLineCountSince(Long userId, Instant from) {
+        return monthlyBalanceRepo.countLinesSinceMonth(userId, periodStartOf(from));
+    }
+
+    /**
+     * Compares the balances with what the ledger adds up to. With months archived (see
+     * {@link LedgerPartitionMaintenance}) the ledger only has the recent ones, the older ones are taken from their
+     * rollups.
+     */
+    @Transactional(readOnly = true)
+    public AccountBalanceVerificationReport verify() {
+        List<AccountBalanceSnapshot> expected = computeExpectedSnapshots(partitionMaintenance.archivedBefore());
+        return new AccountBalanceVerificationReport(expected.size(), false, findDrifts(expected));
+    }
+
+    /**
+     * Rewrites the balances, and the rollups of the months still in the ledger, from the ledger. The rollups of
+     * archived months are all that's left of them, they are kept as they are and counted into the balances.
+     */
+    @Transactional
+    public AccountBalanceVerificationReport rebuild() {
+        LocalDate archivedBefore = partitionMaintenance.archivedBefore();
+        List<AccountBalanceSnapshot> expected = computeExpectedSnapshots(archivedBefore);
+        List<AccountBalanceDrift> drifts = findDrifts(expected);
+
+        balanceRepo.deleteAllInBatch();
+        for (AccountBalanceSnapshot snapshot : expected) {
+            AccountBalance balance = new AccountBalance(
+                    entityManager.getReference(User.class, snapshot.getUserId()),
+                    entityManager.getReference(Account.class, snapshot.getAccountId()));
+            balance.setDebits(snapshot.getDebits());
+            balance.setCredits(snapshot.getCredits());
+            balance.setLineCount(snapshot.getLineCount());
+            balance.setLastTxAt(snapshot.getLastTxAt());
+            balanceRepo.save(balance);
+        }
+
+        List<Object[]> monthlyRows;
+        if (archivedBefore == null) {
+            monthlyBalanceRepo.deleteAllInBatch();
+            monthlyRows = monthlyBalanceRepo.sumLedgerByMonth();
+        } else {
+            monthlyBalanceRepo.deleteAllFromMonth(archivedBefore);
+            monthlyRows = monthlyBalanceRepo.sumLedgerByMonthSince(startOf(archivedBefore));
+        }
+
+        for (AccountMonthlyBalanceSnapshot snapshot : monthlyRows.stream().map(AccountMonthlyBalanceSnapshot::of).toList()) {
+            AccountMonthlyBalance monthlyBalance = new AccountMonthlyBalance(
+                    entityManager.getReference(User.class, snapshot.getUserId()),
+                    entityManager.getReference(Account.class, snapshot.getAccountId()),
+                    snapshot.getPeriodStart());
+            monthlyBalance.setDebits(snapshot.getDebits());
+            monthlyBalance.setCredits(snapshot.getCredits());
+            monthlyBalance.setLineCount(snapshot.getLineCount());
+            monthlyBalanceRepo.save(monthlyBalance);
+        }
+
+        // the reports read the rollups, so fixing a drift can change any of them
+        ledgerVersions.bumpAll();
+
+        return new AccountBalanceVerificationReport(expected.size(), true, drifts);
+    }
+
+    // the ledger since the archived months plus their rollups, the last transaction date from the ledger when it has one
+    private List<AccountBalanceSnapshot> computeExpectedSnapshots(LocalDate archivedBefore) {
+        if (archivedBefore == null)
+            return balanceRepo.computeSnapshotsFromLedger();
+
+        Map<String, AccountBalanceSnapshot> expected = new LinkedHashMap<>();
+        for (AccountBalanceSnapshot archived : monthlyBalanceRepo.sumSnapshotsBefore(archivedBefore))
+            expected.put(keyOf(archived), archived);
+
+        for (AccountBalanceSnapshot recent : balanceRepo.computeSnapshotsFromLedgerSince(startOf(archivedBefore))) {
+            AccountBalanceSnapshot archived = expected.get(keyOf(recent));
+            expected.put(keyOf(recent), archived == null ? recent : new AccountBalanceSnapshot(
+                    recent.getUserId(),
+                    recent.getAccountId(),
+                    recent.getDebits().add(archived.getDebits()),
+                    recent.getCredits().add(archived.getCredits()),
+                    recent.getLineCount() + archived.getLineCount(),
+                    recent.getLastTxAt()));
+        }
+
+        return new ArrayList<>(expected.values());
+    }
+
+    private List<AccountBalanceDrift> findDrifts(List<AccountBalanceSnapshot> expected) {
+        Map<String, AccountBalanceSnapshot> stored = balanceRepo.findAllSnapshots().stream()
+                .collect(Collectors.toMap(AccountBalanceService::keyOf, Function.identity()));
+
+        List<AccountBalanceDrift> drifts = new ArrayList<>();
+        for (AccountBalanceSnapshot snapshot : expected) {
+            AccountBalanceSnapshot storedSnapshot = stored.remove(keyOf(snapshot));
+            if (!snapshot.matches(storedSnapshot))
+                drifts.add(new AccountBalanceDrift(snapshot.getUserId(), snapshot.getAccountId(), snapshot, storedSnapshot));
+        }
+
+        // whatever is left has no lines behind it anymore
+        stored.values().forEach(orphan ->
+                drifts.add(new AccountBalanceDrift(orphan.getUserId(), orphan.getAccountId(), null, orphan)));
+
+        return drifts;
+    }
+
+    private static class BalanceDelta {
+        private final User user;
+        private final Account account;
+        private final LocalDate periodStart;
+        private final MoneyAccumulator debits = new MoneyAccumulator();
+        private final MoneyAccumulator credits = new MoneyAccumulator();
+        private long lineCount;
+        private Instant lastTxAt;
+
+        private BalanceDelta(User user, Account account, LocalDate periodStart) {
+            this.user = user;
+            this.account = account;
+            this.periodStart = periodStart;
+        }
+
+        private void add(TransactionLine line, Instant createdAt) {
+            debits.add(line.getDebitAmount());
+            credits.add(line.getCreditAmount());
+            lineCount++;
+            if (lastTxAt == null || createdAt.isAfter(lastTxAt))
+                lastTxAt = createdAt;
+        }
+    }
+
+    private List<BalanceParts> mergeBalanceParts(List<BalanceParts> accounts, List<BalanceParts> extraParts) {
+        Map<String, BalanceParts> merged = new LinkedHashMap<>();
+        accounts.forEach(parts -> merged.put(parts.getName(), new BalanceParts(
+                parts.getName(),
+                parts.getAccountType(),
+                orZero(parts.getDebits()),
+                orZero(parts.getCredits()))));
+
+        for (BalanceParts extra : extraParts) {
+            BalanceParts parts = merged.get(extra.getName());
+            if (parts == null) {
+                merged.put(extra.getName(), extra);
+                continue;
+            }
+
+            merged.put(extra.getName(), new BalanceParts(
+                    parts.getName(),
+                    parts.getAccountType(),
+                    orZero(parts.getDebits()).add(orZero(extra.getDebits())),
+                    orZero(parts.getCredits()).add(orZero(extra.getCredits()))));
+        }
+
+        return new ArrayList<>(merged.values());
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount == null ? new BigDecimal("0.00") : amount.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    static LocalDate periodStartOf(Instant instant) {
+        return YearMonth.from(instant.atZone(ZoneOffset.UTC)).atDay(1);
+    }
+
+    private static Instant startOf(LocalDate periodStart) {
+        return periodStart.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static String keyOf(AccountBalanceSnapshot snapshot) {
+        return String.format("%s:%s", snapshot.getUserId(), snapshot.getAccountId());
+    }
+}
@@ -0,0 +1,29 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+@Getter
+@AllArgsConstructor
+public class AccountBalanceSnapshot {
+    private Long userId;
+    private Long accountId;
+    private BigDecimal debits;
+    private BigDecimal credits;
+    private Long lineCount;
+    private Instant lastTxAt;
+
+    public boolean matches(AccountBalanceSnapshot other) {
+        if (other == null)
+            return false;
+
+        return debits.compareTo(other.getDebits()) == 0
+                && credits.compareTo(other.getCredits()) == 0
+                && lineCount.equals(other.getLineCount())
+                && Objects.equals(lastTxAt, other.getLastTxAt());
+    }
+}
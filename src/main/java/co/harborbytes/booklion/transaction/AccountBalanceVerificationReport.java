@@ -0,0 +1,14 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class AccountBalanceVerificationReport {
+    private int checkedBalances;
+    private boolean rebuilt;
+    private List<AccountBalanceDrift> drifts;
+}
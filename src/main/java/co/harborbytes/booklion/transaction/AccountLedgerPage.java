@@ -0,0 +1,13 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class AccountLedgerPage {
+    private List<AccountLedgerEntry> entries;
+    private String nextCursor;
+}
@@ -0,0 +1,82 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.user.User;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Debits and credits a user posted against an account during one calendar month (UTC).
+ * {@code periodStart} is always the first day of that month.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "account_monthly_balance", uniqueConstraints = {
+        @UniqueConstraint(name = "account_monthly_balance_user_id_account_id_period_start_unique", columnNames = {"user_id", "account_id", "period_start"})
+})
+public class AccountMonthlyBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "user_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(
+                    name = "account_monthly_balance_user_id_fk"
+            ),
+            updatable = false,
+            nullable = false
+    )
+    private User user;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "account_id",
+            referencedColumnName = "id",
+            foreignKey = @ForeignKey(
+                    name = "account_monthly_balance_account_id_fk"
+            ),
+            updatable = false,
+            nullable = false
+    )
+    private Account account;
+
+    @NotNull
+    @Column(name = "period_start", updatable = false, nullable = false)
+    private LocalDate periodStart;
+
+    @NotNull
+    @Column(name = "debits", nullable = false, scale = 2)
+    private BigDecimal debits;
+
+    @NotNull
+    @Column(name = "credits", nullable = false, scale = 2)
+    private BigDecimal credits;
+
+    @NotNull
+    @Column(name = "line_count", nullable = false)
+    private Long lineCount;
+
+    public AccountMonthlyBalance(User user, Account account, LocalDate periodStart) {
+        this.user = user;
+        this.account = account;
+        this.periodStart = periodStart;
+        this.debits = new BigDecimal("0.00");
+        this.credits = new BigDecimal("0.00");
+        this.lineCount = 0L;
+    }
+}
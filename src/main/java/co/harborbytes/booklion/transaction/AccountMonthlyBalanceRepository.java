@@ -0,0 +1,91 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.account.AccountType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountMonthlyBalanceRepository extends JpaRepository<AccountMonthlyBalance, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM AccountMonthlyBalance m WHERE m.user.id = :userId AND m.account.id = :accountId AND m.periodStart = :periodStart")
+    Optional<AccountMonthlyBalance> findForUpdate(@Param("userId") Long userId, @Param("accountId") Long accountId, @Param("periodStart") LocalDate periodStart);
+
+    /**
+     * Like {@link AccountBalanceRepository#insertIfAbsent}, for the month starting at {@code periodStart}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_monthly_balance (user_id, account_id, period_start, debits, credits, line_count) VALUES (:userId, :accountId, :periodStart, 0, 0, 0) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId, @Param("accountId") Long accountId, @Param("periodStart") LocalDate periodStart);
+
+    /**
+     * Like {@link AccountBalanceRepository#mergeIfAbsent}, for the month starting at {@code periodStart}.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO account_monthly_balance m USING (VALUES (:userId, :accountId, :periodStart)) n (user_id, account_id, period_start) " +
+            "ON m.user_id = n.user_id AND m.account_id = n.account_id AND m.period_start = n.period_start " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, account_id, period_start, debits, credits, line_count) VALUES (n.user_id, n.account_id, n.period_start, 0, 0, 0)", nativeQuery = true)
+    void mergeIfAbsent(@Param("userId") Long userId, @Param("accountId") Long accountId, @Param("periodStart") LocalDate periodStart);
+
+    void deleteAllByUserId(Long userId);
+
+    @Query("SELECT new co.harborbytes.booklion.transaction.BalanceParts(a.name, a.accountType, COALESCE(SUM(m.debits), 0), COALESCE(SUM(m.credits), 0)) " +
+            "FROM Account a LEFT JOIN AccountMonthlyBalance m ON m.account.id = a.id AND m.user.id = :userId " +
+            "AND m.periodStart >= :firstMonth AND m.periodStart < :endMonth " +
+            "WHERE a.accountType IN :accountTypes " +
+            "GROUP BY a.number, a.name, a.accountType " +
+            "ORDER BY a.number ASC")
+    List<BalanceParts> queryAccountSummaryBetweenMonths(@Param("userId") Long userId, @Param("firstMonth") LocalDate firstMonth, @Param("endMonth") LocalDate endMonth, @Param("accountTypes") List<AccountType> accountTypes);
+
+    @Query("SELECT COALESCE(SUM(m.lineCount), 0) FROM AccountMonthlyBalance m WHERE m.user.id = :userId AND m.periodStart >= :firstMonth")
+    long countLinesSinceMonth(@Param("userId") Long userId, @Param("firstMonth") LocalDate firstMonth);
+
+    /**
+     * Per user, account and month, what the ledger lines add up to, as user id, account id, year, month, debits,
+     * credits and line count (see {@link AccountMonthlyBalanceSnapshot#of}). The months are the UTC ones
+     * {@link AccountBalanceService#periodStartOf} cuts whatever zone the session is in, which JPQL can't say; the inner
+     * select works them out so the outer GROUP BY only sees plain columns.
+     */
+    @Query(value = "SELECT p.user_id, p.account_id, p.period_year, p.period_month, SUM(p.debit_amount), SUM(p.credit_amount), COUNT(*) FROM (" +
+            "SELECT t.user_id, tl.account_id, CAST(EXTRACT(YEAR FROM t.created_at AT TIME ZONE 'UTC') AS INTEGER) AS period_year, " +
+            "CAST(EXTRACT(MONTH FROM t.created_at AT TIME ZONE 'UTC') AS INTEGER) AS period_month, tl.debit_amount, tl.credit_amount " +
+            "FROM transaction_line tl INNER JOIN transaction t ON t.id = tl.transaction_id" +
+            ") p GROUP BY p.user_id, p.account_id, p.period_year, p.period_month", nativeQuery = true)
+    List<Object[]> sumLedgerByMonth();
+
+    /**
+     * {@link #sumLedgerByMonth} for the lines created since {@code from}.
+     */
+    @Query(value = "SELECT p.user_id, p.account_id, p.period_year, p.period_month, SUM(p.debit_amount), SUM(p.credit_amount), COUNT(*) FROM (" +
+            "SELECT t.user_id, tl.account_id, CAST(EXTRACT(YEAR FROM t.created_at AT TIME ZONE 'UTC') AS INTEGER) AS period_year, " +
+            "CAST(EXTRACT(MONTH FROM t.created_at AT TIME ZONE 'UTC') AS INTEGER) AS period_month, tl.debit_amount, tl.credit_amount " +
+            "FROM transaction_line tl INNER JOIN transaction t ON t.id = tl.transaction_id " +
+            "WHERE t.created_at >= :from" +
+            ") p GROUP BY p.user_id, p.account_id, p.period_year, p.period_month", nativeQuery = true)
+    List<Object[]> sumLedgerByMonthSince(@Param("from") Instant from);
+
+    /**
+     * Per user and account, the rollups of the months before {@code before}, with the last transaction date the
+     * balance row has; it can't be told from the rollups.
+     */
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountBalanceSnapshot(m.user.id, m.account.id, SUM(m.debits), SUM(m.credits), SUM(m.lineCount), MAX(b.lastTxAt)) " +
+            "FROM AccountMonthlyBalance m LEFT JOIN AccountBalance b ON b.user.id = m.user.id AND b.account.id = m.account.id " +
+            "WHERE m.periodStart < :before " +
+            "GROUP BY m.user.id, m.account.id")
+    List<AccountBalanceSnapshot> sumSnapshotsBefore(@Param("before") LocalDate before);
+
+    @Modifying
+    @Query("DELETE FROM AccountMonthlyBalance m WHERE m.periodStart >= :from")
+    void deleteAllFromMonth(@Param("from") LocalDate from);
+}
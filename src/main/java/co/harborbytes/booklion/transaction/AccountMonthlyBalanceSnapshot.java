@@ -0,0 +1,37 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class AccountMonthlyBalanceSnapshot {
+    private Long userId;
+    private Long accountId;
+    private Integer year;
+    private Integer month;
+    private BigDecimal debits;
+    private BigDecimal credits;
+    private Long lineCount;
+
+    /**
+     * A row of {@link AccountMonthlyBalanceRepository#sumLedgerByMonth}.
+     */
+    public static AccountMonthlyBalanceSnapshot of(Object[] row) {
+        return new AccountMonthlyBalanceSnapshot(
+                ((Number) row[0]).longValue(),
+                ((Number) row[1]).longValue(),
+                ((Number) row[2]).intValue(),
+                ((Number) row[3]).intValue(),
+                (BigDecimal) row[4],
+                (BigDecimal) row[5],
+                ((Number) row[6]).longValue());
+    }
+
+    public LocalDate getPeriodStart() {
+        return LocalDate.of(year, month, 1);
+    }
+}
@@ -0,0 +1,14 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by {@link LedgerVersions} whenever a user's ledger version is bumped, so that whatever is derived from the
+ * ledger can be dropped once the write is committed. A null user id means every user's ledger changed.
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerChangedEvent {
+    private Long userId;
+}
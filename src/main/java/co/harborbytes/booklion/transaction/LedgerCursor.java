@@ -0,0 +1,39 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.exception.TransactionValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in an account ledger: the last row a client has seen,
+ * ordered by {@code (createdAt, transactionId)}, plus the running balance after it.
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerCursor {
+
+    private Instant createdAt;
+    private Long transactionId;
+    private BigDecimal balance;
+
+    public String encode() {
+        String raw = String.format("%s|%s|%s", createdAt, transactionId, balance.toPlainString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LedgerCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new LedgerCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]), new BigDecimal(parts[2]).setScale(2, RoundingMode.UNNECESSARY));
+        } catch (RuntimeException ex) {
+            throw new TransactionValidationException(String.format("\"%s\" is not a valid ledger cursor", cursor));
+        }
+    }
+}
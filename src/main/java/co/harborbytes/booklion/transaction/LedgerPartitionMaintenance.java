@@ -0,0 +1,92 @@
+package co.harborbytes.booklion.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of transaction and transaction_line ahead of the clock, and detaches the ones that
+ * have left the retention window. The partitioning itself, and the functions called here, come from the
+ * V5__partition_ledger_by_month migration, so on any database other than PostgreSQL this does nothing.
+ * <p>
+ * A detached month's lines are gone from the ledger but not from account_balance and account_monthly_balance, which
+ * keep counting them: the V2 reports, which read those, don't change when a month is archived, while the V1 reports
+ * and the overviews, which read the ledger, only see the months still attached. {@link AccountBalanceService} asks
+ * {@link #archivedBefore()} so that a rebuild keeps the rollups of the archived months instead of recomputing them
+ * from a ledger that no longer has them.
+ */
+@Component
+public class LedgerPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerPartitionMaintenance.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    @Autowired
+    public LedgerPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                      @Value("${booklion.ledger.partitions.months-ahead:3}") int monthsAhead,
+                                      @Value("${booklion.ledger.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${booklion.ledger.partitions.maintenance-cron:0 0 3 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        if (!isPartitioned())
+            return;
+
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = currentMonth.plusMonths(i).atDay(1);
+            Boolean created = jdbcTemplate.queryForObject("SELECT booklion_create_ledger_partitions(?)", Boolean.class, month);
+            if (Boolean.TRUE.equals(created))
+                log.info("created ledger partitions for {}", month);
+        }
+
+        // zero keeps every month attached
+        if (retentionMonths <= 0)
+            return;
+
+        LocalDate cutoff = archivedBefore();
+        List<String> detached = jdbcTemplate.queryForList("SELECT booklion_detach_ledger_partitions_before(?)", String.class, cutoff);
+        if (!detached.isEmpty())
+            log.info("detached ledger partitions {} ahead of archiving", detached);
+    }
+
+    /**
+     * The first month still kept in the ledger, or null when no month is ever detached. Months before it may already
+     * be archived, so only their rollups are to be trusted. Taken from the retention setting rather than from the
+     * partitions, a month about to be detached counts as detached already.
+     */
+    public LocalDate archivedBefore() {
+        if (retentionMonths <= 0 || !isPartitioned())
+            return null;
+
+        return YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths).atDay(1);
+    }
+
+    private boolean isPartitioned() {
+        String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(databaseProductName))
+            return false;
+
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_proc WHERE proname = 'booklion_create_ledger_partitions')", Boolean.class));
+    }
+}
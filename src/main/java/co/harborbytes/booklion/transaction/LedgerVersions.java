@@ -0,0 +1,46 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.user.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A per-user count of writes to the ledger, kept in {@code users.ledger_version} and bumped in the same database
+ * transaction as the write. Every write goes through {@link AccountBalanceService}, which is where it's bumped. As
+ * long as a user's version hasn't moved, nothing derived from their ledger has changed, which is what the report
+ * ETags rely on. Each bump also publishes a {@link LedgerChangedEvent}.
+ * <p>
+ * The bump holds the user's row lock until commit, so concurrent writes to the same user's ledger queue behind each
+ * other from that point on; it's done last to keep that stretch short.
+ */
+@Service
+public class LedgerVersions {
+
+    private final UserRepository userRepo;
+    private final ApplicationEventPublisher publisher;
+
+    @Autowired
+    public LedgerVersions(UserRepository userRepo, ApplicationEventPublisher publisher) {
+        this.userRepo = userRepo;
+        this.publisher = publisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(Long userId) {
+        userRepo.incrementLedgerVersion(userId);
+        publisher.publishEvent(new LedgerChangedEvent(userId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bumpAll() {
+        userRepo.incrementAllLedgerVersions();
+        publisher.publishEvent(new LedgerChangedEvent(null));
+    }
+
+    public long current(Long userId) {
+        return userRepo.findLedgerVersionById(userId).orElse(0L);
+    }
+}
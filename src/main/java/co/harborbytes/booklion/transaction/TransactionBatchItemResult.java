@@ -0,0 +1,33 @@
+package co.harborbytes.booklion.transaction;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionBatchItemResult {
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+        SKIPPED
+    }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private List<String> errors = new ArrayList<>();
+
+    public TransactionBatchItemResult(int index) {
+        this.index = index;
+    }
+
+    public void addError(String error) {
+        this.errors.add(error);
+    }
+}
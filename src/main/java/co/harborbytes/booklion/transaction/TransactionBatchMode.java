@@ -0,0 +1,6 @@
+package co.harborbytes.booklion.transaction;
+
+public enum TransactionBatchMode {
+    ALL_OR_NOTHING,
+    PARTIAL
+}
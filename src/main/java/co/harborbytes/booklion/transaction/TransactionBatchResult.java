@@ -0,0 +1,15 @@
+package co.harborbytes.booklion.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TransactionBatchResult {
+    private TransactionBatchMode mode;
+    private long created;
+    private long rejected;
+    private List<TransactionBatchItemResult> items;
+}
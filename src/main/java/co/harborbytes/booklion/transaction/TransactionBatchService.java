@@ -0,0 +1,176 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import co.harborbytes.booklion.exception.TransactionValidationException;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class TransactionBatchService {
+
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    // keep in step with spring.jpa.properties.hibernate.jdbc.batch_size
+    private static final int FLUSH_SIZE = 50;
+
+    private final TransactionMapper mapper;
+    private final UserRepository userRepo;
+    private final AccountRepository accountRepo;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final AccountBalanceService accountBalanceService;
+    private final ChartOfAccounts chartOfAccounts;
+
+    @Autowired
+    public TransactionBatchService(TransactionMapper mapper, UserRepository userRepo, AccountRepository accountRepo, Validator validator, EntityManager entityManager, AccountBalanceService accountBalanceService,
+                                   ChartOfAccounts chartOfAccounts) {
+        this.mapper = mapper;
+        this.userRepo = userRepo;
+        this.accountRepo = accountRepo;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.accountBalanceService = accountBalanceService;
+        this.chartOfAccounts = chartOfAccounts;
+    }
+
+    @Transactional
+    public TransactionBatchResult createTransactions(List<TransactionDTO> dtos, Long userId, TransactionBatchMode mode) {
+
+        if (dtos == null || dtos.isEmpty())
+            throw new TransactionValidationException("the batch must contain at least one transaction");
+
+        if (dtos.size() > MAX_BATCH_SIZE)
+            throw new TransactionValidationException(String.format("the batch cannot contain more than %s transactions", MAX_BATCH_SIZE));
+
+        User user = userRepo
+                .findById(userId).orElseThrow(() -> new DomainEntityNotFoundException(User.class.getSimpleName(), "id", userId.toString()));
+
+        Map<Long, Account> accounts = findReferencedAccounts(dtos);
+
+        List<TransactionBatchItemResult> results = new ArrayList<>(dtos.size());
+        boolean anyRejected = false;
+        for (int i = 0; i < dtos.size(); i++) {
+            TransactionBatchItemResult result = validate(i, dtos.get(i), accounts);
+            anyRejected |= result.getStatus() == TransactionBatchItemResult.Status.REJECTED;
+            results.add(result);
+        }
+
+        if (mode == TransactionBatchMode.ALL_OR_NOTHING && anyRejected) {
+            results.stream()
+                    .filter(result -> result.getStatus() != TransactionBatchItemResult.Status.REJECTED)
+                    .forEach(result -> result.setStatus(TransactionBatchItemResult.Status.SKIPPED));
+            return summarize(mode, results);
+        }
+
+        List<Transaction> created = new ArrayList<>();
+        for (TransactionBatchItemResult result : results) {
+            if (result.getStatus() == TransactionBatchItemResult.Status.REJECTED)
+                continue;
+
+            Transaction transaction = toTransaction(dtos.get(result.getIndex()), user, accounts);
+            entityManager.persist(transaction);
+            created.add(transaction);
+
+            result.setId(transaction.getId());
+            result.setStatus(TransactionBatchItemResult.Status.CREATED);
+
+            if (created.size() % FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        accountBalanceService.applyTransactions(created);
+
+        return summarize(mode, results);
+    }
+
+    private Map<Long, Account> findReferencedAccounts(List<TransactionDTO> dtos) {
+        Set<Long> accountIds = dtos.stream()
+                .filter(Objects::nonNull)
+                .map(TransactionDTO::getLines)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .filter(Objects::nonNull)
+                .map(TransactionLineDTO::getAccountId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Account> accounts = new HashMap<>();
+        Set<Long> unknownAccountIds = new HashSet<>();
+        for (Long accountId : accountIds) {
+            chartOfAccounts.findById(accountId).ifPresentOrElse(account -> accounts.put(accountId, account), () -> unknownAccountIds.add(accountId));
+        }
+
+        // the chart may not have caught up with an account just created on another node, so ask before rejecting
+        if (!unknownAccountIds.isEmpty())
+            accounts.putAll(accountRepo.findAllById(unknownAccountIds).stream().collect(Collectors.toMap(Account::getId, Function.identity())));
+
+        return accounts;
+    }
+
+    private TransactionBatchItemResult validate(int index, TransactionDTO dto, Map<Long, Account> accounts) {
+        TransactionBatchItemResult result = new TransactionBatchItemResult(index);
+
+        if (dto == null) {
+            result.addError("validation error: transaction must not be null");
+            result.setStatus(TransactionBatchItemResult.Status.REJECTED);
+            return result;
+        }
+
+        BindingResult bindingResult = new BeanPropertyBindingResult(dto, "transaction");
+        validator.validate(dto, bindingResult);
+        bindingResult.getAllErrors().forEach(error -> {
+            String target = error instanceof FieldError fieldError ? fieldError.getField() : error.getObjectName();
+            result.addError(String.format("validation error: %s %s", target, error.getDefaultMessage()));
+        });
+
+        if (dto.getLines() != null) {
+            dto.getLines().stream()
+                    .filter(Objects::nonNull)
+                    .map(TransactionLineDTO::getAccountId)
+                    .filter(accountId -> accountId != null && !accounts.containsKey(accountId))
+                    .distinct()
+                    .forEach(accountId -> result.addError(String.format("%s with %s = %s was not found", Account.class.getSimpleName(), "id", accountId)));
+        }
+
+        if (!result.getErrors().isEmpty())
+            result.setStatus(TransactionBatchItemResult.Status.REJECTED);
+
+        return result;
+    }
+
+    private Transaction toTransaction(TransactionDTO dto, User user, Map<Long, Account> accounts) {
+        Transaction transaction = mapper.dtoToTransaction(dto);
+        transaction.setId(null);
+        transaction.setUser(user);
+        transaction.getLines().forEach(line -> {
+            line.setTransaction(transaction);
+            line.setAccount(accounts.get(line.getAccount().getId()));
+        });
+        return transaction;
+    }
+
+    private TransactionBatchResult summarize(TransactionBatchMode mode, List<TransactionBatchItemResult> results) {
+        long created = results.stream().filter(result -> result.getStatus() == TransactionBatchItemResult.Status.CREATED).count();
+        long rejected = results.stream().filter(result -> result.getStatus() == TransactionBatchItemResult.Status.REJECTED).count();
+        return new TransactionBatchResult(mode, created, rejected, results);
+    }
+}
@@ -2,20 +2,38 @@ package co.harborbytes.booklion.transaction;
 
 import co.harborbytes.booklion.apiresponsewrapper.ApiResponseSuccess;
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
+import co.harborbytes.booklion.exception.TransactionBatchRejectedException;
+import co.harborbytes.booklion.report.ReportETag;
+import co.harborbytes.booklion.report.ReportJobController;
+import co.harborbytes.booklion.report.ReportJobService;
+import co.harborbytes.booklion.report.ReportResponses;
+import co.harborbytes.booklion.report.ReportType;
 import co.harborbytes.booklion.user.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.List;
@@ -25,12 +43,21 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
+    private final ObjectMapper jsonMapper;
+    private final ReportJobService reportJobService;
+    private final ReportResponses reportResponses;
     private final Instant defaultFromDate = Instant.parse("2024-01-01T00:00:00Z");
 
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, TransactionBatchService transactionBatchService, ObjectMapper jsonMapper, ReportJobService reportJobService,
+                                 ReportResponses reportResponses) {
         this.transactionService = transactionService;
+        this.transactionBatchService = transactionBatchService;
+        this.jsonMapper = jsonMapper;
+        this.reportJobService = reportJobService;
+        this.reportResponses = reportResponses;
     }
 
     @PostMapping
@@ -47,8 +74,27 @@ public class TransactionController {
         return new ApiResponseSuccess<>(responsePayload);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ApiResponseSuccess<TransactionBatchResult> createTransactions(@RequestBody List<TransactionDTO> transactionDTOs,
+                                                                         @RequestParam(value = "mode", defaultValue = "ALL_OR_NOTHING") TransactionBatchMode mode) {
+
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        TransactionBatchResult result = transactionBatchService.createTransactions(transactionDTOs, loggedInUser.getId(), mode);
+
+        // a batch that wrote nothing is a failed request, reported with the reason of every rejected transaction
+        if (result.getCreated() == 0)
+            throw new TransactionBatchRejectedException(String.format("none of the %d transactions in the batch were created", result.getItems().size()),
+                    result.getItems().stream()
+                            .filter(item -> item.getStatus() == TransactionBatchItemResult.Status.REJECTED)
+                            .flatMap(item -> item.getErrors().stream().map(itemError -> String.format("transaction %d: %s", item.getIndex(), itemError)))
+                            .toList());
+
+        return new ApiResponseSuccess<>(result);
+    }
+
     @GetMapping(value = "/balance-sheet", params= "from")
-    public ApiResponseSuccess<BalanceSheetReport> getBalanceSheetReport(@RequestParam("from") String fromDate){
+    public ResponseEntity<?> getBalanceSheetReport(@RequestParam("from") String fromDate, @RequestHeader HttpHeaders requestHeaders){
 
         Instant date;
         try{
@@ -59,11 +105,19 @@ public class TransactionController {
         }
 
         User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return new ApiResponseSuccess<>(transactionService.getBalanceSheetReportV2(loggedInUser.getId(), date) );
+        ReportETag eTag = reportResponses.eTagOf(loggedInUser.getId(), "balance-sheet", date);
+        if (eTag.matches(requestHeaders))
+            return reportResponses.notModified(eTag, requestHeaders);
+
+        if (reportJobService.shouldRunInBackground(loggedInUser.getId(), date))
+            return ReportJobController.accepted(reportJobService.submit(loggedInUser.getId(), ReportType.BALANCE_SHEET, date));
+
+        Instant from = date;
+        return reportResponses.ok(eTag, requestHeaders, () -> transactionService.getBalanceSheetReportV2(loggedInUser.getId(), from));
     }
 
     @GetMapping(value = "/income-statement", params= "from")
-    public ApiResponseSuccess<IncomeStatementReport> getIncomeStatementReport(@RequestParam("from") String fromDate){
+    public ResponseEntity<?> getIncomeStatementReport(@RequestParam("from") String fromDate, @RequestHeader HttpHeaders requestHeaders){
 
         Instant date;
         try{
@@ -74,7 +128,15 @@ public class TransactionController {
         }
 
         User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return new ApiResponseSuccess<>(transactionService.getIncomeStatementReportV2(loggedInUser.getId(), date) );
+        ReportETag eTag = reportResponses.eTagOf(loggedInUser.getId(), "income-statement", date);
+        if (eTag.matches(requestHeaders))
+            return reportResponses.notModified(eTag, requestHeaders);
+
+        if (reportJobService.shouldRunInBackground(loggedInUser.getId(), date))
+            return ReportJobController.accepted(reportJobService.submit(loggedInUser.getId(), ReportType.INCOME_STATEMENT, date));
+
+        Instant from = date;
+        return reportResponses.ok(eTag, requestHeaders, () -> transactionService.getIncomeStatementReportV2(loggedInUser.getId(), from));
     }
 
     @ResponseStatus(HttpStatus.OK)
@@ -93,6 +155,39 @@ public class TransactionController {
         return new ApiResponseSuccess<>(transactionService.findTransactionsByUserIdAndAccountNumber(loggedInUser.getId(), accountNumber)) ;
     }
 
+    @GetMapping(value = "/generalLedger", params = {"accountNumber", "size"})
+    public ApiResponseSuccess<AccountLedgerPage> findLedgerPageByUserIdAndAccountNumber(@RequestParam("accountNumber") String accountNumber,
+                                                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                      @RequestParam("size") @Positive @Max(1000) Integer size) {
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return new ApiResponseSuccess<>(transactionService.findLedgerPage(loggedInUser.getId(), accountNumber, cursor, size));
+    }
+
+    @GetMapping(value = "/generalLedger/stream", params = "accountNumber", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLedgerByUserIdAndAccountNumber(@RequestParam("accountNumber") String accountNumber) {
+        User loggedInUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Long userId = loggedInUser.getId();
+        ObjectWriter rowWriter = jsonMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = jsonMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            transactionService.streamLedger(userId, accountNumber, entry -> {
+                try {
+                    rowWriter.writeValue(generator, entry);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+
+            generator.writeRaw('\n');
+            generator.flush();
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
 
 
     @ResponseStatus(HttpStatus.OK)
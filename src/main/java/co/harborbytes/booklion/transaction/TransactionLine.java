@@ -10,18 +10,23 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "transaction_line")
+@Table(name = "transaction_line", indexes = {
+        @Index(name = "transaction_line_account_id_transaction_id_idx", columnList = "account_id, transaction_id"),
+        @Index(name = "transaction_line_transaction_id_idx", columnList = "transaction_id")
+})
 
 @TransactionLineBothAmountsSetWithZeroConstraint
 public class TransactionLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_line_id_generator")
+    @SequenceGenerator(name = "transaction_line_id_generator", sequenceName = "transaction_line_id_seq", allocationSize = 50)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
@@ -49,8 +54,9 @@ public class TransactionLine {
 
     private Transaction transaction;
 
+    // lazy: the number, name and type of a line's account come from ChartOfAccounts, only the id is read from here
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER, cascade = {CascadeType.REFRESH})
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(
             name = "account_id",
             foreignKey = @ForeignKey(
@@ -61,4 +67,14 @@ public class TransactionLine {
             nullable = false
     )
     private Account account;
+
+    // copy of the transaction's created_at, both tables are partitioned by month on it
+    @Column(name = "created_at", updatable = false, nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    void copyCreatedAtFromTransaction() {
+        if (createdAt == null && transaction != null)
+            createdAt = transaction.getCreatedAt();
+    }
 }
@@ -1,12 +1,28 @@
 package co.harborbytes.booklion.transaction;
 
 import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountMapper;
+import co.harborbytes.booklion.account.ChartOfAccounts;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.springframework.beans.factory.annotation.Autowired;
 
 @Mapper(componentModel = "spring")
 public abstract class TransactionMapper {
 
+    private AccountMapper accountMapper;
+    private ChartOfAccounts chartOfAccounts;
+
+    @Autowired
+    public void setAccountMapper(AccountMapper accountMapper) {
+        this.accountMapper = accountMapper;
+    }
+
+    @Autowired
+    public void setChartOfAccounts(ChartOfAccounts chartOfAccounts) {
+        this.chartOfAccounts = chartOfAccounts;
+    }
+
     @Mapping( target = "id", ignore = true)
 //    @Mapping( target = "createdAt", ignore = true)
     @Mapping( target = "user", ignore = true)
@@ -28,7 +44,20 @@ public abstract class TransactionMapper {
         return transactionLine;
     }
 
-    @Mapping( target = "accountId", ignore = true)
-    public abstract TransactionLineDTO transactionLineToDto (TransactionLine line);
+    // the line only holds a lazy reference to its account, the details come from the chart of accounts
+    public TransactionLineDTO transactionLineToDto (TransactionLine line){
+        if ( line == null ) {
+            return null;
+        }
+
+        TransactionLineDTO transactionLineDTO = new TransactionLineDTO();
+        transactionLineDTO.setDebitAmount( line.getDebitAmount() );
+        transactionLineDTO.setCreditAmount( line.getCreditAmount() );
+        if ( line.getAccount() != null ) {
+            transactionLineDTO.setAccount( accountMapper.accountToDto( chartOfAccounts.resolve( line.getAccount() ) ) );
+        }
+
+        return transactionLineDTO;
+    }
 
 }
@@ -1,21 +1,26 @@
 package co.harborbytes.booklion.transaction;
 
 import co.harborbytes.booklion.account.AccountType;
+import jakarta.persistence.QueryHint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.hibernate.annotations.NamedNativeQuery;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 
@@ -24,7 +29,18 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
 
     Page<Transaction> findTransactionsByUserId(Long userId, Pageable pageable);
-    List<Transaction> findAllTransactionsByUserIdAndCreatedAtAfter(Long userId, Instant date);
+
+    @Query(value = "SELECT t.id FROM Transaction t WHERE t.user.id = :userId",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId")
+    Page<Long> findTransactionIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT DISTINCT t FROM Transaction t JOIN FETCH t.user LEFT JOIN FETCH t.lines l WHERE t.id IN :ids")
+    List<Transaction> findAllWithLinesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // lines carry their transaction's created_at so the same bound prunes both partitioned tables
+    @Query("SELECT DISTINCT t FROM Transaction t JOIN FETCH t.user LEFT JOIN FETCH t.lines l " +
+            "WHERE t.user.id = :userId AND t.createdAt > :date AND l.createdAt > :date")
+    List<Transaction> findAllTransactionsByUserIdAndCreatedAtAfter(@Param("userId") Long userId, @Param("date") Instant date);
     Optional<Transaction> findTransactionByIdAndUserId(Long id, Long userId);
     void deleteAllByUserId(Long id);
     void deleteTransactionByIdAndUserId(Long id, Long userId);
@@ -35,18 +51,35 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<AccountTransactionLedger> findTransactionsByUserIdAndAccountNumber(@Param("userId")Long userId, @Param("accountNumber") String accountNumber);
 
     @Query("SELECT new co.harborbytes.booklion.transaction.AccountTransactionLedger (t.createdAt, t.description, a.accountType, tl.debitAmount, tl.creditAmount, t.id) " +
-            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t where t.user.id  = :userId AND a.number = :accountNumber AND t.createdAt BETWEEN :startDate AND :endDate")
+            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t where t.user.id  = :userId AND a.number = :accountNumber AND t.createdAt BETWEEN :startDate AND :endDate " +
+            "AND tl.createdAt BETWEEN :startDate AND :endDate")
     List<AccountTransactionLedger> findTransactionsByUserIdAndAccountNumberBetweenDates(@Param("userId")Long userId, @Param("accountNumber") String accountNumber, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
 
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountTransactionLedger (t.createdAt, t.description, a.accountType, tl.debitAmount, tl.creditAmount, t.id) " +
+            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t where t.user.id  = :userId AND a.number = :accountNumber " +
+            "ORDER BY t.createdAt ASC, t.id ASC")
+    List<AccountTransactionLedger> findLedgerPage(@Param("userId") Long userId, @Param("accountNumber") String accountNumber, Pageable pageable);
+
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountTransactionLedger (t.createdAt, t.description, a.accountType, tl.debitAmount, tl.creditAmount, t.id) " +
+            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t where t.user.id  = :userId AND a.number = :accountNumber " +
+            "AND (t.createdAt > :afterDate OR (t.createdAt = :afterDate AND t.id > :afterTransactionId)) AND tl.createdAt >= :afterDate " +
+            "ORDER BY t.createdAt ASC, t.id ASC")
+    List<AccountTransactionLedger> findLedgerPageAfter(@Param("userId") Long userId, @Param("accountNumber") String accountNumber, @Param("afterDate") Instant afterDate, @Param("afterTransactionId") Long afterTransactionId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new co.harborbytes.booklion.transaction.AccountTransactionLedger (t.createdAt, t.description, a.accountType, tl.debitAmount, tl.creditAmount, t.id) " +
+            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t where t.user.id  = :userId AND a.number = :accountNumber " +
+            "ORDER BY t.createdAt ASC, t.id ASC")
+    Stream<AccountTransactionLedger> streamLedger(@Param("userId") Long userId, @Param("accountNumber") String accountNumber);
+
 //    @Query("SELECT new co.harborbytes.booklion.transaction.BalanceParts(a.name, a.accountType, SUM(tl.debitAmount), SUM(tl.creditAmount))  FROM TransactionLine tl RIGHT JOIN  tl.account a INNER JOIN tl.transaction t WHERE t.user.id = :userId AND a.accountType IN :accountTypes AND t.createdAt BETWEEN :startDate AND :endDate OR t.createdAt = NULL GROUP BY a.name, a.accountType")
 //    List<BalanceParts> queryAccountSummary(@Param("userId") Long userId, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate, @Param("accountTypes")List<AccountType> accountTypes);
 
 //    @Query("SELECT new co.harborbytes.booklion.transaction.BalanceParts(a.name, a.accountType, SUM(tl.debitAmount), SUM(tl.creditAmount)) FROM TransactionLine tl RIGHT JOIN tl.account a LEFT JOIN tl.transaction t WHERE (t.user.id = :userId OR t.user.id IS NULL) AND (a.accountType IN :accountTypes) GROUP BY a.name, a.accountType")
 //
-    @Query("SELECT new co.harborbytes.booklion.transaction.BalanceParts(a.name, a.accountType, " +
-            "(SELECT COALESCE(SUM(tl.debitAmount), 0) FROM TransactionLine tl JOIN tl.transaction t WHERE (tl.account.id = a.id) AND (t.user.id = u.id)), " +
-            "(SELECT COALESCE(SUM(tl.creditAmount), 0) FROM TransactionLine tl JOIN tl.transaction t WHERE (tl.account.id = a.id) AND (t.user.id = u.id)) )" +
-            "FROM Account a, User u WHERE u.id = :userId and a.accountType IN :accountTypes " +
+    @Query("SELECT new co.harborbytes.booklion.transaction.BalanceParts(a.name, a.accountType, COALESCE(b.debits, 0), COALESCE(b.credits, 0)) " +
+            "FROM Account a LEFT JOIN AccountBalance b ON b.account.id = a.id AND b.user.id = :userId " +
+            "WHERE a.accountType IN :accountTypes " +
             "ORDER BY a.number ASC")
 
 //    @Query(value = "SELECT (a.name, a.type," +
@@ -55,6 +88,13 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 //            "from account a cross join users u where u.id= :userId and a.type in :accountTypes", nativeQuery = true)
     List<BalanceParts> queryAccountSummary(@Param("userId") Long userId, @Param("accountTypes")List<AccountType> accountTypes);
 
+    @Query("SELECT new co.harborbytes.booklion.transaction.BalanceParts(a.name, a.accountType, SUM(tl.debitAmount), SUM(tl.creditAmount)) " +
+            "FROM TransactionLine tl INNER JOIN tl.account a INNER JOIN tl.transaction t " +
+            "WHERE t.user.id = :userId AND a.accountType IN :accountTypes AND t.createdAt >= :startDate AND t.createdAt < :endDate " +
+            "AND tl.createdAt >= :startDate AND tl.createdAt < :endDate " +
+            "GROUP BY a.number, a.name, a.accountType")
+    List<BalanceParts> queryAccountSummaryBetweenDates(@Param("userId") Long userId, @Param("startDate") Instant startDate, @Param("endDate") Instant endDate, @Param("accountTypes") List<AccountType> accountTypes);
+
 
 
 
@@ -4,13 +4,18 @@ import co.harborbytes.booklion.account.Account;
 import co.harborbytes.booklion.account.AccountOverviewByType;
 import co.harborbytes.booklion.account.AccountStatus;
 import co.harborbytes.booklion.account.AccountType;
+import co.harborbytes.booklion.account.ChartOfAccounts;
 import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
 import co.harborbytes.booklion.exception.DomainEntityValidationException;
 import co.harborbytes.booklion.exception.TransactionValidationException;
+import co.harborbytes.booklion.money.MoneyAccumulator;
+import co.harborbytes.booklion.patch.PartialUpdater;
+import co.harborbytes.booklion.report.ReportCache;
 import co.harborbytes.booklion.user.User;
 import co.harborbytes.booklion.user.UserRepository;
 import jakarta.persistence.EntityManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
@@ -24,25 +29,38 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
 
+    private static final PartialUpdater<Transaction> TRANSACTION_UPDATER = PartialUpdater.of(Transaction.class);
+
     private final TransactionRepository transactionRepo;
     private final TransactionMapper mapper;
     private final UserRepository userRepo;
     private final Validator validator;
     private final EntityManager entityManager;
+    private final AccountBalanceService accountBalanceService;
+    private final ChartOfAccounts chartOfAccounts;
+    private final ReportCache reportCache;
 
-    public TransactionService(TransactionRepository transactionRepo, TransactionMapper mapper, UserRepository userRepo, Validator validator, EntityManager entityManager) {
+    public TransactionService(TransactionRepository transactionRepo, TransactionMapper mapper, UserRepository userRepo, Validator validator, EntityManager entityManager, AccountBalanceService accountBalanceService,
+                              ChartOfAccounts chartOfAccounts, ReportCache reportCache) {
         this.transactionRepo = transactionRepo;
         this.mapper = mapper;
         this.userRepo = userRepo;
         this.validator = validator;
         this.entityManager = entityManager;
+        this.accountBalanceService = accountBalanceService;
+        this.chartOfAccounts = chartOfAccounts;
+        this.reportCache = reportCache;
     }
 
     @Transactional
@@ -63,16 +81,22 @@ public class TransactionService {
                     "that they are not both set simultaneously," +
                     " and that the transaction is balanced");
 
-        transactionRepo.save(transaction);
+        // flushed first, with pooled ids the insert would otherwise wait for the commit and the refresh find no row
+        transactionRepo.saveAndFlush(transaction);
         entityManager.refresh(transaction);
+        accountBalanceService.applyTransaction(transaction);
         return mapper.transactionToDto(transaction);
     }
 
 
     public Page<TransactionDTO> getTransactionsByUserId(Long userId, Pageable pageable) {
-        return transactionRepo
-                .findTransactionsByUserId(userId, pageable)
-                .map(mapper::transactionToDto);
+        Page<Long> ids = transactionRepo.findTransactionIdsByUserId(userId, pageable);
+
+        Map<Long, Transaction> transactions = ids.isEmpty()
+                ? Map.of()
+                : transactionRepo.findAllWithLinesByIdIn(ids.getContent()).stream().collect(Collectors.toMap(Transaction::getId, Function.identity()));
+
+        return ids.map(id -> mapper.transactionToDto(transactions.get(id)));
     }
 
     public TransactionDTO getTransactionByIdAndUserId(Long id, Long userId) {
@@ -100,13 +124,9 @@ public class TransactionService {
         if (!incompleteTransaction.keySet().contains("description"))
             return mapper.transactionToDto(transactionToUpdate);
 
-        Object description = incompleteTransaction.get("description");
-        if (description == null)
-            transactionToUpdate.setDescription(null);
-        else
-            transactionToUpdate.setDescription(description.toString());
-
+        // description is the only updatable column of a transaction, so it's all the updater will touch
         BindingResult result = new BeanPropertyBindingResult(transactionToUpdate, "transactionToUpdate");
+        TRANSACTION_UPDATER.apply(transactionToUpdate, incompleteTransaction, result);
 
         validator.validate(transactionToUpdate, result);
 
@@ -120,55 +140,104 @@ public class TransactionService {
     @Transactional
     public void deleteTransactionsByUserId(Long id) {
         transactionRepo.deleteAllByUserId(id);
+        accountBalanceService.deleteBalancesByUserId(id);
     }
 
     @Transactional
     public void deleteTransactionByIdAndUserId(Long id, Long userId) {
-        transactionRepo.deleteTransactionByIdAndUserId(id, userId);
+        transactionRepo.findTransactionByIdAndUserId(id, userId).ifPresent(transaction -> {
+            accountBalanceService.revertTransaction(transaction);
+            transactionRepo.delete(transaction);
+        });
     }
 
     public List<AccountTransactionLedger> findTransactionsByUserIdAndAccountNumber(Long userId, String accountNumber) {
         return transactionRepo.findTransactionsByUserIdAndAccountNumber(userId, accountNumber);
     }
 
+    public AccountLedgerPage findLedgerPage(Long userId, String accountNumber, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        LedgerCursor after = cursor == null || cursor.isBlank() ? null : LedgerCursor.decode(cursor);
 
-    public BalanceSheetReport getBalanceSheetReport(Long userId, Instant from) {
-        BalanceSheetReport report = new BalanceSheetReport();
-        List<Transaction> transactionList = transactionRepo.findAllTransactionsByUserIdAndCreatedAtAfter(userId, from);
+        List<AccountTransactionLedger> rows = after == null
+                ? transactionRepo.findLedgerPage(userId, accountNumber, limit)
+                : transactionRepo.findLedgerPageAfter(userId, accountNumber, after.getCreatedAt(), after.getTransactionId(), limit);
 
+        MoneyAccumulator balance = new MoneyAccumulator();
+        if (after != null)
+            balance.add(after.getBalance());
 
-        Map<String, AccountStatus> balanceMap = new HashMap<>();
+        List<AccountLedgerEntry> entries = new ArrayList<>(rows.size());
+        for (AccountTransactionLedger row : rows) {
+            addBalanceDelta(balance, row);
+            entries.add(new AccountLedgerEntry(row, balance.toBigDecimal()));
+        }
 
-        for (Transaction transaction : transactionList) {
-            for (TransactionLine transactionLine : transaction.getLines()) {
+        if (rows.size() < size)
+            return new AccountLedgerPage(entries, null);
 
+        AccountTransactionLedger last = rows.get(rows.size() - 1);
+        return new AccountLedgerPage(entries, new LedgerCursor(last.getDate(), last.getTransactionId(), balance.toBigDecimal()).encode());
+    }
 
-                String accountNumber = transactionLine.getAccount().getNumber();
-                AccountStatus accountStatus = balanceMap.get(accountNumber);
+    @Transactional(readOnly = true)
+    public void streamLedger(Long userId, String accountNumber, Consumer<AccountLedgerEntry> sink) {
+        MoneyAccumulator balance = new MoneyAccumulator();
 
-                if (accountStatus == null) {
-                    accountStatus = new AccountStatus();
-                    accountStatus.setBalance(new BigDecimal("0.00"));
-                    accountStatus.setName(transactionLine.getAccount().getName());
-                    balanceMap.put(accountNumber, accountStatus);
-                }
+        try (Stream<AccountTransactionLedger> rows = transactionRepo.streamLedger(userId, accountNumber)) {
+            Iterator<AccountTransactionLedger> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                AccountTransactionLedger row = iterator.next();
+                addBalanceDelta(balance, row);
+                sink.accept(new AccountLedgerEntry(row, balance.toBigDecimal()));
+            }
+        }
+    }
 
+    private static void addBalanceDelta(MoneyAccumulator balance, AccountTransactionLedger row) {
+        addSigned(balance, row.getAccountType(), row.getDebits(), row.getCredits());
+    }
 
-                AccountType accountType = transactionLine.getAccount().getAccountType();
+    // debits increase assets and expenses, credits increase everything else
+    private static void addSigned(MoneyAccumulator balance, AccountType accountType, BigDecimal debits, BigDecimal credits) {
+        if (accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES)
+            balance.add(debits).subtract(credits);
+        else
+            balance.add(credits).subtract(debits);
+    }
 
-                if (accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES) {
-                    accountStatus.setBalance(accountStatus.getBalance().add(transactionLine.getDebitAmount()).subtract(transactionLine.getCreditAmount()));
-                }
+    private Map<String, RunningBalance> foldLedger(List<Transaction> transactions) {
+        Map<String, RunningBalance> balanceMap = new HashMap<>();
 
-                if (accountType == AccountType.LIABILITIES || accountType == AccountType.EQUITY || accountType == AccountType.REVENUE) {
-                    accountStatus.setBalance(accountStatus.getBalance().add(transactionLine.getCreditAmount()).subtract(transactionLine.getDebitAmount()));
-                }
+        for (Transaction transaction : transactions) {
+            for (TransactionLine transactionLine : transaction.getLines()) {
+                Account account = chartOfAccounts.resolve(transactionLine.getAccount());
+                RunningBalance runningBalance = balanceMap.computeIfAbsent(account.getNumber(), number -> new RunningBalance(account.getName()));
+                addSigned(runningBalance.balance, account.getAccountType(), transactionLine.getDebitAmount(), transactionLine.getCreditAmount());
             }
         }
 
-        List<AccountStatus> assets = balanceMap.keySet().stream().filter(key -> key.startsWith("1")).map(key -> balanceMap.get(key)).collect(Collectors.toList());
-        List<AccountStatus> liabilities = balanceMap.keySet().stream().filter(key -> key.startsWith("2")).map(key -> balanceMap.get(key)).collect(Collectors.toList());
-        List<AccountStatus> equity = balanceMap.keySet().stream().filter(key -> key.startsWith("3")).map(key -> balanceMap.get(key)).collect(Collectors.toList());
+        return balanceMap;
+    }
+
+    private static List<AccountStatus> accountStatusesStartingWith(Map<String, RunningBalance> balanceMap, String prefix) {
+        return balanceMap.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .map(entry -> new AccountStatus(entry.getValue().name, entry.getValue().balance.toBigDecimal()))
+                .collect(Collectors.toList());
+    }
+
+
+    public BalanceSheetReport getBalanceSheetReport(Long userId, Instant from) {
+        BalanceSheetReport report = new BalanceSheetReport();
+        List<Transaction> transactionList = transactionRepo.findAllTransactionsByUserIdAndCreatedAtAfter(userId, from);
+
+
+        Map<String, RunningBalance> balanceMap = foldLedger(transactionList);
+
+        List<AccountStatus> assets = accountStatusesStartingWith(balanceMap, "1");
+        List<AccountStatus> liabilities = accountStatusesStartingWith(balanceMap, "2");
+        List<AccountStatus> equity = accountStatusesStartingWith(balanceMap, "3");
 
         report.setAssets(assets);
         report.setLiabilities(liabilities);
@@ -178,7 +247,14 @@ public class TransactionService {
     }
 
     public BalanceSheetReport getBalanceSheetReportV2(Long userId, Instant from) {
-        List<BalanceParts> accountSummary = transactionRepo.queryAccountSummary(userId, List.of(AccountType.ASSETS, AccountType.LIABILITIES, AccountType.EQUITY));
+        return reportCache.get(userId, "balance-sheet", from, () -> computeBalanceSheetReport(userId, from));
+    }
+
+    private BalanceSheetReport computeBalanceSheetReport(Long userId, Instant from) {
+        List<AccountType> accountTypes = List.of(AccountType.ASSETS, AccountType.LIABILITIES, AccountType.EQUITY);
+        List<BalanceParts> accountSummary = from == null
+                ? transactionRepo.queryAccountSummary(userId, accountTypes)
+                : accountBalanceService.queryAccountSummaryBetweenDates(userId, accountTypes, from, null);
         BalanceSheetReport balanceSheetReport = new BalanceSheetReport();
 
         Map<AccountType,  List<AccountStatus>> balanceMap =  accountSummary.stream().collect(Collectors.groupingBy(
@@ -214,36 +290,10 @@ public class TransactionService {
         IncomeStatementReport report = new IncomeStatementReport();
         List<Transaction> transactionList = transactionRepo.findAllTransactionsByUserIdAndCreatedAtAfter(userId, from);
 
-        Map<String, AccountStatus> balanceMap = new HashMap<>();
-
-        for (Transaction transaction : transactionList) {
-            for (TransactionLine transactionLine : transaction.getLines()) {
-
-                String accountNumber = transactionLine.getAccount().getNumber();
-                AccountStatus accountStatus = balanceMap.get(accountNumber);
-
-                if (accountStatus == null) {
-                    accountStatus = new AccountStatus();
-                    accountStatus.setBalance(new BigDecimal("0.00"));
-                    accountStatus.setName(transactionLine.getAccount().getName());
-                    balanceMap.put(accountNumber, accountStatus);
-                }
-
+        Map<String, RunningBalance> balanceMap = foldLedger(transactionList);
 
-                AccountType accountType = transactionLine.getAccount().getAccountType();
-
-                if (accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES) {
-                    accountStatus.setBalance(accountStatus.getBalance().add(transactionLine.getDebitAmount()).subtract(transactionLine.getCreditAmount()));
-                }
-
-                if (accountType == AccountType.LIABILITIES || accountType == AccountType.EQUITY || accountType == AccountType.REVENUE) {
-                    accountStatus.setBalance(accountStatus.getBalance().add(transactionLine.getCreditAmount()).subtract(transactionLine.getDebitAmount()));
-                }
-            }
-        }
-
-        List<AccountStatus> revenue = balanceMap.keySet().stream().filter(key -> key.startsWith("4")).map(key -> balanceMap.get(key)).collect(Collectors.toList());
-        List<AccountStatus> expenses = balanceMap.keySet().stream().filter(key -> key.startsWith("5")).map(key -> balanceMap.get(key)).collect(Collectors.toList());
+        List<AccountStatus> revenue = accountStatusesStartingWith(balanceMap, "4");
+        List<AccountStatus> expenses = accountStatusesStartingWith(balanceMap, "5");
 
         report.setRevenue(revenue);
         report.setExpenses(expenses);
@@ -252,7 +302,14 @@ public class TransactionService {
     }
 
     public IncomeStatementReport getIncomeStatementReportV2(Long userId, Instant from){
-        List<BalanceParts> accountSummary = transactionRepo.queryAccountSummary(userId, List.of(AccountType.REVENUE, AccountType.EXPENSES));
+        return reportCache.get(userId, "income-statement", from, () -> computeIncomeStatementReport(userId, from));
+    }
+
+    private IncomeStatementReport computeIncomeStatementReport(Long userId, Instant from){
+        List<AccountType> accountTypes = List.of(AccountType.REVENUE, AccountType.EXPENSES);
+        List<BalanceParts> accountSummary = from == null
+                ? transactionRepo.queryAccountSummary(userId, accountTypes)
+                : accountBalanceService.queryAccountSummaryBetweenDates(userId, accountTypes, from, null);
         IncomeStatementReport incomeStatementReport = new IncomeStatementReport();
 
         Map<AccountType,  List<AccountStatus>> balanceMap =  accountSummary.stream().collect(Collectors.groupingBy(
@@ -276,4 +333,14 @@ public class TransactionService {
     }
 
 
+
+    // an account's name and balance while a report folds the ledger
+    private static final class RunningBalance {
+        private final String name;
+        private final MoneyAccumulator balance = new MoneyAccumulator();
+
+        private RunningBalance(String name) {
+            this.name = name;
+        }
+    }
 }
@@ -16,7 +16,6 @@ public class TransactionLineBothAmountsSetValidator implements ConstraintValidat
     @Override
     public boolean isValid(Object object, ConstraintValidatorContext constraintValidatorContext) {
 
-        BigDecimal zero = new BigDecimal("0.00");
         BigDecimal credit = null;
         BigDecimal debit = null;
 
@@ -33,7 +32,7 @@ public class TransactionLineBothAmountsSetValidator implements ConstraintValidat
         if(credit == null || debit == null)
             return false;
 
-        boolean bothCreditsAndDebitsAreSet = credit.compareTo(zero) > 0 && debit.compareTo(zero) > 0;
+        boolean bothCreditsAndDebitsAreSet = credit.signum() > 0 && debit.signum() > 0;
 //        boolean bothCreditsAndDebitsAreZero = credit.equals(zero) && debit.equals(zero);
 
 //        return !bothCreditsAndDebitsAreSet && !bothCreditsAndDebitsAreZero;
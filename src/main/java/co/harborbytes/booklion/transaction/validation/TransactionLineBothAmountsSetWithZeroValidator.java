@@ -17,7 +17,6 @@ public class TransactionLineBothAmountsSetWithZeroValidator implements Constrain
     @Override
     public boolean isValid(Object object, ConstraintValidatorContext constraintValidatorContext) {
 
-        BigDecimal zero = new BigDecimal("0.00");
         BigDecimal credit = null;
         BigDecimal debit = null;
 
@@ -35,7 +34,7 @@ public class TransactionLineBothAmountsSetWithZeroValidator implements Constrain
             return false;
 
 //        boolean bothCreditsAndDebitsAreSet = credit.compareTo(zero) > 0 && debit.compareTo(zero) > 0;
-        boolean bothCreditsAndDebitsAreZero = credit.equals(zero) && debit.equals(zero);
+        boolean bothCreditsAndDebitsAreZero = credit.signum() == 0 && debit.signum() == 0;
 
 //        return !bothCreditsAndDebitsAreSet && !bothCreditsAndDebitsAreZero;
         return !bothCreditsAndDebitsAreZero;
@@ -1,5 +1,7 @@
 package co.harborbytes.booklion.transaction.validation;
 
+import co.harborbytes.booklion.money.Money;
+import co.harborbytes.booklion.money.MoneyAccumulator;
 import co.harborbytes.booklion.transaction.Transaction;
 import co.harborbytes.booklion.transaction.TransactionDTO;
 import co.harborbytes.booklion.transaction.TransactionLineDTO;
@@ -9,7 +11,6 @@ import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,7 +26,6 @@ public class TransactionValidator implements ConstraintValidator<TransactionCons
     @Override
     public boolean isValid(List<TransactionLineDTO> linesList, ConstraintValidatorContext constraintValidatorContext) {
 
-        BigDecimal zero = new BigDecimal("0.00");
 //        TransactionDTO dto = null;
 //
 //        if (linesList instanceof TransactionDTO tsdto)
@@ -41,10 +41,17 @@ public class TransactionValidator implements ConstraintValidator<TransactionCons
         boolean hasDuplicatedAccounts = linesList.stream()
                 .map(line -> line.getAccountId()).collect(Collectors.toSet()).size() != linesList.size();
 
-        BigDecimal balance = linesList.stream()
-                .map(line -> line.getDebitAmount().subtract(line.getCreditAmount())).reduce(zero, (acc, amount) -> acc.add(amount));
+        MoneyAccumulator balance = new MoneyAccumulator();
+        try {
+            // each amount through Money, the accumulator alone would carry an amount too large for a long on as a BigDecimal
+            for (TransactionLineDTO line : linesList)
+                balance.add(Money.of(line.getDebitAmount())).add(Money.of(line.getCreditAmount()).negate());
+        } catch (ArithmeticException e) {
+            // amounts too large to be counted in cents can't be part of a valid transaction
+            return false;
+        }
 
-        boolean isTransactionUnbalanced = !balance.equals(zero);
+        boolean isTransactionUnbalanced = !balance.isZero();
 
         return !hasDuplicatedAccounts && !isTransactionUnbalanced;
     }
@@ -0,0 +1,115 @@
+package co.harborbytes.booklion.user;
+
+import co.harborbytes.booklion.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt on a pool of its own. Hashing is deliberately slow CPU work, and done on request threads a burst of logins or
+ * registrations takes every core and every thread away from the ledger. Here at most {@code threads} hashes run at
+ * once, at most {@code queueCapacity} wait for their turn, and anything beyond that is rejected on the spot with
+ * {@link PasswordHashingRejectedException}, answered as a 429.
+ * <p>
+ * A stored hash made with a cost other than the configured one reports {@link #upgradeEncoding(String)}, so the
+ * authentication provider rehashes it on the next successful login, whether the cost went up or down.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Timer matchTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.hashTimer = Timer.builder("booklion.passwords.hashing")
+                .description("Time spent computing a bcrypt hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("booklion.passwords.hashing")
+                .description("Time spent computing a bcrypt hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("booklion.passwords.queue.wait")
+                .description("Time a hash waited for a free hashing thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("booklion.passwords.rejected")
+                .description("Hashes turned away because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("booklion.passwords.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Hashes waiting for a free hashing thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(hashTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$..., the cost is the two digits after the version
+        if (encodedPassword == null || encodedPassword.length() < 7)
+            return false;
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hashing);
+            });
+        } catch (RejectedExecutionException ree) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("too many sign-ins are being processed right now, please try again shortly");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException ie) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a password hash", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException re)
+                throw re;
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,36 +1,46 @@
 package co.harborbytes.booklion.user;
 
 import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.security.PublicKey;
 import java.util.Collections;
+import java.util.List;
 
 @Service
 public class GoogleIdTokenVerificationService {
 
-    private String CLIENT_ID;
+    private static final List<String> ISSUERS = List.of("accounts.google.com", "https://accounts.google.com");
+    private static final long ACCEPTABLE_TIME_SKEW_SECONDS = 300;
+
+    private final String CLIENT_ID;
+    private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+    private final GooglePublicKeySource publicKeySource;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public GoogleIdTokenVerificationService(@Value("${google-client-id}") String CLIENT_ID) {
+    public GoogleIdTokenVerificationService(@Value("${google-client-id}") String CLIENT_ID, GooglePublicKeySource publicKeySource, MeterRegistry meterRegistry) {
         this.CLIENT_ID = CLIENT_ID;
+        this.publicKeySource = publicKeySource;
+        this.meterRegistry = meterRegistry;
     }
 
     public User verify(String token) throws DomainEntityNotFoundException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
         try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(GoogleNetHttpTransport.newTrustedTransport(), GsonFactory.getDefaultInstance())
-                    .setAudience(Collections.singletonList(CLIENT_ID))
-                    .build();
-            GoogleIdToken idToken = verifier.verify(token);
+            GoogleIdToken idToken = GoogleIdToken.parse(jsonFactory, token);
+            if (!isValid(idToken))
+                throw new DomainEntityNotFoundException(this.getClass().getSimpleName(), "google-id-token", token);
+
             Payload payload = idToken.getPayload();
             boolean emailVerified = Boolean.valueOf(payload.getEmailVerified());
 
@@ -40,10 +50,33 @@ public class GoogleIdTokenVerificationService {
             user.setFirstName((String) payload.get("name"));
             user.setLastName((String) payload.get("family_name"));
             user.setPassword(payload.getSubject());
+            outcome = "verified";
             return user;
 
+        } catch (DomainEntityNotFoundException ex) {
+            throw ex;
         } catch (Exception ex) {
+            outcome = "error";
             throw new DomainEntityNotFoundException(this.getClass().getSimpleName(), "google-id-token", token);
+        } finally {
+            sample.stop(meterRegistry.timer("booklion.google.id-token.verification", "outcome", outcome));
         }
     }
+
+    private boolean isValid(GoogleIdToken idToken) throws Exception {
+        if (!idToken.verifyIssuer(ISSUERS)
+                || !idToken.verifyAudience(Collections.singletonList(CLIENT_ID))
+                || !idToken.verifyTime(System.currentTimeMillis(), ACCEPTABLE_TIME_SKEW_SECONDS))
+            return false;
+
+        String keyId = idToken.getHeader().getKeyId();
+        PublicKey publicKey = publicKeySource.getPublicKeys().get(keyId);
+        if (publicKey == null) {
+            // Google rotates its keys, a token signed with one we haven't seen yet is the cue to reload them
+            publicKeySource.refresh();
+            publicKey = publicKeySource.getPublicKeys().get(keyId);
+        }
+
+        return publicKey != null && idToken.verifySignature(publicKey);
+    }
 }
@@ -0,0 +1,20 @@
+package co.harborbytes.booklion.user;
+
+import java.security.PublicKey;
+import java.util.Map;
+
+/**
+ * Where {@link GoogleIdTokenVerificationService} gets the keys Google signs id tokens with, indexed by key id.
+ * Implementations are expected to cache the keys and only go back to their origin on {@link #refresh()} or once
+ * their own refresh interval has elapsed.
+ */
+public interface GooglePublicKeySource {
+
+    Map<String, PublicKey> getPublicKeys();
+
+    /**
+     * Asks the source to reload its keys, e.g. because a token was signed with a key id it does not know yet.
+     * Implementations may ignore calls that come in too often.
+     */
+    void refresh();
+}
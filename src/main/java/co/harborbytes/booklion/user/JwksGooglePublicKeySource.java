@@ -0,0 +1,107 @@
+package co.harborbytes.booklion.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads Google's signing keys from a JWKS document. By default that is Google's own endpoint, but any Spring
+ * resource location works, so tests point {@code google.keys.jwks-location} at a file on the classpath instead.
+ */
+@Component
+public class JwksGooglePublicKeySource implements GooglePublicKeySource {
+
+    // unknown key ids force a reload, but not more often than this, so a flood of forged tokens can't hammer Google
+    private static final Duration MINIMUM_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper jsonMapper;
+    private final String jwksLocation;
+    private final Duration refreshInterval;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Map<String, PublicKey> publicKeys = Map.of();
+    private volatile Instant loadedAt = Instant.EPOCH;
+
+    @Autowired
+    public JwksGooglePublicKeySource(ResourceLoader resourceLoader, ObjectMapper jsonMapper,
+                                     @Value("${google.keys.jwks-location:https://www.googleapis.com/oauth2/v3/certs}") String jwksLocation,
+                                     @Value("${google.keys.refresh-interval:PT1H}") Duration refreshInterval) {
+        this.resourceLoader = resourceLoader;
+        this.jsonMapper = jsonMapper;
+        this.jwksLocation = jwksLocation;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Override
+    public Map<String, PublicKey> getPublicKeys() {
+        if (loadedAt.plus(refreshInterval).isBefore(Instant.now()))
+            reload(refreshInterval);
+        return publicKeys;
+    }
+
+    @Override
+    public void refresh() {
+        reload(MINIMUM_REFRESH_INTERVAL);
+    }
+
+    // only one thread goes to the origin, the others wait for it and then find the keys fresh; a lock rather than
+    // synchronized so a virtual thread waiting on Google doesn't pin its carrier
+    private void reload(Duration ifOlderThan) {
+        reloadLock.lock();
+        try {
+            if (!loadedAt.plus(ifOlderThan).isBefore(Instant.now()))
+                return;
+
+            Resource jwks = resourceLoader.getResource(jwksLocation);
+            try (InputStream in = jwks.getInputStream()) {
+                publicKeys = parseKeys(jsonMapper.readTree(in));
+                loadedAt = Instant.now();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load Google public keys from " + jwksLocation, e);
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static Map<String, PublicKey> parseKeys(JsonNode jwks) {
+        Map<String, PublicKey> keys = new HashMap<>();
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (JsonNode key : jwks.path("keys")) {
+                if (!"RSA".equals(key.path("kty").asText()))
+                    continue;
+
+                BigInteger modulus = new BigInteger(1, decoder.decode(key.path("n").asText()));
+                BigInteger exponent = new BigInteger(1, decoder.decode(key.path("e").asText()));
+                keys.put(key.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Google published a key that could not be read", e);
+        }
+
+        return Map.copyOf(keys);
+    }
+}
@@ -0,0 +1,112 @@
+package co.harborbytes.booklion.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers which principal a bearer token resolved to, so that a token seen before is neither parsed nor looked up
+ * in the database again. Entries live until the token expires, capped by {@code jwt.cache.maximum-ttl-minutes}, and
+ * are keyed by the token's SHA-256 digest rather than the token itself.
+ * <p>
+ * What is kept is a snapshot of the user, and every lookup hands out a detached {@link User} of its own built from it,
+ * so requests running at the same time never share, or change for each other, the principal they were given.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final Cache<String, CachedPrincipal> cache;
+
+    public JwtAuthenticationCache(@Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${jwt.cache.maximum-ttl-minutes:10}") long maximumTtlMinutes) {
+
+        Duration maximumTtl = Duration.ofMinutes(maximumTtlMinutes);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, CachedPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+                        Duration untilExpiration = Duration.between(Instant.now(), value.expiresAt());
+                        if (untilExpiration.isNegative())
+                            return 0;
+                        return untilExpiration.compareTo(maximumTtl) < 0 ? untilExpiration.toNanos() : maximumTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public User get(String token) {
+        CachedPrincipal cached = cache.getIfPresent(digest(token));
+        return cached == null ? null : cached.toUser();
+    }
+
+    public void put(String token, User principal, Instant expiresAt) {
+        cache.put(digest(token), CachedPrincipal.of(principal, expiresAt));
+    }
+
+    public void evictUser(String username) {
+        cache.asMap().values().removeIf(cached -> cached.email().equals(username));
+    }
+
+    // after the commit, a request evicted earlier could otherwise cache the user as it was again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCredentialsChanged(UserCredentialsChangedEvent event) {
+        evictUser(event.getUsername());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedPrincipal(Long id, String firstName, String lastName, String email, String password, Role role,
+                                   boolean accountNonExpired, boolean accountNonLocked, boolean credentialsNonExpired, boolean enabled,
+                                   long ledgerVersion, Instant expiresAt) {
+
+        static CachedPrincipal of(User user, Instant expiresAt) {
+            return new CachedPrincipal(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPassword(), user.getRole(),
+                    user.isAccountNonExpired(), user.isAccountNonLocked(), user.isCredentialsNonExpired(), user.isEnabled(),
+                    user.getLedgerVersion(), expiresAt);
+        }
+
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
+            user.setEmail(email);
+            user.setPassword(password);
+            user.setRole(role);
+            user.setAccountNonExpired(accountNonExpired);
+            user.setAccountNonLocked(accountNonLocked);
+            user.setCredentialsNonExpired(credentialsNonExpired);
+            user.setEnabled(enabled);
+            user.setLedgerVersion(ledgerVersion);
+            return user;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package co.harborbytes.booklion.user;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,13 +23,15 @@ public class JwtTokenFilter extends OncePerRequestFilter {
     private final JwtTokenUtil jwtTokenUtil;
     private final UserRepository userRepo;
     private UserDetailsService userDetailsService;
+    private final JwtAuthenticationCache authenticationCache;
 
     @Autowired
     public JwtTokenFilter(JwtTokenUtil jwtTokenUtil,
-                          UserRepository userRepo, UserDetailsService userDetailsService) {
+                          UserRepository userRepo, UserDetailsService userDetailsService, JwtAuthenticationCache authenticationCache) {
         this.jwtTokenUtil = jwtTokenUtil;
         this.userRepo = userRepo;
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
@@ -44,11 +47,10 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         }
 
         final String token = header.split(" ")[1].trim();
-        final String username = jwtTokenUtil.getUsernameFromToken(token);
 
-        if(username != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if(jwtTokenUtil.isTokenValid(token, userDetails)){
+        if(SecurityContextHolder.getContext().getAuthentication() == null){
+            UserDetails userDetails = resolvePrincipal(token);
+            if(userDetails != null){
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -64,4 +66,22 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(String token) {
+        UserDetails cached = authenticationCache.get(token);
+        if (cached != null)
+            return cached;
+
+        final Claims claims = jwtTokenUtil.getAllClaimsFromToken(token);
+        final String username = claims.getSubject();
+        if (username == null)
+            return null;
+
+        User user = (User) this.userDetailsService.loadUserByUsername(username);
+        if (!jwtTokenUtil.isTokenValid(claims, user))
+            return null;
+
+        authenticationCache.put(token, user, claims.getExpiration().toInstant());
+        return user;
+    }
 }
@@ -73,7 +73,11 @@ public class JwtTokenUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims getAllClaimsFromToken(String token) {
+    public Boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(Date.from(Instant.now())));
+    }
+
+    public Claims getAllClaimsFromToken(String token) {
 
         return Jwts
                 .parser()
@@ -42,6 +42,8 @@ public class SecurityConfiguration {
                     authz
                             .requestMatchers("/api/auth/**")
                             .permitAll()
+                            .requestMatchers("/api/admin/**")
+                            .hasAuthority(Role.ADMIN.name())
                             .anyRequest()
                             .authenticated()
                 )
@@ -12,6 +12,7 @@ import java.util.List;
 
 @Data
 @Entity
+@EntityListeners(UserChangeListener.class)
 @Table(name = "users")
 public class User implements UserDetails {
 
@@ -58,6 +59,10 @@ public class User implements UserDetails {
     @Column(name = "is_enabled")
     private boolean isEnabled = true;
 
+    // only ever bumped in place by LedgerVersions, never written back from a loaded user
+    @Column(name = "ledger_version", nullable = false, updatable = false)
+    private long ledgerVersion;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
@@ -0,0 +1,30 @@
+package co.harborbytes.booklion.user;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener on {@link User}. Any update of a user, the password rehashed on login by
+ * {@link LoginConfiguration#userDetailsPasswordService()} included, and any delete, counts as a credentials change:
+ * telling the password, role and flags apart from the names isn't worth a principal that outlives a change to them.
+ * The ledger version is bumped with an UPDATE of its own that doesn't go through here.
+ */
+@Component
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Autowired
+    public UserChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        publisher.publishEvent(new UserCredentialsChangedEvent(user.getUsername()));
+    }
+}
@@ -0,0 +1,15 @@
+package co.harborbytes.booklion.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a user is disabled, locked, gets a new password or role, or is deleted, so that anything holding
+ * on to an already authenticated principal (see {@link JwtAuthenticationCache}) stops trusting it. See
+ * {@link UserChangeListener} for where it comes from.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCredentialsChangedEvent {
+    private String username;
+}
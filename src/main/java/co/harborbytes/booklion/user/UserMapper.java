@@ -6,7 +6,9 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring")
 
 public interface UserMapper {
+        @Mapping(target = "ledgerVersion", ignore = true)
         User dtoToUser (UserDTO dto);
         UserDTO userToDto(User user);
+        @Mapping(target = "ledgerVersion", ignore = true)
         void updateUserFromDto(UserDTO dto, @MappingTarget User user);
 }
@@ -1,6 +1,9 @@
 package co.harborbytes.booklion.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -8,4 +11,15 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT u.ledgerVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findLedgerVersionById(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE users SET ledger_version = ledger_version + 1 WHERE id = :userId", nativeQuery = true)
+    void incrementLedgerVersion(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE users SET ledger_version = ledger_version + 1", nativeQuery = true)
+    void incrementAllLedgerVersions();
 }
@@ -0,0 +1,89 @@
+-- The schema as hibernate used to generate it with ddl-auto=create-drop.
+
+CREATE TABLE users (
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    first_name                 VARCHAR(128),
+    last_name                  VARCHAR(128),
+    password                   VARCHAR(255),
+    email                      VARCHAR(255),
+    role                       SMALLINT CHECK (role BETWEEN 0 AND 1),
+    is_account_non_expired     BOOLEAN      NOT NULL,
+    is_account_non_locked      BOOLEAN      NOT NULL,
+    is_credentials_non_expired BOOLEAN      NOT NULL,
+    is_enabled                 BOOLEAN      NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE account (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    number VARCHAR(3)   NOT NULL,
+    name   VARCHAR(128) NOT NULL,
+    type   SMALLINT     NOT NULL CHECK (type BETWEEN 0 AND 4),
+    CONSTRAINT account_pkey PRIMARY KEY (id),
+    CONSTRAINT account_number_unique UNIQUE (number),
+    CONSTRAINT account_name_unique UNIQUE (name)
+);
+
+CREATE SEQUENCE transaction_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE transaction (
+    id          BIGINT                      NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    description VARCHAR(128)                NOT NULL,
+    user_id     BIGINT                      NOT NULL,
+    CONSTRAINT transaction_pkey PRIMARY KEY (id),
+    CONSTRAINT transaction_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE SEQUENCE transaction_line_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE transaction_line (
+    id             BIGINT         NOT NULL,
+    debit_amount   NUMERIC(38, 2) NOT NULL,
+    credit_amount  NUMERIC(38, 2) NOT NULL,
+    transaction_id BIGINT         NOT NULL,
+    account_id     BIGINT         NOT NULL,
+    CONSTRAINT transaction_line_pkey PRIMARY KEY (id),
+    CONSTRAINT transaction_line_transaction_id_fk FOREIGN KEY (transaction_id) REFERENCES transaction (id),
+    CONSTRAINT transaction_line_account_id_fk FOREIGN KEY (account_id) REFERENCES account (id)
+);
+
+CREATE TABLE budget (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    amount      NUMERIC(38, 2) NOT NULL,
+    description VARCHAR(128)   NOT NULL,
+    account_id  BIGINT         NOT NULL,
+    user_id     BIGINT         NOT NULL,
+    CONSTRAINT budget_pkey PRIMARY KEY (id),
+    CONSTRAINT budget_account_id_unique UNIQUE (account_id),
+    CONSTRAINT budget_account_id_fk FOREIGN KEY (account_id) REFERENCES account (id),
+    CONSTRAINT budget_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE account_balance (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id    BIGINT         NOT NULL,
+    account_id BIGINT         NOT NULL,
+    debits     NUMERIC(38, 2) NOT NULL,
+    credits    NUMERIC(38, 2) NOT NULL,
+    line_count BIGINT         NOT NULL,
+    last_tx_at TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT account_balance_pkey PRIMARY KEY (id),
+    CONSTRAINT account_balance_user_id_account_id_unique UNIQUE (user_id, account_id),
+    CONSTRAINT account_balance_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT account_balance_account_id_fk FOREIGN KEY (account_id) REFERENCES account (id)
+);
+
+CREATE TABLE account_monthly_balance (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id      BIGINT         NOT NULL,
+    account_id   BIGINT         NOT NULL,
+    period_start DATE           NOT NULL,
+    debits       NUMERIC(38, 2) NOT NULL,
+    credits      NUMERIC(38, 2) NOT NULL,
+    line_count   BIGINT         NOT NULL,
+    CONSTRAINT account_monthly_balance_pkey PRIMARY KEY (id),
+    CONSTRAINT account_monthly_balance_user_id_account_id_period_start_unique UNIQUE (user_id, account_id, period_start),
+    CONSTRAINT account_monthly_balance_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT account_monthly_balance_account_id_fk FOREIGN KEY (account_id) REFERENCES account (id)
+);
@@ -0,0 +1,8 @@
+-- Every ledger, report and budget query filters transactions by owner and date, and reaches lines through their
+-- transaction or their account.
+
+CREATE INDEX transaction_user_id_created_at_id_idx ON transaction (user_id, created_at, id);
+
+CREATE INDEX transaction_line_account_id_transaction_id_idx ON transaction_line (account_id, transaction_id);
+
+CREATE INDEX transaction_line_transaction_id_idx ON transaction_line (transaction_id);
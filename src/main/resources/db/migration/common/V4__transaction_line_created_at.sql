@@ -0,0 +1,8 @@
+-- Lines carry their transaction's created_at, so that both tables can be partitioned, and pruned, on the same key.
+
+ALTER TABLE transaction_line ADD COLUMN created_at TIMESTAMP(6) WITH TIME ZONE;
+
+UPDATE transaction_line
+SET created_at = (SELECT t.created_at FROM transaction t WHERE t.id = transaction_line.transaction_id);
+
+ALTER TABLE transaction_line ALTER COLUMN created_at SET NOT NULL;
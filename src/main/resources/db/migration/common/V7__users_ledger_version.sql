@@ -0,0 +1,4 @@
+-- A per-user counter bumped by every write to the user's ledger, committed together with the write. The report
+-- endpoints build their ETags from it (see LedgerVersions), so a report is known to be unchanged without computing it.
+
+ALTER TABLE users ADD COLUMN ledger_version BIGINT NOT NULL DEFAULT 0;
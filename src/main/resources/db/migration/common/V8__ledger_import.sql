@@ -0,0 +1,37 @@
+-- Checkpoints of the account and transaction file imports (see LedgerImportService). A run is one file imported for
+-- one user; byte_offset and line_number point just past the last block committed, and are moved in the same database
+-- transaction as the block's writes, so an interrupted import picks up exactly where it stopped.
+
+CREATE TABLE import_run (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id              BIGINT                      NOT NULL,
+    kind                 SMALLINT                    NOT NULL CHECK (kind BETWEEN 0 AND 1),
+    source               VARCHAR(1024)               NOT NULL,
+    fingerprint          VARCHAR(64)                 NOT NULL,
+    fingerprint_length   INTEGER                     NOT NULL,
+    status               SMALLINT                    NOT NULL CHECK (status BETWEEN 0 AND 3),
+    byte_offset          BIGINT                      NOT NULL,
+    line_number          BIGINT                      NOT NULL,
+    transactions_created BIGINT                      NOT NULL,
+    rows_rejected        BIGINT                      NOT NULL,
+    failure              VARCHAR(1024),
+    queued_at            TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    started_at           TIMESTAMP(6) WITH TIME ZONE,
+    updated_at           TIMESTAMP(6) WITH TIME ZONE,
+    finished_at          TIMESTAMP(6) WITH TIME ZONE,
+    version              BIGINT                      NOT NULL,
+    CONSTRAINT import_run_pkey PRIMARY KEY (id),
+    CONSTRAINT import_run_user_id_kind_source_unique UNIQUE (user_id, kind, source),
+    CONSTRAINT import_run_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE import_rejected_row (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    import_run_id BIGINT        NOT NULL,
+    line_number   BIGINT        NOT NULL,
+    message       VARCHAR(1024) NOT NULL,
+    CONSTRAINT import_rejected_row_pkey PRIMARY KEY (id),
+    CONSTRAINT import_rejected_row_import_run_id_fk FOREIGN KEY (import_run_id) REFERENCES import_run (id)
+);
+
+CREATE INDEX import_rejected_row_import_run_id_id_idx ON import_rejected_row (import_run_id, id);
@@ -0,0 +1,6 @@
+-- Lets the general ledger and the budget/overview aggregates read amounts straight from the index, without visiting
+-- the transaction_line heap. INCLUDE is PostgreSQL only, which is why this lives apart from the common migrations.
+
+DROP INDEX transaction_line_account_id_transaction_id_idx;
+
+CREATE INDEX transaction_line_account_id_transaction_id_idx ON transaction_line (account_id, transaction_id) INCLUDE (debit_amount, credit_amount);
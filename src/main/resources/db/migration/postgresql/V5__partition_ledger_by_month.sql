@@ -0,0 +1,112 @@
+-- Range-partitions transaction and transaction_line by UTC month of created_at.
+--
+-- Monthly partitions are named <table>_yYYYYmMM. Rows that fall outside every monthly partition, e.g. a transaction
+-- backdated past the retention window, land in <table>_default. New months are created ahead of time by
+-- LedgerPartitionMaintenance through booklion_create_ledger_partitions, and months that leave the retention window
+-- are detached, not dropped, by booklion_detach_ledger_partitions_before; detached partitions stay around as plain
+-- tables to be archived.
+
+CREATE FUNCTION booklion_create_ledger_partitions(p_month DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_month  DATE        := date_trunc('month', p_month::TIMESTAMP)::DATE;
+    v_from   TIMESTAMPTZ := v_month::TIMESTAMP AT TIME ZONE 'UTC';
+    v_to     TIMESTAMPTZ := (v_month + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+    v_suffix TEXT        := to_char(v_month, '"y"YYYY"m"MM');
+BEGIN
+    IF to_regclass('transaction_' || v_suffix) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF transaction FOR VALUES FROM (%L) TO (%L)',
+                   'transaction_' || v_suffix, v_from, v_to);
+    EXECUTE format('CREATE TABLE %I PARTITION OF transaction_line FOR VALUES FROM (%L) TO (%L)',
+                   'transaction_line_' || v_suffix, v_from, v_to);
+    RETURN TRUE;
+END;
+$$;
+
+CREATE FUNCTION booklion_detach_ledger_partitions_before(p_cutoff DATE) RETURNS SETOF TEXT
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_suffix TEXT;
+BEGIN
+    FOR v_suffix IN
+        SELECT right(c.relname, 8)
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+                 JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = 'transaction'
+          AND c.relname ~ '^transaction_y[0-9]{4}m[0-9]{2}$'
+        ORDER BY c.relname
+        LOOP
+            CONTINUE WHEN to_date(v_suffix, '"y"YYYY"m"MM') >= p_cutoff;
+
+            -- lines go first, and lose their foreign key, otherwise the transactions they point at can't leave
+            EXECUTE format('ALTER TABLE transaction_line DETACH PARTITION %I', 'transaction_line_' || v_suffix);
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS transaction_line_transaction_id_fk', 'transaction_line_' || v_suffix);
+            EXECUTE format('ALTER TABLE transaction DETACH PARTITION %I', 'transaction_' || v_suffix);
+            RETURN NEXT v_suffix;
+        END LOOP;
+END;
+$$;
+
+ALTER TABLE transaction_line RENAME TO transaction_line_unpartitioned;
+ALTER TABLE transaction RENAME TO transaction_unpartitioned;
+
+-- constraint and index names are freed up front so the partitioned tables can take them over
+ALTER TABLE transaction_line_unpartitioned DROP CONSTRAINT transaction_line_transaction_id_fk;
+ALTER TABLE transaction_line_unpartitioned DROP CONSTRAINT transaction_line_account_id_fk;
+ALTER TABLE transaction_line_unpartitioned DROP CONSTRAINT transaction_line_pkey;
+ALTER TABLE transaction_unpartitioned DROP CONSTRAINT transaction_user_id_fk;
+ALTER TABLE transaction_unpartitioned DROP CONSTRAINT transaction_pkey;
+DROP INDEX transaction_user_id_created_at_id_idx;
+DROP INDEX transaction_line_account_id_transaction_id_idx;
+DROP INDEX transaction_line_transaction_id_idx;
+
+CREATE TABLE transaction (
+    id          BIGINT                      NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    description VARCHAR(128)                NOT NULL,
+    user_id     BIGINT                      NOT NULL,
+    CONSTRAINT transaction_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT transaction_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE transaction_line (
+    id             BIGINT                      NOT NULL,
+    debit_amount   NUMERIC(38, 2)              NOT NULL,
+    credit_amount  NUMERIC(38, 2)              NOT NULL,
+    transaction_id BIGINT                      NOT NULL,
+    account_id     BIGINT                      NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT transaction_line_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT transaction_line_transaction_id_fk FOREIGN KEY (transaction_id, created_at) REFERENCES transaction (id, created_at),
+    CONSTRAINT transaction_line_account_id_fk FOREIGN KEY (account_id) REFERENCES account (id)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX transaction_user_id_created_at_id_idx ON transaction (user_id, created_at, id);
+CREATE INDEX transaction_line_account_id_transaction_id_idx ON transaction_line (account_id, transaction_id) INCLUDE (debit_amount, credit_amount);
+CREATE INDEX transaction_line_transaction_id_idx ON transaction_line (transaction_id);
+
+CREATE TABLE transaction_default PARTITION OF transaction DEFAULT;
+CREATE TABLE transaction_line_default PARTITION OF transaction_line DEFAULT;
+
+SELECT booklion_create_ledger_partitions(month::DATE)
+FROM generate_series(
+             date_trunc('month', COALESCE((SELECT MIN(created_at) FROM transaction_unpartitioned), now()) AT TIME ZONE 'UTC'),
+             date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months',
+             INTERVAL '1 month') AS month;
+
+INSERT INTO transaction (id, created_at, description, user_id)
+SELECT id, created_at, description, user_id
+FROM transaction_unpartitioned;
+
+INSERT INTO transaction_line (id, debit_amount, credit_amount, transaction_id, account_id, created_at)
+SELECT id, debit_amount, credit_amount, transaction_id, account_id, created_at
+FROM transaction_line_unpartitioned;
+
+DROP TABLE transaction_line_unpartitioned;
+DROP TABLE transaction_unpartitioned;
@@ -0,0 +1,25 @@
+-- A counter bumped by every statement that writes to account, committed together with the write. Nodes that cache
+-- the chart of accounts poll it (see ChartOfAccountsRevisionWatcher) to learn about changes made elsewhere, including
+-- changes made outside the application.
+
+CREATE TABLE chart_of_accounts_revision
+(
+    id       SMALLINT PRIMARY KEY CHECK (id = 1),
+    revision BIGINT NOT NULL
+);
+
+INSERT INTO chart_of_accounts_revision (id, revision) VALUES (1, 0);
+
+CREATE FUNCTION booklion_bump_chart_of_accounts_revision() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE chart_of_accounts_revision SET revision = revision + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER account_chart_of_accounts_revision
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON account
+    FOR EACH STATEMENT
+EXECUTE FUNCTION booklion_bump_chart_of_accounts_revision();
@@ -2,6 +2,12 @@ package co.harborbytes.booklion.account;
 
 import co.harborbytes.booklion.Application;
 import co.harborbytes.booklion.ReplaceCamelCase;
+import co.harborbytes.booklion.budget.BudgetRepository;
+import co.harborbytes.booklion.transaction.AccountBalanceRepository;
+import co.harborbytes.booklion.transaction.AccountMonthlyBalanceRepository;
+import co.harborbytes.booklion.transaction.Transaction;
+import co.harborbytes.booklion.transaction.TransactionLine;
+import co.harborbytes.booklion.transaction.TransactionRepository;
 import co.harborbytes.booklion.user.Role;
 import co.harborbytes.booklion.user.User;
 import co.harborbytes.booklion.user.UserRepository;
@@ -28,9 +34,12 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.*;
@@ -60,12 +69,27 @@ class AccountControllerIntegrationTest {
     private final ObjectMapper jsonMapper;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TransactionRepository transactionRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final AccountMonthlyBalanceRepository accountMonthlyBalanceRepository;
+    private final BudgetRepository budgetRepository;
+    private final AccountService accountService;
+    private final ChartOfAccounts chartOfAccounts;
 
 
 
     @Autowired
-    public AccountControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, UserRepository userRepository, ObjectMapper jsonMapper, PasswordEncoder passwordEncoder) {
+    public AccountControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, UserRepository userRepository, ObjectMapper jsonMapper, PasswordEncoder passwordEncoder,
+                                            TransactionRepository transactionRepository, AccountBalanceRepository accountBalanceRepository,
+                                            AccountMonthlyBalanceRepository accountMonthlyBalanceRepository, BudgetRepository budgetRepository, AccountService accountService,
+                                            ChartOfAccounts chartOfAccounts) {
         this.mvc = mvc;
+        this.chartOfAccounts = chartOfAccounts;
+        this.transactionRepository = transactionRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.accountMonthlyBalanceRepository = accountMonthlyBalanceRepository;
+        this.budgetRepository = budgetRepository;
+        this.accountService = accountService;
         this.accountRepository = accountRepository;
         this.jsonMapper = jsonMapper;
         this.userRepository = userRepository;
@@ -76,6 +100,13 @@ class AccountControllerIntegrationTest {
 
     @BeforeAll
     private void setUpUser(){
+        accountBalanceRepository.deleteAll();
+        accountMonthlyBalanceRepository.deleteAll();
+        transactionRepository.deleteAll();
+        budgetRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
         User user = new User();
         user.setRole(Role.USER);
         user.setEmail("user@example.com");
@@ -237,7 +268,7 @@ class AccountControllerIntegrationTest {
                 payload.put("number", accountNumber);
                 payload.put("name", accountName);
 
-                MockHttpServletRequestBuilder requestBuilder = post("/accounts").contentType(MediaType.APPLICATION_JSON);
+                MockHttpServletRequestBuilder requestBuilder = post("/api/accounts").contentType(MediaType.APPLICATION_JSON);
                 String accountJsonString = jsonMapper.writeValueAsString(payload);
                 requestBuilder.content(accountJsonString);
 
@@ -350,7 +381,7 @@ class AccountControllerIntegrationTest {
                 createTestAccount("102", "checking account");
 
                 Integer createdAccountsCount = 2;
-                MockHttpServletRequestBuilder requestBuilder = get("/accounts").contentType(MediaType.APPLICATION_JSON);
+                MockHttpServletRequestBuilder requestBuilder = get("/api/accounts").contentType(MediaType.APPLICATION_JSON);
                 mvc.perform(requestBuilder)
                         .andDo(print())
                         .andExpect(status().isOk())
@@ -368,7 +399,7 @@ class AccountControllerIntegrationTest {
 
                 Long createdAccountId = createTestAccount("101", "savings account");
 
-                MockHttpServletRequestBuilder requestBuilder = get("/accounts/{id}", createdAccountId).contentType(MediaType.APPLICATION_JSON);
+                MockHttpServletRequestBuilder requestBuilder = get("/api/accounts/{id}", createdAccountId).contentType(MediaType.APPLICATION_JSON);
                 mvc.perform(requestBuilder)
                         .andDo(print())
                         .andExpect(status().isOk())
@@ -391,7 +422,7 @@ class AccountControllerIntegrationTest {
                 queryParams.add("size", "1");
                 queryParams.add("sort", "name,asc");
 
-                MockHttpServletRequestBuilder requestBuilder = get("/accounts")
+                MockHttpServletRequestBuilder requestBuilder = get("/api/accounts")
                         .contentType(MediaType.APPLICATION_JSON)
                         .queryParams(queryParams);
 
@@ -408,6 +439,67 @@ class AccountControllerIntegrationTest {
                         .andExpect(jsonPath("$.page.last", is(false)))
                         .andExpect(jsonPath("$.page.order", is("name: ASC")));
             }
+
+            @Test
+            public void whenSearchingAccountsByName() throws Exception {
+
+                createTestAccount("101", "petty cash");
+                createTestAccount("102", "cash register");
+                createTestAccount("103", "cashier's checks");
+                createTestAccount("501", "bank fees");
+
+                MockHttpServletRequestBuilder requestBuilder = get("/api/accounts/searchBy")
+                        .param("name", "CASH")
+                        .param("accountType", "all")
+                        .param("limit", "2");
+
+                mvc.perform(requestBuilder)
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.status", is("success")))
+                        .andExpect(jsonPath("$.data.length()", is(2)))
+                        .andExpect(jsonPath("$.data[0].number", is("102")))
+                        .andExpect(jsonPath("$.data[1].number", is("103")));
+            }
+
+            @Test
+            public void whenSearchResultsAreRankedByHowTheyMatch() throws Exception {
+
+                createTestAccount("101", "petty cash");
+                createTestAccount("102", "cash register");
+                createTestAccount("103", "cashier's checks");
+                createTestAccount("104", "mycash wallet");
+                createTestAccount("501", "bank fees");
+                createTestAccount("502", "fees on account 101");
+
+                // name prefixes by number, then the start of a later word, then anywhere in the name
+                mvc.perform(get("/api/accounts/searchBy").param("name", "cash").param("accountType", "all"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.length()", is(4)))
+                        .andExpect(jsonPath("$.data[0].number", is("102")))
+                        .andExpect(jsonPath("$.data[1].number", is("103")))
+                        .andExpect(jsonPath("$.data[2].number", is("101")))
+                        .andExpect(jsonPath("$.data[3].number", is("104")));
+
+                // the account numbered 101 ahead of the one with 101 in its name
+                mvc.perform(get("/api/accounts/searchBy").param("name", "101").param("accountType", "all"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.length()", is(2)))
+                        .andExpect(jsonPath("$.data[0].number", is("101")))
+                        .andExpect(jsonPath("$.data[1].number", is("502")));
+
+                // the words of a name in another order are not a match
+                mvc.perform(get("/api/accounts/searchBy").param("name", "register cash").param("accountType", "all"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.length()", is(0)));
+
+                mvc.perform(get("/api/accounts/searchBy").param("name", "cash reg").param("accountType", "ASSETS"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.length()", is(1)))
+                        .andExpect(jsonPath("$.data[0].number", is("102")));
+            }
         }
     }
 
@@ -551,7 +643,7 @@ class AccountControllerIntegrationTest {
                 String jsonString = jsonMapper.writeValueAsString(payload);
                 Long nonExistentAccountId = 100L;
 
-                MockHttpServletRequestBuilder requestBuilder = put("/accounts/{id}", nonExistentAccountId)
+                MockHttpServletRequestBuilder requestBuilder = put("/api/accounts/{id}", nonExistentAccountId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonString);
 
@@ -580,7 +672,7 @@ class AccountControllerIntegrationTest {
                 payload.put("name", "savings account");
                 String jsonString = jsonMapper.writeValueAsString(payload);
 
-                MockHttpServletRequestBuilder requestBuilder = put("/accounts/{id}", id)
+                MockHttpServletRequestBuilder requestBuilder = put("/api/accounts/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonString);
 
@@ -639,7 +731,7 @@ class AccountControllerIntegrationTest {
                 payload.put("name", true);
                 String jsonString = jsonMapper.writeValueAsString(payload);
 
-                MockHttpServletRequestBuilder requestBuilder = patch("/accounts/{id}", id)
+                MockHttpServletRequestBuilder requestBuilder = patch("/api/accounts/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonString);
 
@@ -696,7 +788,7 @@ class AccountControllerIntegrationTest {
                 payload.put("name", "savings account");
                 String jsonString = jsonMapper.writeValueAsString(payload);
 
-                MockHttpServletRequestBuilder requestBuilder = patch("/accounts/{id}", id)
+                MockHttpServletRequestBuilder requestBuilder = patch("/api/accounts/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonString);
 
@@ -708,11 +800,218 @@ class AccountControllerIntegrationTest {
                         .andExpect(jsonPath("$.data.id", is(notNullValue())))
                         .andExpect(jsonPath("$.data.number", is("101")))
                         .andExpect(jsonPath("$.data.name", is("savings account")));
+
+                assertThat(accountRepository.findById(id)).get().extracting(Account::getName).isEqualTo("savings account");
+            }
+
+            @Test
+            public void whenAccountIsReadAgainAfterItsNameIsUpdated() throws Exception {
+
+                Long id = createTestAccount("101", "checking account");
+                mvc.perform(get("/api/accounts").param("accountNumber", "101"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.name", is("checking account")));
+
+                String jsonString = jsonMapper.writeValueAsString(Map.of("name", "savings account"));
+                mvc.perform(patch("/api/accounts/{id}", id).contentType(MediaType.APPLICATION_JSON).content(jsonString))
+                        .andExpect(status().isOk());
+
+                mvc.perform(get("/api/accounts").param("accountNumber", "101"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.name", is("savings account")));
+            }
+
+            @Test
+            public void whenSeveralAccountsAreUpdatedWithAMergePatch() throws Exception {
+
+                Long firstId = createTestAccount("101", "checking account");
+                Long secondId = createTestAccount("102", "savings account");
+
+                List<Map<String, Object>> payload = List.of(
+                        Map.of("id", firstId, "name", "everyday account"),
+                        Map.of("id", secondId, "name", "rainy day account")
+                );
+                String jsonString = jsonMapper.writeValueAsString(payload);
+
+                MockHttpServletRequestBuilder requestBuilder = patch("/api/accounts")
+                        .contentType("application/merge-patch+json")
+                        .content(jsonString);
+
+                mvc.perform(requestBuilder)
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.status", is("success")))
+                        .andExpect(jsonPath("$.data.length()", is(2)))
+                        .andExpect(jsonPath("$.data[0].id", is(firstId.intValue())))
+                        .andExpect(jsonPath("$.data[0].number", is("101")))
+                        .andExpect(jsonPath("$.data[0].name", is("everyday account")))
+                        .andExpect(jsonPath("$.data[1].id", is(secondId.intValue())))
+                        .andExpect(jsonPath("$.data[1].number", is("102")))
+                        .andExpect(jsonPath("$.data[1].name", is("rainy day account")));
+
+                assertThat(accountRepository.findById(firstId)).get().extracting(Account::getName).isEqualTo("everyday account");
+                assertThat(accountRepository.findById(secondId)).get().extracting(Account::getName).isEqualTo("rainy day account");
             }
         }
 
     }
 
+    @Nested
+    class OverviewsMatchTheInMemoryFold {
+
+        private static final int GENERATED_TRANSACTIONS = 300;
+
+        private User user;
+        private Instant from;
+
+        @BeforeEach
+        public void generateLedger() {
+            user = userRepository.findByEmail("user@example.com").orElseThrow();
+
+            List<Account> accounts = new ArrayList<>();
+            for (String number : List.of("101", "102", "103", "201", "202", "301", "401", "402", "501", "502", "503")) {
+                Account account = new Account();
+                account.setNumber(number);
+                account.setName("account " + number);
+                accounts.add(account);
+            }
+            accountRepository.saveAllAndFlush(accounts);
+
+            Random random = new Random(7);
+            Instant now = Instant.now();
+            for (int i = 0; i < GENERATED_TRANSACTIONS; i++) {
+                List<Account> shuffled = new ArrayList<>(accounts);
+                Collections.shuffle(shuffled, random);
+
+                Transaction transaction = new Transaction();
+                transaction.setUser(user);
+                transaction.setDescription("generated transaction " + i);
+                transaction.setCreatedAt(now.minusSeconds(random.nextInt(365 * 24 * 60 * 60)));
+
+                List<TransactionLine> lines = new ArrayList<>();
+                BigDecimal total = new BigDecimal("0.00");
+                int debitedAccounts = 1 + random.nextInt(3);
+                for (int j = 0; j < debitedAccounts; j++) {
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+                    lines.add(generatedLine(transaction, shuffled.get(j), amount, new BigDecimal("0.00")));
+                    total = total.add(amount);
+                }
+                lines.add(generatedLine(transaction, shuffled.get(debitedAccounts), new BigDecimal("0.00"), total));
+
+                transaction.setLines(lines);
+                transactionRepository.save(transaction);
+            }
+
+            from = now.minus(180, ChronoUnit.DAYS);
+        }
+
+        @AfterEach
+        public void removeLedger() {
+            accountBalanceRepository.deleteAll();
+            accountMonthlyBalanceRepository.deleteAll();
+            transactionRepository.deleteAll();
+            accountRepository.deleteAll();
+        }
+
+        @Test
+        public void whenOverviewIsPerAccount() {
+            List<Transaction> ledger = transactionRepository.findAllTransactionsByUserIdAndCreatedAtAfter(user.getId(), from);
+
+            Map<String, IndividualAccountOverview> expected = foldPerAccount(ledger);
+            Map<String, IndividualAccountOverview> actual = accountService.getAccountOverviewPerAccount(user.getId(), from)
+                    .stream().collect(Collectors.toMap(IndividualAccountOverview::getNumber, Function.identity()));
+
+            assertThat(actual.keySet()).isEqualTo(expected.keySet());
+            expected.forEach((number, overview) -> {
+                IndividualAccountOverview aggregated = actual.get(number);
+                assertThat(aggregated.getName()).isEqualTo(overview.getName());
+                assertThat(aggregated.getType()).isEqualTo(overview.getType());
+                assertThat(aggregated.getTransactionCount()).isEqualTo(overview.getTransactionCount());
+                assertThat(aggregated.getDateLastTransaction()).isEqualTo(overview.getDateLastTransaction());
+                assertThat(aggregated.getBalance()).isEqualByComparingTo(overview.getBalance());
+            });
+        }
+
+        @Test
+        public void whenOverviewIsGroupedByAccountType() {
+            List<Transaction> ledger = transactionRepository.findAllTransactionsByUserIdAndCreatedAtAfter(user.getId(), from);
+
+            Map<String, AccountOverviewByType> expected = foldByAccountType(ledger);
+            Map<String, AccountOverviewByType> actual = accountService.getAccountOverviewGroupedByAccountType(user.getId(), from)
+                    .stream().collect(Collectors.toMap(AccountOverviewByType::getType, Function.identity()));
+
+            assertThat(actual.keySet()).isEqualTo(expected.keySet());
+            expected.forEach((type, overview) -> {
+                AccountOverviewByType aggregated = actual.get(type);
+                assertThat(aggregated.getTransactionCount()).isEqualTo(overview.getTransactionCount());
+                assertThat(aggregated.getDateLastTransaction()).isEqualTo(overview.getDateLastTransaction());
+                assertThat(aggregated.getBalance()).isEqualByComparingTo(overview.getBalance());
+            });
+        }
+
+        private TransactionLine generatedLine(Transaction transaction, Account account, BigDecimal debit, BigDecimal credit) {
+            TransactionLine line = new TransactionLine();
+            line.setTransaction(transaction);
+            line.setAccount(account);
+            line.setDebitAmount(debit);
+            line.setCreditAmount(credit);
+            return line;
+        }
+
+        // the overviews as AccountService used to compute them, folding every line of the ledger in memory
+        private Map<String, IndividualAccountOverview> foldPerAccount(List<Transaction> ledger) {
+            Map<String, IndividualAccountOverview> overviewMap = new HashMap<>();
+
+            for (Transaction transaction : ledger) {
+                for (TransactionLine transactionLine : transaction.getLines()) {
+                    Account account = chartOfAccounts.resolve(transactionLine.getAccount());
+                    IndividualAccountOverview overview = overviewMap.computeIfAbsent(account.getNumber(), number -> new IndividualAccountOverview());
+
+                    if (overview.getDateLastTransaction() == null || transaction.getCreatedAt().isAfter(overview.getDateLastTransaction()))
+                        overview.setDateLastTransaction(transaction.getCreatedAt());
+
+                    overview.setTransactionCount(overview.getTransactionCount() + 1);
+                    overview.setType(account.getAccountType().toString());
+                    overview.setBalance(overview.getBalance().add(signedAmount(transactionLine)));
+                    overview.setName(account.getName());
+                    overview.setNumber(account.getNumber());
+                }
+            }
+
+            return overviewMap;
+        }
+
+        private Map<String, AccountOverviewByType> foldByAccountType(List<Transaction> ledger) {
+            Map<String, AccountOverviewByType> overviewMap = new HashMap<>();
+
+            for (Transaction transaction : ledger) {
+                for (TransactionLine transactionLine : transaction.getLines()) {
+                    AccountType accountType = chartOfAccounts.resolve(transactionLine.getAccount()).getAccountType();
+                    AccountOverviewByType overview = overviewMap.computeIfAbsent(accountType.toString(), type -> new AccountOverviewByType());
+
+                    if (overview.getDateLastTransaction() == null || transaction.getCreatedAt().isAfter(overview.getDateLastTransaction()))
+                        overview.setDateLastTransaction(transaction.getCreatedAt());
+
+                    overview.setTransactionCount(overview.getTransactionCount() + 1);
+                    overview.setType(accountType.toString());
+                    overview.setBalance(overview.getBalance().add(signedAmount(transactionLine)));
+                }
+            }
+
+            return overviewMap;
+        }
+
+        private BigDecimal signedAmount(TransactionLine line) {
+            AccountType accountType = chartOfAccounts.resolve(line.getAccount()).getAccountType();
+            if (accountType == AccountType.ASSETS || accountType == AccountType.EXPENSES)
+                return line.getDebitAmount().subtract(line.getCreditAmount());
+
+            return line.getCreditAmount().subtract(line.getDebitAmount());
+        }
+    }
+
     @Transactional
     public Long createTestAccount(String number, String name) {
         Account account = new Account();
@@ -726,7 +1025,7 @@ class AccountControllerIntegrationTest {
 
     public void failedPostRequest(Object content, Integer expectedErrorCount, ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = post("/accounts").contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = post("/api/accounts").contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
@@ -735,7 +1034,7 @@ class AccountControllerIntegrationTest {
         if (queryParams == null)
             queryParams = new LinkedMultiValueMap<>();
 
-        StringBuilder uriTemplate = new StringBuilder("/accounts");
+        StringBuilder uriTemplate = new StringBuilder("/api/accounts");
         if (id != null)
             uriTemplate.append(String.format("/%s", id));
 
@@ -745,13 +1044,13 @@ class AccountControllerIntegrationTest {
 
     public void failedPutRequest(Object content, Integer expectedErrorCount, String id, ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = put("/accounts/{id}", id).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = put("/api/accounts/{id}", id).contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
     public void failedPatchRequest(Object content, final Integer expectedErrorCount, String id, final ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = patch("/accounts/{id}", id).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = patch("/api/accounts/{id}", id).contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
@@ -4,6 +4,9 @@ import co.harborbytes.booklion.Application;
 import co.harborbytes.booklion.ReplaceCamelCase;
 import co.harborbytes.booklion.account.Account;
 import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.transaction.AccountBalanceRepository;
+import co.harborbytes.booklion.transaction.AccountMonthlyBalanceRepository;
+import co.harborbytes.booklion.transaction.TransactionRepository;
 import co.harborbytes.booklion.user.Role;
 import co.harborbytes.booklion.user.User;
 import co.harborbytes.booklion.user.UserRepository;
@@ -27,7 +30,9 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,16 +58,21 @@ public class BudgetControllerIntegrationTest {
     private final MockMvc mvc;
     private final AccountRepository accountRepository;
     private final BudgetRepository budgetRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final AccountMonthlyBalanceRepository accountMonthlyBalanceRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper jsonMapper;
 
     private Account testAccount;
     private Account testAccount2;
+    private Account capitalAccount;
     private User testUser;
 
     @BeforeAll
     public void createTestAccount() {
+        deleteLedger();
         accountRepository.deleteAll();
         budgetRepository.deleteAll();
         userRepository.deleteAll();
@@ -77,6 +87,11 @@ public class BudgetControllerIntegrationTest {
         testAccount2.setName("checking account");
         accountRepository.saveAndFlush(testAccount2);
 
+        capitalAccount = new Account();
+        capitalAccount.setNumber("301");
+        capitalAccount.setName("capital account");
+        accountRepository.saveAndFlush(capitalAccount);
+
         testUser = new User();
         testUser.setRole(Role.USER);
         testUser.setEmail("user@example.com");
@@ -87,7 +102,8 @@ public class BudgetControllerIntegrationTest {
     }
 
     @Autowired
-    public BudgetControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, ObjectMapper jsonMapper, BudgetRepository budgetRepository, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public BudgetControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, ObjectMapper jsonMapper, BudgetRepository budgetRepository, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                           TransactionRepository transactionRepository, AccountBalanceRepository accountBalanceRepository, AccountMonthlyBalanceRepository accountMonthlyBalanceRepository) {
 
         System.out.println("----constructor called -----");
         this.mvc = mvc;
@@ -95,6 +111,9 @@ public class BudgetControllerIntegrationTest {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.budgetRepository = budgetRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.accountMonthlyBalanceRepository = accountMonthlyBalanceRepository;
         this.passwordEncoder = passwordEncoder;
         this.jsonMapper = jsonMapper;
         this.jsonMapper.setSerializationInclusion(JsonInclude.Include.ALWAYS);
@@ -103,9 +122,18 @@ public class BudgetControllerIntegrationTest {
 
     @BeforeEach
     public void clearDatabase() {
+        deleteLedger();
         this.budgetRepository.deleteAll();
     }
 
+    // the test classes after this one count on an empty ledger, rows are deleted before the ones they point at
+    @AfterAll
+    public void deleteLedger() {
+        accountBalanceRepository.deleteAll();
+        accountMonthlyBalanceRepository.deleteAll();
+        transactionRepository.deleteAll();
+    }
+
     @Test
     void contextLoads() {
         assertThat(accountRepository).isNotNull();
@@ -144,8 +172,8 @@ public class BudgetControllerIntegrationTest {
             @ParameterizedTest(name = "amount: \"{0}\", description: \"{1}\"")
             @CsvSource(
                     value = {
-                            "null, null, 1",
-                            "'', '', 1",
+                            "null, null, 2",
+                            "'', '', 2",
                             "b4a, expenses, 1",
                             "293000, b, 1",
                     },
@@ -157,7 +185,7 @@ public class BudgetControllerIntegrationTest {
                 Map<String, Object> payload = new HashMap<>();
                 payload.put("amount", amount);
                 payload.put("description", description);
-                String existingAccountId = "1";
+                String existingAccountId = testAccount.getId().toString();
                 failedPostRequest(payload, expectedErrorCount, existingAccountId, status().isBadRequest());
             }
         }
@@ -175,7 +203,7 @@ public class BudgetControllerIntegrationTest {
                 payload.put("description", description);
 
                 Integer expectedErrorCount = 1;
-                String nonExistentAccountId = "100";
+                String nonExistentAccountId = String.valueOf(capitalAccount.getId() + 1000);
                 failedPostRequest(payload, expectedErrorCount, nonExistentAccountId, status().isNotFound());
             }
         }
@@ -199,13 +227,13 @@ public class BudgetControllerIntegrationTest {
                     }
             )
             public void whenBudgetPayloadIsValid(String amount, String description) throws Exception {
-                String existingAccountId = "1";
+                String existingAccountId = testAccount.getId().toString();
 
                 Map<String, Object> payload = new HashMap<>();
                 payload.put("amount", amount);
                 payload.put("description", description);
 
-                MockHttpServletRequestBuilder requestBuilder = post("/accounts/{id}/budget", existingAccountId)
+                MockHttpServletRequestBuilder requestBuilder = post("/api/accounts/{id}/budget", existingAccountId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonMapper.writeValueAsString(payload));
 
@@ -214,9 +242,9 @@ public class BudgetControllerIntegrationTest {
                         .andExpect(status().isCreated())
                         .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                         .andExpect(jsonPath("$.status", is("success")))
-                        .andExpect(jsonPath("$.data.id", is(notNullValue())))
+                        .andExpect(jsonPath("$.data.budgetId", is(notNullValue())))
                         .andExpect(jsonPath("$.data.amount", is(amount)))
-                        .andExpect(jsonPath("$.data.description", is(description)));
+                        .andExpect(jsonPath("$.data.name", is(description)));
             }
         }
     }
@@ -282,7 +310,7 @@ public class BudgetControllerIntegrationTest {
                 createTestBudget("200600", "phone expenses", testAccount2);
 
                 Integer createdBudgetsCount = 2;
-                MockHttpServletRequestBuilder requestBuilder = get("/budgets").contentType(MediaType.APPLICATION_JSON);
+                MockHttpServletRequestBuilder requestBuilder = get("/api/budgets").contentType(MediaType.APPLICATION_JSON);
                 mvc.perform(requestBuilder)
                         .andDo(print())
                         .andExpect(status().isOk())
@@ -299,16 +327,18 @@ public class BudgetControllerIntegrationTest {
 
                 Long budgetId = createTestBudget("300400", "travel expenses", testAccount);
 
-                MockHttpServletRequestBuilder requestBuilder = get("/budgets/{id}", budgetId).contentType(MediaType.APPLICATION_JSON);
+                MockHttpServletRequestBuilder requestBuilder = get("/api/budgets/{id}", budgetId).contentType(MediaType.APPLICATION_JSON);
                 mvc.perform(requestBuilder)
                         .andDo(print())
                         .andExpect(status().isOk())
                         .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                         .andExpect(jsonPath("$.status", is("success")))
-                        .andExpect(jsonPath("$.data.id", is(budgetId.intValue())))
+                        .andExpect(jsonPath("$.data.budgetId", is(budgetId.intValue())))
                         .andExpect(jsonPath("$.data.amount", is("300400.00")))
-                        .andExpect(jsonPath("$.data.description", is("travel expenses")))
-                        .andExpect(jsonPath("$.data.account", is(notNullValue())));
+                        .andExpect(jsonPath("$.data.name", is("travel expenses")))
+                        .andExpect(jsonPath("$.data.accountNumber", is(testAccount.getNumber())))
+                        .andExpect(jsonPath("$.data.spending.length()", is(6)))
+                        .andExpect(jsonPath("$.data.spending[0].spentAmount", is("0.00")));
             }
 
             @Test
@@ -322,7 +352,7 @@ public class BudgetControllerIntegrationTest {
                 queryParams.add("size", "1");
                 queryParams.add("sort", "amount,asc");
 
-                MockHttpServletRequestBuilder requestBuilder = get("/budgets")
+                MockHttpServletRequestBuilder requestBuilder = get("/api/budgets")
                         .contentType(MediaType.APPLICATION_JSON)
                         .queryParams(queryParams);
 
@@ -339,184 +369,39 @@ public class BudgetControllerIntegrationTest {
                         .andExpect(jsonPath("$.page.last", is(false)))
                         .andExpect(jsonPath("$.page.order", is("amount: ASC")));
             }
-        }
-
-    }
-
-
-    @Nested
-
-    class PutRequestsFail {
-
-        @Nested
-        class WithBadRequestStatus {
-
-            @ParameterizedTest(name = "account id: \"{0}\"")
-            @ValueSource(strings = {
-                    "dog",
-                    "cat",
-                    "penguin",
-                    "house",
-                    "building",
-                    "xyz",
-                    "b010",
-                    "11111111111111111111111",
-                    "0",
-                    "-1"
-            })
-            public void whenAccountIdFormatIsNotValid(String invalidAccountId) throws Exception {
-                Integer expectedErrorCount = 1;
-                Long existingAccountId = createTestBudget("300", "expenses", testAccount);
-
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", "300");
-                payload.put("description", "car expenses");
-
-                failedPutRequest(payload, expectedErrorCount, invalidAccountId, existingAccountId.toString(), status().isBadRequest());
-            }
-
-            @ParameterizedTest(name = "budget Id: \"{0}\"")
-            @ValueSource(strings = {
-                    "dog",
-                    "cat",
-                    "penguin",
-                    "house",
-                    "building",
-                    "xyz",
-                    "b010",
-                    "11111111111111111111111",
-                    "0",
-                    "-1"
-            })
-            public void whenBudgetIdFormatIsNotValid(String invalidBudgetId) throws Exception {
-                Integer expectedErrorCount = 1;
-
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", "300");
-                payload.put("description", "car expenses");
-
-                failedPutRequest(payload, expectedErrorCount, testAccount.getId().toString(), invalidBudgetId, status().isBadRequest());
-            }
-
-            @ParameterizedTest(name = "amount: \"{0}\", description: \"{1}\", expectedErrorCount = {2}")
-            @CsvSource(
-                    value = {
-                            "null, null, 1",
-                            "'', '', 1",
-                            "b4a, expenses, 1",
-                            "293000, b, 1",
-                            "b4a, a, 1",
-
-                    },
-                    nullValues = "null"
-
-            )
-            public void whenBudgetPayloadIsNotValid(String amount, String description, Integer expectedErrorCount) throws Exception {
-                Long existingBudgetId = createTestBudget("200", "expenses", testAccount);
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", amount);
-                payload.put("description", description);
-                failedPutRequest(payload, expectedErrorCount, testAccount.getId().toString(), existingBudgetId.toString(), status().isBadRequest());
-            }
-        }
 
-        @Nested
-        class WithNotFoundStatus {
+            // the spend of a whole page comes from one grouped query, each budget has to get its own account's back
             @Test
-            public void whenAccountDoesNotExists() throws Exception {
-                Long budgetId = createTestBudget("2550", "travel and hotel expenses", testAccount);
-                Integer expectedErrorCount = 1;
-                String nonExistentAccountId = "100";
+            public void whenSeveralBudgetsHaveSpentThisMonth() throws Exception {
 
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", "2550");
-                payload.put("description", "travel and hotel expenses");
-
-                failedPutRequest(payload, expectedErrorCount, nonExistentAccountId, budgetId.toString(), status().isNotFound());
-            }
-        }
+                Long savingsBudgetId = createTestBudget("500", "savings", testAccount);
+                Long checkingBudgetId = createTestBudget("400", "checking", testAccount2);
+                postTransaction("house savings", testAccount, capitalAccount, "300.00");
+                postTransaction("phone bill", testAccount2, capitalAccount, "120.25");
+                postTransaction("more savings", testAccount, capitalAccount, "50.50");
+                postTransaction("money back", capitalAccount, testAccount, "20.00");
 
-        @Nested
-        class WithConflictStatus {
-            @Test
-            public void whenCreatingANewBudgetButAccountAlreadyHasABudget() throws Exception {
-                createTestBudget("3260", "hotel and travel expenses", testAccount);
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", "6402");
-                payload.put("description", "travel and hotel expenses");
-                String nonExistingBudgetId = "100";
-                Integer expectedErrorCount = 1;
-                failedPutRequest(payload, expectedErrorCount, testAccount.getId().toString(), nonExistingBudgetId, status().isConflict());
-            }
-        }
-
-    }
-
-    @Nested
-
-
-    class PutRequestsSucceed {
-
-        @Nested
-        class WithOkayStatus {
-
-            @Test
-            public void whenUpdatingExistingBudget() throws Exception {
-
-                Long budgetId = createTestBudget("300400", "travel expenses", testAccount);
-
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", "300000.55");
-                payload.put("description", "travel and hotel expenses");
-
-                String jsonPayload = jsonMapper.writeValueAsString(payload);
-
-
-                MockHttpServletRequestBuilder requestBuilder = put("/accounts/{accountId}/budget/{budgetId}", testAccount.getId(), budgetId)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonPayload);
-
-                mvc.perform(requestBuilder)
+                mvc.perform(get("/api/budgets").queryParam("sort", "description,desc"))
                         .andDo(print())
                         .andExpect(status().isOk())
-                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                         .andExpect(jsonPath("$.status", is("success")))
-                        .andExpect(jsonPath("$.data.id", is(budgetId.intValue())))
-                        .andExpect(jsonPath("$.data.amount", is("300000.55")))
-                        .andExpect(jsonPath("$.data.description", is("travel and hotel expenses")))
-                        .andExpect(jsonPath("$.data.account", is(notNullValue())));
-            }
-        }
-
-        @Nested
-        class WithCreatedStatus {
-
-            @Test
-            public void whenCreatingABudget() throws Exception {
-
-                Map<String, Object> payload = new HashMap<>();
-                payload.put("amount", "322000.00");
-                payload.put("description", "travel and hotel expenses");
-
-                String jsonPayload = jsonMapper.writeValueAsString(payload);
-                String nonExistingBudgetId = "600";
-
-
-                MockHttpServletRequestBuilder requestBuilder = put("/accounts/{accountId}/budget/{budgetId}", testAccount.getId(), nonExistingBudgetId)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonPayload);
-
-                mvc.perform(requestBuilder)
+                        .andExpect(jsonPath("$.data.length()", is(2)))
+                        .andExpect(jsonPath("$.data[0].id", is(savingsBudgetId.intValue())))
+                        .andExpect(jsonPath("$.data[0].spentSoFar", is("330.50")))
+                        .andExpect(jsonPath("$.data[1].id", is(checkingBudgetId.intValue())))
+                        .andExpect(jsonPath("$.data[1].spentSoFar", is("120.25")));
+
+                // a second page of the same listing is cached apart from the first
+                mvc.perform(get("/api/budgets").queryParam("sort", "description,desc").queryParam("size", "1").queryParam("page", "1"))
                         .andDo(print())
-                        .andExpect(status().isCreated())
-                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                        .andExpect(jsonPath("$.status", is("success")))
-                        .andExpect(jsonPath("$.data.id", is(notNullValue())))
-                        .andExpect(jsonPath("$.data.amount", is("322000.00")))
-                        .andExpect(jsonPath("$.data.description", is("travel and hotel expenses")))
-                        .andExpect(jsonPath("$.data.account", is(notNullValue())));
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.length()", is(1)))
+                        .andExpect(jsonPath("$.data[0].id", is(checkingBudgetId.intValue())))
+                        .andExpect(jsonPath("$.data[0].spentSoFar", is("120.25")))
+                        .andExpect(jsonPath("$.page.totalElements", is(2)));
             }
         }
+
     }
 
 
@@ -569,6 +454,20 @@ public class BudgetControllerIntegrationTest {
                 payload.put("description", description);
                 failedPatchRequest(payload, expectedErrorCount, existingBudgetId.toString(), status().isBadRequest());
             }
+
+            @Test
+            public void whenABatchRepeatsABudget() throws Exception {
+                Long existingBudgetId = createTestBudget("200", "expenses", testAccount);
+
+                List<Map<String, Object>> payload = List.of(
+                        Map.of("id", existingBudgetId, "amount", "300"),
+                        Map.of("id", existingBudgetId, "amount", "400"),
+                        Map.of("amount", "500")
+                );
+
+                failedBatchPatchRequest(payload, 2, status().isBadRequest());
+                assertThat(budgetRepository.findById(existingBudgetId)).get().extracting(Budget::getAmount).isEqualTo(new BigDecimal("200.00"));
+            }
         }
 
         @Nested
@@ -588,6 +487,43 @@ public class BudgetControllerIntegrationTest {
                 payload.put("description", "car expenses");
                 failedPatchRequest(payload, expectedErrorCount, notFoundBudgetId, status().isNotFound());
             }
+
+            // nothing in the batch is written when one of its budgets can't be found
+            @Test
+            public void whenABatchHasABudgetThatDoesNotExist() throws Exception {
+                Long existingBudgetId = createTestBudget("200", "expenses", testAccount);
+
+                List<Map<String, Object>> payload = List.of(
+                        Map.of("id", existingBudgetId, "amount", "300"),
+                        Map.of("id", existingBudgetId + 1000, "amount", "400")
+                );
+
+                failedBatchPatchRequest(payload, 1, status().isNotFound());
+                assertThat(budgetRepository.findById(existingBudgetId)).get().extracting(Budget::getAmount).isEqualTo(new BigDecimal("200.00"));
+            }
+
+            @Test
+            public void whenABatchHasAnotherUsersBudget() throws Exception {
+                User otherUser = new User();
+                otherUser.setRole(Role.USER);
+                otherUser.setEmail("other@example.com");
+                otherUser.setPassword(passwordEncoder.encode("secret"));
+                otherUser.setFirstName("Other");
+                otherUser.setLastName("User");
+                userRepository.saveAndFlush(otherUser);
+
+                Long existingBudgetId = createTestBudget("200", "expenses", testAccount);
+                Long otherUsersBudgetId = createTestBudget("700", "other expenses", testAccount2, otherUser);
+
+                List<Map<String, Object>> payload = List.of(
+                        Map.of("id", existingBudgetId, "amount", "300"),
+                        Map.of("id", otherUsersBudgetId, "amount", "1")
+                );
+
+                failedBatchPatchRequest(payload, 1, status().isNotFound());
+                assertThat(budgetRepository.findById(existingBudgetId)).get().extracting(Budget::getAmount).isEqualTo(new BigDecimal("200.00"));
+                assertThat(budgetRepository.findById(otherUsersBudgetId)).get().extracting(Budget::getAmount).isEqualTo(new BigDecimal("700.00"));
+            }
         }
     }
 
@@ -608,16 +544,49 @@ public class BudgetControllerIntegrationTest {
                 payload.put("amount", "232400.00");
                 payload.put("description", "monthly expenses");
 
-                MockHttpServletRequestBuilder builder = patch("/budgets/{id}", createdId)
+                MockHttpServletRequestBuilder builder = patch("/api/budgets/{id}", createdId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(jsonMapper.writeValueAsString(payload));
 
                 mvc.perform(builder)
                         .andDo(print())
                         .andExpect(status().isOk())
-                        .andExpect(jsonPath("$.data.id", is(notNullValue())))
+                        .andExpect(jsonPath("$.data.budgetId", is(notNullValue())))
                         .andExpect(jsonPath("$.data.amount", is("232400.00")))
-                        .andExpect(jsonPath("$.data.description", is("monthly expenses")));
+                        .andExpect(jsonPath("$.data.name", is("monthly expenses")));
+            }
+
+            @Test
+            public void whenSeveralBudgetsAreUpdatedWithAMergePatch() throws Exception {
+
+                Long firstId = createTestBudget("400000", "yearly expenses", testAccount);
+                Long secondId = createTestBudget("300", "phone expenses", testAccount2);
+
+                List<Map<String, Object>> payload = List.of(
+                        Map.of("id", firstId, "amount", "232400.00", "description", "monthly expenses"),
+                        Map.of("id", secondId, "description", "internet expenses")
+                );
+
+                MockHttpServletRequestBuilder builder = patch("/api/budgets")
+                        .contentType("application/merge-patch+json")
+                        .content(jsonMapper.writeValueAsString(payload));
+
+                mvc.perform(builder)
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                        .andExpect(jsonPath("$.status", is("success")))
+                        .andExpect(jsonPath("$.data.length()", is(2)))
+                        .andExpect(jsonPath("$.data[0].budgetId", is(firstId.intValue())))
+                        .andExpect(jsonPath("$.data[0].amount", is("232400.00")))
+                        .andExpect(jsonPath("$.data[0].name", is("monthly expenses")))
+                        .andExpect(jsonPath("$.data[1].budgetId", is(secondId.intValue())))
+                        .andExpect(jsonPath("$.data[1].amount", is("300.00")))
+                        .andExpect(jsonPath("$.data[1].name", is("internet expenses")))
+                        .andExpect(jsonPath("$.data[1].spending.length()", is(6)));
+
+                assertThat(budgetRepository.findById(firstId)).get().extracting(Budget::getDescription).isEqualTo("monthly expenses");
+                assertThat(budgetRepository.findById(secondId)).get().extracting(Budget::getDescription).isEqualTo("internet expenses");
             }
         }
     }
@@ -670,7 +639,7 @@ public class BudgetControllerIntegrationTest {
             })
             public void whenBudgetIdFormatIsValid(String validBudgetId) throws Exception {
 
-                MockHttpServletRequestBuilder builder = delete("/budgets/{id}", validBudgetId)
+                MockHttpServletRequestBuilder builder = delete("/api/budgets/{id}", validBudgetId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new byte[0]);
 
@@ -689,7 +658,7 @@ public class BudgetControllerIntegrationTest {
 
                 Long createdBudget = createTestBudget(amount, description, testAccount);
 
-                MockHttpServletRequestBuilder builder = delete("/budgets/{id}", createdBudget)
+                MockHttpServletRequestBuilder builder = delete("/api/budgets/{id}", createdBudget)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new byte[0]);
 
@@ -703,7 +672,7 @@ public class BudgetControllerIntegrationTest {
 
     public void failedPostRequest(Object content, final Integer expectedErrorCount, String id, final ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = post("/accounts/{id}/budget", id).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = post("/api/accounts/{id}/budget", id).contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
@@ -712,7 +681,7 @@ public class BudgetControllerIntegrationTest {
         if (queryParams == null)
             queryParams = new LinkedMultiValueMap<>();
 
-        StringBuilder uriTemplate = new StringBuilder("/budgets");
+        StringBuilder uriTemplate = new StringBuilder("/api/budgets");
         if (id != null)
             uriTemplate.append(String.format("/%s", id));
 
@@ -720,21 +689,21 @@ public class BudgetControllerIntegrationTest {
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
-    public void failedPutRequest(Object content, final Integer expectedErrorCount, String accountId, String budgetId, final ResultMatcher expectedHttpStatus) throws Exception {
+    public void failedPatchRequest(Object content, final Integer expectedErrorCount, String budgetId, final ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = put("/accounts/{id}/budget/{budgetId}", accountId, budgetId).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = patch("/api/budgets/{budgetId}", budgetId).contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
-    public void failedPatchRequest(Object content, final Integer expectedErrorCount, String budgetId, final ResultMatcher expectedHttpStatus) throws Exception {
+    public void failedBatchPatchRequest(Object content, final Integer expectedErrorCount, final ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = patch("/budgets/{budgetId}", budgetId).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = patch("/api/budgets").contentType("application/merge-patch+json");
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
     public void failedDeleteRequest(Object content, final Integer expectedErrorCount, String budgetId, final ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = delete("/budgets/{budgetId}", budgetId).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = delete("/api/budgets/{budgetId}", budgetId).contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
@@ -755,12 +724,28 @@ public class BudgetControllerIntegrationTest {
                 .andExpect(jsonPath("$.errors.length()", is(expectedErrorCount)));
     }
 
+    private void postTransaction(String description, Account debited, Account credited, String amount) throws Exception {
+        Map<String, Object> transactionPayload = new HashMap<>();
+        transactionPayload.put("description", description);
+        transactionPayload.put("createdAt", Instant.now().toString());
+        transactionPayload.put("lines", List.of(
+                Map.of("debitAmount", amount, "creditAmount", "0.00", "accountId", debited.getId()),
+                Map.of("debitAmount", "0.00", "creditAmount", amount, "accountId", credited.getId())));
+
+        mvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(transactionPayload)))
+                .andExpect(status().isCreated());
+    }
+
     public Long createTestBudget(String amount, String description, Account account) {
+        return createTestBudget(amount, description, account, testUser);
+    }
+
+    public Long createTestBudget(String amount, String description, Account account, User user) {
         Budget budget = new Budget();
         budget.setAmount(new BigDecimal(amount));
         budget.setDescription(description);
         budget.setAccount(account);
-        budget.setUser(testUser);
+        budget.setUser(user);
         budgetRepository.saveAndFlush(budget);
         return budget.getId();
     }
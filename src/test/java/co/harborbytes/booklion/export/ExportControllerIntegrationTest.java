@@ -0,0 +1,271 @@
+package co.harborbytes.booklion.export;
+
+import co.harborbytes.booklion.Application;
+import co.harborbytes.booklion.ReplaceCamelCase;
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.budget.BudgetRepository;
+import co.harborbytes.booklion.transaction.AccountBalanceRepository;
+import co.harborbytes.booklion.transaction.AccountMonthlyBalanceRepository;
+import co.harborbytes.booklion.transaction.TransactionRepository;
+import co.harborbytes.booklion.user.Role;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = Application.class
+)
+@AutoConfigureMockMvc
+@TestPropertySource(
+        locations = "classpath:application-integrationtest.properties"
+)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+@WithUserDetails("user@example.com")
+public class ExportControllerIntegrationTest {
+
+    private final MockMvc mvc;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final AccountMonthlyBalanceRepository accountMonthlyBalanceRepository;
+    private final BudgetRepository budgetRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper jsonMapper;
+
+    private Account savingsAccount;
+    private Account capitalAccount;
+    private Account internetAccount;
+    private final List<Long> transactionIds = new ArrayList<>();
+
+    @Autowired
+    public ExportControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, TransactionRepository transactionRepository, AccountBalanceRepository accountBalanceRepository,
+                                           AccountMonthlyBalanceRepository accountMonthlyBalanceRepository, BudgetRepository budgetRepository, UserRepository userRepository,
+                                           PasswordEncoder passwordEncoder, ObjectMapper jsonMapper) {
+        this.mvc = mvc;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.accountMonthlyBalanceRepository = accountMonthlyBalanceRepository;
+        this.budgetRepository = budgetRepository;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @BeforeAll
+    public void createAccountsAndUser() {
+        accountBalanceRepository.deleteAll();
+        accountMonthlyBalanceRepository.deleteAll();
+        transactionRepository.deleteAll();
+        budgetRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        savingsAccount = saveAccount("101", "savings account");
+        capitalAccount = saveAccount("301", "capital account");
+        internetAccount = saveAccount("501", "internet expenses");
+
+        User testUser = new User();
+        testUser.setRole(Role.USER);
+        testUser.setEmail("user@example.com");
+        testUser.setPassword(passwordEncoder.encode("secret"));
+        testUser.setFirstName("Giga");
+        testUser.setLastName("Chad");
+        userRepository.saveAndFlush(testUser);
+    }
+
+    // the test classes after this one count on an empty ledger, rows are deleted before the ones they point at
+    @AfterAll
+    public void deleteLedger() {
+        accountBalanceRepository.deleteAll();
+        accountMonthlyBalanceRepository.deleteAll();
+        transactionRepository.deleteAll();
+        budgetRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // posted as the user, which @BeforeAll can't be
+    @BeforeEach
+    public void postLedgerOnce() throws Exception {
+        if (!transactionIds.isEmpty())
+            return;
+
+        transactionIds.add(postTransaction("2024-01-10T00:00:00Z", "putting money in", savingsAccount, capitalAccount, "1000.00"));
+        transactionIds.add(postTransaction("2024-02-10T00:00:00Z", "paying internet bill", internetAccount, savingsAccount, "200.00"));
+        transactionIds.add(postTransaction("2024-02-20T00:00:00Z", "paying internet, the sequel", internetAccount, savingsAccount, "50.00"));
+        transactionIds.add(postTransaction("2024-03-05T00:00:00Z", "putting more money in", savingsAccount, capitalAccount, "300.00"));
+    }
+
+    @Nested
+    class TransactionExports {
+
+        @Test
+        public void whenTransactionsAreExportedForAMonth() throws Exception {
+            String csv = mvc.perform(get("/api/exports/transactions").param("from", "2024-02-01").param("to", "2024-03-01"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            assertThat(csv.split("\r\n")).containsExactly(
+                    "Transaction,Date,Description,Account number,Account name,Account type,Debit,Credit",
+                    transactionIds.get(1) + ",2024-02-10T00:00:00Z,paying internet bill,501,internet expenses,EXPENSES,200.00,0.00",
+                    transactionIds.get(1) + ",2024-02-10T00:00:00Z,paying internet bill,101,savings account,ASSETS,0.00,200.00",
+                    transactionIds.get(2) + ",2024-02-20T00:00:00Z,\"paying internet, the sequel\",501,internet expenses,EXPENSES,50.00,0.00",
+                    transactionIds.get(2) + ",2024-02-20T00:00:00Z,\"paying internet, the sequel\",101,savings account,ASSETS,0.00,50.00");
+        }
+
+        @Test
+        public void whenTransactionsAreFilteredByAccount() throws Exception {
+            String csv = mvc.perform(get("/api/exports/transactions").param("accountNumber", "301"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            // the whole transaction is exported, the line on the other account too
+            assertThat(csv.split("\r\n")).containsExactly(
+                    "Transaction,Date,Description,Account number,Account name,Account type,Debit,Credit",
+                    transactionIds.get(0) + ",2024-01-10T00:00:00Z,putting money in,101,savings account,ASSETS,1000.00,0.00",
+                    transactionIds.get(0) + ",2024-01-10T00:00:00Z,putting money in,301,capital account,EQUITY,0.00,1000.00",
+                    transactionIds.get(3) + ",2024-03-05T00:00:00Z,putting more money in,101,savings account,ASSETS,300.00,0.00",
+                    transactionIds.get(3) + ",2024-03-05T00:00:00Z,putting more money in,301,capital account,EQUITY,0.00,300.00");
+        }
+
+        @Test
+        public void whenTransactionsAreExportedAsAWorkbook() throws Exception {
+            byte[] xlsx = mvc.perform(get("/api/exports/transactions").param("format", "xlsx"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.xlsx\""))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            Map<String, String> parts = unzip(xlsx);
+            assertThat(parts).containsKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml", "xl/_rels/workbook.xml.rels", "xl/styles.xml");
+            assertThat(parts.get("xl/workbook.xml")).contains("<sheet name=\"Transactions\" sheetId=\"1\" r:id=\"rId1\"/>");
+
+            String sheet = parts.get("xl/worksheets/sheet1.xml");
+            assertThat(sheet.split("<row>", -1)).hasSize(1 + 1 + 8);
+            assertThat(sheet).contains("<t xml:space=\"preserve\">paying internet, the sequel</t>");
+            assertThat(sheet).contains("<c s=\"1\"><v>1000.00</v></c>");
+        }
+
+        @Test
+        public void whenTheExportRequestIsNotValid() throws Exception {
+            mvc.perform(get("/api/exports/transactions").param("format", "pdf"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is("fail")));
+
+            mvc.perform(get("/api/exports/transactions").param("from", "2024-03-01").param("to", "2024-02-01"))
+                    .andExpect(status().isBadRequest());
+
+            mvc.perform(get("/api/exports/transactions").param("from", "last month"))
+                    .andExpect(status().isBadRequest());
+
+            mvc.perform(get("/api/exports/transactions").param("accountNumber", "999"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    class LedgerExports {
+
+        @Test
+        public void whenAnAccountLedgerIsExportedFromADate() throws Exception {
+            String csv = mvc.perform(get("/api/exports/ledgers").param("accountNumber", "101").param("from", "2024-02-01"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"ledgers.csv\""))
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            assertThat(csv.split("\r\n")).containsExactly(
+                    "Account number,Account name,Date,Transaction,Description,Debit,Credit,Balance",
+                    "101,savings account,2024-02-01T00:00:00Z,,Opening balance,,,1000.00",
+                    "101,savings account,2024-02-10T00:00:00Z," + transactionIds.get(1) + ",paying internet bill,0.00,200.00,800.00",
+                    "101,savings account,2024-02-20T00:00:00Z," + transactionIds.get(2) + ",\"paying internet, the sequel\",0.00,50.00,750.00",
+                    "101,savings account,2024-03-05T00:00:00Z," + transactionIds.get(3) + ",putting more money in,300.00,0.00,1050.00");
+        }
+
+        @Test
+        public void whenEveryLedgerIsExportedForAMonth() throws Exception {
+            String csv = mvc.perform(get("/api/exports/ledgers").param("from", "2024-03-01").param("to", "2024-04-01"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            // internet expenses saw nothing in march, but still opens with what was spent before
+            assertThat(csv.split("\r\n")).containsExactly(
+                    "Account number,Account name,Date,Transaction,Description,Debit,Credit,Balance",
+                    "101,savings account,2024-03-01T00:00:00Z,,Opening balance,,,750.00",
+                    "101,savings account,2024-03-05T00:00:00Z," + transactionIds.get(3) + ",putting more money in,300.00,0.00,1050.00",
+                    "301,capital account,2024-03-01T00:00:00Z,,Opening balance,,,1000.00",
+                    "301,capital account,2024-03-05T00:00:00Z," + transactionIds.get(3) + ",putting more money in,0.00,300.00,1300.00",
+                    "501,internet expenses,2024-03-01T00:00:00Z,,Opening balance,,,250.00");
+        }
+    }
+
+    @Nested
+    class ReportExports {
+
+        @Test
+        public void whenTheBalanceSheetIsExported() throws Exception {
+            String csv = mvc.perform(get("/api/exports/balance-sheet").param("from", "2024-01-01"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            assertThat(csv.split("\r\n")).startsWith("Section,Account,Balance").contains("Assets,savings account,1050.00");
+        }
+    }
+
+    private Account saveAccount(String number, String name) {
+        Account account = new Account();
+        account.setNumber(number);
+        account.setName(name);
+        return accountRepository.saveAndFlush(account);
+    }
+
+    private Long postTransaction(String createdAt, String description, Account debited, Account credited, String amount) throws Exception {
+        Map<String, Object> transactionPayload = new HashMap<>();
+        transactionPayload.put("description", description);
+        transactionPayload.put("createdAt", createdAt);
+        transactionPayload.put("lines", List.of(
+                Map.of("debitAmount", amount, "creditAmount", "0.00", "accountId", debited.getId()),
+                Map.of("debitAmount", "0.00", "creditAmount", amount, "accountId", credited.getId())));
+
+        String response = mvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(transactionPayload)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        return jsonMapper.readTree(response).path("data").path("id").asLong();
+    }
+
+    private static Map<String, String> unzip(byte[] zip) throws Exception {
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry())
+                parts.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        return parts;
+    }
+}
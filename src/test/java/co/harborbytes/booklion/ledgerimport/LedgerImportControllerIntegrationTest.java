@@ -0,0 +1,263 @@
+package co.harborbytes.booklion.ledgerimport;
+
+import co.harborbytes.booklion.Application;
+import co.harborbytes.booklion.ReplaceCamelCase;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.budget.BudgetRepository;
+import co.harborbytes.booklion.transaction.AccountBalanceRepository;
+import co.harborbytes.booklion.transaction.AccountMonthlyBalanceRepository;
+import co.harborbytes.booklion.transaction.TransactionRepository;
+import co.harborbytes.booklion.user.Role;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = Application.class
+)
+@AutoConfigureMockMvc
+@TestPropertySource(
+        locations = "classpath:application-integrationtest.properties"
+)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+@WithUserDetails("admin@example.com")
+public class LedgerImportControllerIntegrationTest {
+
+    private static final Path IMPORT_DIRECTORY = createImportDirectory();
+
+    private final MockMvc mvc;
+    private final LedgerImportService ledgerImportService;
+    private final ImportRunRepository importRunRepository;
+    private final ImportRejectedRowRepository importRejectedRowRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final AccountMonthlyBalanceRepository accountMonthlyBalanceRepository;
+    private final BudgetRepository budgetRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper jsonMapper;
+
+    private Long userId;
+    private ImportRunDTO accountsRun;
+
+    @Autowired
+    public LedgerImportControllerIntegrationTest(MockMvc mvc, LedgerImportService ledgerImportService, ImportRunRepository importRunRepository, ImportRejectedRowRepository importRejectedRowRepository,
+                                                 AccountRepository accountRepository, TransactionRepository transactionRepository, AccountBalanceRepository accountBalanceRepository,
+                                                 AccountMonthlyBalanceRepository accountMonthlyBalanceRepository, BudgetRepository budgetRepository, UserRepository userRepository,
+                                                 PasswordEncoder passwordEncoder, ObjectMapper jsonMapper) {
+        this.mvc = mvc;
+        this.ledgerImportService = ledgerImportService;
+        this.importRunRepository = importRunRepository;
+        this.importRejectedRowRepository = importRejectedRowRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.accountMonthlyBalanceRepository = accountMonthlyBalanceRepository;
+        this.budgetRepository = budgetRepository;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @DynamicPropertySource
+    static void importDirectory(DynamicPropertyRegistry registry) {
+        registry.add("booklion.imports.directory", IMPORT_DIRECTORY::toString);
+    }
+
+    @BeforeAll
+    public void createUsersAndImportAccounts() throws Exception {
+        deleteImports();
+        userRepository.deleteAll();
+
+        userId = saveUser("user@example.com", Role.USER).getId();
+        saveUser("admin@example.com", Role.ADMIN);
+
+        // straight through the service, so the accounts are there whoever a test runs as
+        writeFile("accounts.csv",
+                "number,name,opening balance",
+                "101,imported savings,1500.00",
+                "201,imported credit card,500.00",
+                "301,imported capital,1000.00",
+                "501,imported groceries,0",
+                "901,not an account,0");
+        accountsRun = ledgerImportService.importFile(userId, ImportKind.ACCOUNTS, "accounts.csv", Instant.parse("2023-12-31T23:59:59Z"));
+    }
+
+    // the other test classes delete the users, which the runs and the imported ledger point at
+    @AfterAll
+    public void deleteImports() {
+        importRejectedRowRepository.deleteAll();
+        importRunRepository.deleteAll();
+        accountBalanceRepository.deleteAll();
+        accountMonthlyBalanceRepository.deleteAll();
+        transactionRepository.deleteAll();
+        budgetRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Nested
+    class AccountImports {
+
+        @Test
+        public void whenAnAccountsFileIsImported() {
+            assertThat(accountsRun.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+            assertThat(accountsRun.getTransactionsCreated()).isEqualTo(1L);
+            assertThat(accountsRun.getRowsRejected()).isEqualTo(1L);
+            assertThat(accountRepository.findByNumber("501")).isPresent();
+            assertThat(accountRepository.findByNumber("901")).isEmpty();
+        }
+    }
+
+    @Nested
+    class TransactionImports {
+
+        @Test
+        public void whenATransactionsFileIsImported() throws Exception {
+            writeFile("transactions.csv",
+                    "2024-01-05,,",
+                    "501,120.50,0",
+                    "101,0,120.50",
+                    "\"Groceries, weekly\",,",
+                    "2024-01-06,,",
+                    "501,10.00,0",
+                    "999,0,10.00",
+                    "Unknown account,,",
+                    "2024-01-07,,",
+                    "501,5.00,0",
+                    "101,0,4.00",
+                    "Unbalanced,,");
+
+            JsonNode run = importFile("TRANSACTIONS", "transactions.csv");
+            assertThat(run.path("status").asText()).isEqualTo("COMPLETED");
+            assertThat(run.path("linesRead").asLong()).isEqualTo(12L);
+            assertThat(run.path("transactionsCreated").asLong()).isEqualTo(1L);
+            assertThat(run.path("rowsRejected").asLong()).isEqualTo(2L);
+
+            String csv = mvc.perform(get("/api/admin/imports/{id}/rejected-rows", run.path("id").asLong()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+            String[] rows = csv.split("\r\n");
+            assertThat(rows).hasSize(3);
+            assertThat(rows[0]).isEqualTo("Line,Reason");
+            assertThat(rows[1]).isEqualTo("5,line 7: account number 999 was not found");
+            assertThat(rows[2]).startsWith("9,").contains("must be balanced");
+        }
+
+        @Test
+        public void whenAnImportedFileIsAppendedTo() throws Exception {
+            writeFile("appended.csv",
+                    "2024-02-01,,",
+                    "501,7.00,0",
+                    "101,0,7.00",
+                    "Bus fare,,");
+            JsonNode first = importFile("TRANSACTIONS", "appended.csv");
+
+            Files.writeString(IMPORT_DIRECTORY.resolve("appended.csv"), String.join("\n", "", "2024-02-02,,", "501,3.00,0", "101,0,3.00", "Coffee,,"),
+                    StandardOpenOption.APPEND);
+            JsonNode second = importFile("TRANSACTIONS", "appended.csv");
+
+            // the same run goes on from where it stopped, the first transaction isn't imported twice
+            assertThat(second.path("id").asLong()).isEqualTo(first.path("id").asLong());
+            assertThat(second.path("status").asText()).isEqualTo("COMPLETED");
+            assertThat(second.path("linesRead").asLong()).isEqualTo(9L);
+            assertThat(second.path("transactionsCreated").asLong()).isEqualTo(2L);
+            assertThat(second.path("rowsRejected").asLong()).isEqualTo(0L);
+        }
+
+        @Test
+        public void whenTheFileIsOutsideTheImportDirectory() throws Exception {
+            mvc.perform(post("/api/admin/imports").contentType(MediaType.APPLICATION_JSON).content(importPayload("TRANSACTIONS", "../transactions.csv")))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is("fail")));
+        }
+
+        @Test
+        @WithUserDetails("user@example.com")
+        public void whenSomeoneOtherThanAnAdminImports() throws Exception {
+            mvc.perform(post("/api/admin/imports").contentType(MediaType.APPLICATION_JSON).content(importPayload("TRANSACTIONS", "transactions.csv")))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    private User saveUser(String email, Role role) {
+        User user = new User();
+        user.setRole(role);
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setFirstName("Giga");
+        user.setLastName("Chad");
+        return userRepository.saveAndFlush(user);
+    }
+
+    private static void writeFile(String name, String... lines) throws IOException {
+        Files.writeString(IMPORT_DIRECTORY.resolve(name), String.join("\n", lines));
+    }
+
+    private String importPayload(String kind, String file) throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", userId);
+        payload.put("kind", kind);
+        payload.put("file", file);
+        payload.put("openingBalancesAt", "2023-12-31T23:59:59Z");
+        return jsonMapper.writeValueAsString(payload);
+    }
+
+    // imports run in the background, the run is polled until it's done
+    private JsonNode importFile(String kind, String file) throws Exception {
+        String response = mvc.perform(post("/api/admin/imports").contentType(MediaType.APPLICATION_JSON).content(importPayload(kind, file)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        long id = jsonMapper.readTree(response).path("data").path("id").asLong();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            JsonNode run = jsonMapper.readTree(mvc.perform(get("/api/admin/imports/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).path("data");
+            String status = run.path("status").asText();
+            if (status.equals("COMPLETED") || status.equals("FAILED") || System.currentTimeMillis() > deadline)
+                return run;
+            Thread.sleep(50);
+        }
+    }
+
+    private static Path createImportDirectory() {
+        try {
+            return Files.createTempDirectory("booklion-imports");
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
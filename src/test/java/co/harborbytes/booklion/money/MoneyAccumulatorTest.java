@@ -0,0 +1,149 @@
+package co.harborbytes.booklion.money;
+
+import co.harborbytes.booklion.ReplaceCamelCase;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+public class MoneyAccumulatorTest {
+
+    private MoneyAccumulator accumulator;
+
+    @BeforeEach
+    public void createAccumulator() {
+        accumulator = new MoneyAccumulator();
+    }
+
+    @Nested
+    class Folding {
+
+        @Test
+        public void whenNothingWasAdded() {
+            assertThat(accumulator.isZero()).isTrue();
+            assertThat(accumulator.getCents()).isZero();
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("0.00"));
+            assertThat(accumulator.toMoney()).isSameAs(Money.ZERO);
+        }
+
+        @Test
+        public void whenScaleTwoAmountsAreFolded() {
+            accumulator.add(new BigDecimal("120.50")).subtract(new BigDecimal("20.25")).add(new BigDecimal("-0.25"));
+
+            assertThat(accumulator.getCents()).isEqualTo(10000L);
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("100.00"));
+            assertThat(accumulator.toString()).isEqualTo("100.00");
+        }
+
+        @Test
+        public void whenTheAmountsHaveOtherScales() {
+            accumulator.add(new BigDecimal("12")).add(new BigDecimal("0.5")).subtract(new BigDecimal("2.250")).add(new BigDecimal("1E+2"));
+
+            assertThat(accumulator.getCents()).isEqualTo(11025L);
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("110.25"));
+        }
+
+        // amounts of other scales are brought to cents before they are added
+        @Test
+        public void whenAmountsOfDifferentScalesCancelOut() {
+            accumulator.add(new BigDecimal("1")).subtract(new BigDecimal("1.00"));
+
+            assertThat(accumulator.isZero()).isTrue();
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("0.00"));
+        }
+
+        @Test
+        public void whenAroundTenTrillionIsFolded() {
+            accumulator.add(new BigDecimal("9999999999999.99")).add(new BigDecimal("0.02")).subtract(new BigDecimal("-10000000000000.00"));
+
+            assertThat(accumulator.getCents()).isEqualTo(2000000000000001L);
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("20000000000000.01"));
+        }
+
+        @Test
+        public void whenMoneyAndOtherAccumulatorsAreAdded() {
+            MoneyAccumulator other = new MoneyAccumulator().add(new BigDecimal("2.50")).add(new BigDecimal("1"));
+            accumulator.add(new BigDecimal("0.25")).add(Money.ofCents(-75)).add(other);
+
+            assertThat(accumulator.getCents()).isEqualTo(300L);
+            assertThat(accumulator.toMoney()).isEqualTo(Money.ofCents(300));
+            assertThat(other.getCents()).isEqualTo(350L);
+        }
+
+        // only the total has to fit a long, not every step on the way to it
+        @Test
+        public void whenTheTotalComesBackWithinALong() {
+            accumulator.add(new BigDecimal("92233720368547758.07")).add(new BigDecimal("0.01")).subtract(new BigDecimal("0.02"));
+
+            assertThat(accumulator.getCents()).isEqualTo(Long.MAX_VALUE - 1);
+        }
+    }
+
+    @Nested
+    class FoldingFails {
+
+        @Test
+        public void whenAnAmountHasFractionsOfACent() {
+            assertThatThrownBy(() -> accumulator.add(new BigDecimal("0.005")))
+                    .isInstanceOf(ArithmeticException.class);
+            assertThatThrownBy(() -> accumulator.subtract(new BigDecimal("12.345")))
+                    .isInstanceOf(ArithmeticException.class);
+            assertThat(accumulator.isZero()).isTrue();
+        }
+
+        @Test
+        public void whenTheCentsDoNotFitALong() {
+            accumulator.add(new BigDecimal("92233720368547758.07")).add(new BigDecimal("0.01"));
+
+            assertThatThrownBy(() -> accumulator.getCents()).isInstanceOf(ArithmeticException.class);
+            assertThatThrownBy(() -> accumulator.toMoney()).isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Nested
+    class Overflowing {
+
+        // past a long the fold carries on as a BigDecimal, only reading the cents fails
+        @Test
+        public void whenTheTotalGoesPastALong() {
+            accumulator.add(new BigDecimal("92233720368547758.07")).add(new BigDecimal("0.01"));
+
+            assertThat(accumulator.isZero()).isFalse();
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("92233720368547758.08"));
+        }
+
+        @Test
+        public void whenTheTotalGoesBelowALong() {
+            accumulator.subtract(new BigDecimal("92233720368547758.08")).subtract(new BigDecimal("0.01"));
+
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("-92233720368547758.09"));
+            assertThatThrownBy(() -> accumulator.getCents()).isInstanceOf(ArithmeticException.class);
+        }
+
+        @Test
+        public void whenMoneyTakesTheTotalPastALong() {
+            accumulator.add(Money.ofCents(Long.MAX_VALUE)).add(Money.ofCents(1)).add(new BigDecimal("1"));
+
+            assertThat(accumulator.toBigDecimal()).isEqualTo(new BigDecimal("92233720368547759.08"));
+        }
+
+        @Test
+        public void whenAnAmountIsTooLongForTheCents() {
+            accumulator.add(new BigDecimal("123456789012345678.90")).subtract(new BigDecimal("123456789012345678.00"));
+
+            assertThat(accumulator.getCents()).isEqualTo(90L);
+        }
+
+        @Test
+        public void whenAnOverflowingAccumulatorIsAdded() {
+            MoneyAccumulator other = new MoneyAccumulator().add(Money.ofCents(Long.MAX_VALUE)).add(Money.ofCents(Long.MAX_VALUE));
+            accumulator.add(Money.ofCents(-Long.MAX_VALUE)).add(other);
+
+            assertThat(accumulator.getCents()).isEqualTo(Long.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package co.harborbytes.booklion.money;
+
+import co.harborbytes.booklion.ReplaceCamelCase;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+public class MoneyTest {
+
+    @Nested
+    class ConversionSucceeds {
+
+        // either side of 1e13 units, where a scale 2 amount stops surviving a trip through a double
+        @ParameterizedTest
+        @CsvSource({
+                "0.00, 0",
+                "0.01, 1",
+                "-0.01, -1",
+                "12.34, 1234",
+                "-12.34, -1234",
+                "9999999999999.99, 999999999999999",
+                "10000000000000.00, 1000000000000000",
+                "10000000000000.01, 1000000000000001",
+                "-9999999999999.99, -999999999999999",
+                "-10000000000000.01, -1000000000000001",
+                "90071992547409.93, 9007199254740993"
+        })
+        public void whenTheAmountHasScaleTwo(String amount, long cents) {
+            assertThat(Money.centsOf(new BigDecimal(amount))).isEqualTo(cents);
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                "12, 1200",
+                "-12, -1200",
+                "12.5, 1250",
+                "12.500, 1250",
+                "-12.5000, -1250",
+                "1E+3, 100000",
+                "10000000000000.0, 1000000000000000"
+        })
+        public void whenTheAmountHasAnotherScale(String amount, long cents) {
+            assertThat(Money.centsOf(new BigDecimal(amount))).isEqualTo(cents);
+        }
+
+        @Test
+        public void whenTheAmountIsAtTheEdgesOfALong() {
+            assertThat(Money.centsOf(new BigDecimal("92233720368547758.07"))).isEqualTo(Long.MAX_VALUE);
+            assertThat(Money.centsOf(new BigDecimal("-92233720368547758.08"))).isEqualTo(Long.MIN_VALUE);
+        }
+
+        @Test
+        public void whenTheAmountGoesBackToABigDecimal() {
+            assertThat(Money.of(new BigDecimal("-10000000000000.01")).toBigDecimal()).isEqualTo(new BigDecimal("-10000000000000.01"));
+            assertThat(Money.of(new BigDecimal("12.5")).toBigDecimal()).isEqualTo(new BigDecimal("12.50"));
+        }
+    }
+
+    @Nested
+    class ConversionFails {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"0.001", "-0.001", "12.345", "10000000000000.005"})
+        public void whenTheAmountHasFractionsOfACent(String amount) {
+            assertThatThrownBy(() -> Money.centsOf(new BigDecimal(amount)))
+                    .isInstanceOf(ArithmeticException.class);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"92233720368547758.08", "-92233720368547758.09", "1E+17"})
+        public void whenTheCentsDoNotFitALong(String amount) {
+            assertThatThrownBy(() -> Money.centsOf(new BigDecimal(amount)))
+                    .isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Nested
+    class Arithmetic {
+
+        @Test
+        public void whenAmountsAreAddedAndSubtracted() {
+            Money total = Money.of(new BigDecimal("10.50")).plus(Money.ofCents(25)).minus(Money.of(new BigDecimal("0.75")));
+
+            assertThat(total.getCents()).isEqualTo(1000L);
+            assertThat(total.negate().toString()).isEqualTo("-10.00");
+            assertThat(total.minus(total)).isSameAs(Money.ZERO);
+        }
+
+        @Test
+        public void whenTheResultOverflows() {
+            assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)))
+                    .isInstanceOf(ArithmeticException.class);
+            assertThatThrownBy(() -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1)))
+                    .isInstanceOf(ArithmeticException.class);
+            assertThatThrownBy(() -> Money.ofCents(Long.MIN_VALUE).negate())
+                    .isInstanceOf(ArithmeticException.class);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package co.harborbytes.booklion.report;
+
+import co.harborbytes.booklion.ReplaceCamelCase;
+import co.harborbytes.booklion.account.ChartOfAccounts;
+import co.harborbytes.booklion.transaction.LedgerVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the versions and the fingerprint are moved by hand, the way a commit moves them before its events are handled
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+public class ReportCacheTest {
+
+    private long ledgerVersion;
+    private long chartFingerprint;
+    private ReportCache reportCache;
+    private AtomicInteger computations;
+
+    @BeforeEach
+    public void createCache() {
+        ledgerVersion = 1;
+        chartFingerprint = 0xabc;
+        computations = new AtomicInteger();
+
+        LedgerVersions ledgerVersions = new LedgerVersions(null, null) {
+            @Override
+            public long current(Long userId) {
+                return ledgerVersion;
+            }
+        };
+        ChartOfAccounts chartOfAccounts = new ChartOfAccounts(null, null, Duration.ofMinutes(10)) {
+            @Override
+            public long fingerprint() {
+                return chartFingerprint;
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        reportCache = new ReportCache(new InProcessReportCacheStore(100, Duration.ofMinutes(10), meterRegistry), ledgerVersions, chartOfAccounts, meterRegistry);
+    }
+
+    @Nested
+    class CachedReportsAreServed {
+
+        @Test
+        public void whenNothingHasMoved() {
+            assertThat(balanceSheet()).isEqualTo("report 1");
+            assertThat(balanceSheet()).isEqualTo("report 1");
+            assertThat(computations).hasValue(1);
+        }
+
+        @Test
+        public void whenAnotherUsersLedgerVersionMoved() {
+            balanceSheet();
+            reportCache.evictUser(8L);
+
+            assertThat(balanceSheet()).isEqualTo("report 1");
+        }
+    }
+
+    @Nested
+    class CachedReportsAreNotServed {
+
+        // committed but the eviction hasn't run yet, the entry would otherwise go out under the new version's ETag
+        @Test
+        public void whenTheLedgerVersionMovedBeforeTheEviction() {
+            balanceSheet();
+            ledgerVersion++;
+
+            assertThat(balanceSheet()).isEqualTo("report 2");
+            assertThat(computations).hasValue(2);
+        }
+
+        @Test
+        public void whenTheChartOfAccountsMovedBeforeTheEviction() {
+            balanceSheet();
+            chartFingerprint = 0xdef;
+
+            assertThat(balanceSheet()).isEqualTo("report 2");
+        }
+
+        @Test
+        public void whenTheUserWasEvicted() {
+            balanceSheet();
+            reportCache.evictUser(7L);
+
+            assertThat(balanceSheet()).isEqualTo("report 2");
+        }
+
+        @Test
+        public void whenAWriteCommitsWhileTheReportIsComputed() {
+            String report = reportCache.get(7L, "balance-sheet", "2024-01-01", () -> {
+                reportCache.evictUser(7L);
+                return "report " + computations.incrementAndGet();
+            });
+
+            assertThat(report).isEqualTo("report 1");
+            assertThat(balanceSheet()).isEqualTo("report 2");
+        }
+    }
+
+    private String balanceSheet() {
+        return reportCache.get(7L, "balance-sheet", "2024-01-01", () -> "report " + computations.incrementAndGet());
+    }
+}
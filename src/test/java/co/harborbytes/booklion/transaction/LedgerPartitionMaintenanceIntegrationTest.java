@@ -0,0 +1,195 @@
+package co.harborbytes.booklion.transaction;
+
+import co.harborbytes.booklion.Application;
+import co.harborbytes.booklion.ReplaceCamelCase;
+import co.harborbytes.booklion.account.Account;
+import co.harborbytes.booklion.account.AccountRepository;
+import co.harborbytes.booklion.user.Role;
+import co.harborbytes.booklion.user.User;
+import co.harborbytes.booklion.user.UserRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the partitioning only exists on postgresql, so this runs the real migrations against one, and is skipped without docker
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        classes = Application.class
+)
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+public class LedgerPartitionMaintenanceIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final LedgerPartitionMaintenance partitionMaintenance;
+    private final TransactionBatchService transactionBatchService;
+    private final AccountBalanceService accountBalanceService;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Account savingsAccount;
+    private Account capitalAccount;
+
+    @Autowired
+    public LedgerPartitionMaintenanceIntegrationTest(LedgerPartitionMaintenance partitionMaintenance, TransactionBatchService transactionBatchService, AccountBalanceService accountBalanceService,
+                                                     AccountBalanceRepository accountBalanceRepository, TransactionRepository transactionRepository, AccountRepository accountRepository,
+                                                     UserRepository userRepository, JdbcTemplate jdbcTemplate) {
+        this.partitionMaintenance = partitionMaintenance;
+        this.transactionBatchService = transactionBatchService;
+        this.accountBalanceService = accountBalanceService;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("google.keys.jwks-location", () -> "classpath:google-jwks.json");
+        registry.add("booklion.ledger.partitions.retention-months", () -> "12");
+        // sessions ahead of UTC, where the last evening of a UTC month is already the next one
+        registry.add("spring.datasource.hikari.connection-init-sql", () -> "SET TIME ZONE 'Asia/Tokyo'");
+    }
+
+    @BeforeAll
+    public void createUserAndAccounts() {
+        user = new User();
+        user.setRole(Role.USER);
+        user.setEmail("user@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Giga");
+        user.setLastName("Chad");
+        userRepository.saveAndFlush(user);
+
+        savingsAccount = saveAccount("101", "savings account");
+        capitalAccount = saveAccount("301", "capital account");
+    }
+
+    @Nested
+    class Migrations {
+
+        @Test
+        public void whenTheApplicationHasStartedThePartitionsAheadExist() {
+            YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+            for (int i = 0; i <= 3; i++) {
+                String suffix = String.format("y%dm%02d", currentMonth.plusMonths(i).getYear(), currentMonth.plusMonths(i).getMonthValue());
+                assertThat(partitionsOf("transaction")).contains("transaction_" + suffix);
+                assertThat(partitionsOf("transaction_line")).contains("transaction_line_" + suffix);
+            }
+            assertThat(partitionsOf("transaction")).contains("transaction_default");
+        }
+
+        @Test
+        public void whenAMonthIsCreatedTwice() {
+            assertThat(jdbcTemplate.queryForObject("SELECT booklion_create_ledger_partitions(?)", Boolean.class, LocalDate.of(2040, 6, 15))).isTrue();
+            assertThat(jdbcTemplate.queryForObject("SELECT booklion_create_ledger_partitions(?)", Boolean.class, LocalDate.of(2040, 6, 1))).isFalse();
+            assertThat(partitionsOf("transaction_line")).contains("transaction_line_y2040m06");
+        }
+    }
+
+    @Nested
+    class Detaching {
+
+        @Test
+        public void whenAMonthLeavesTheRetentionWindowItsBalancesStay() {
+            jdbcTemplate.queryForObject("SELECT booklion_create_ledger_partitions(?)", Boolean.class, LocalDate.of(2020, 1, 1));
+            createTransaction("2020-01-15T12:00:00Z", "putting money in", "1000.00");
+            Instant recent = Instant.now().minusSeconds(60);
+            createTransaction(recent.toString(), "putting more money in", "250.00");
+
+            partitionMaintenance.maintainPartitions();
+
+            assertThat(partitionsOf("transaction")).doesNotContain("transaction_y2020m01");
+            assertThat(partitionsOf("transaction_line")).doesNotContain("transaction_line_y2020m01");
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_y2020m01", Long.class)).isEqualTo(1L);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_line_y2020m01", Long.class)).isEqualTo(2L);
+            assertThat(transactionRepository.count()).isEqualTo(1L);
+
+            // the archived month is only in the rollups now, which verifying and rebuilding take as they are
+            assertThat(accountBalanceService.verify().getDrifts()).isEmpty();
+            accountBalanceService.rebuild();
+
+            AccountBalance savings = accountBalanceRepository.findAll().stream()
+                    .filter(balance -> balance.getAccount().getId().equals(savingsAccount.getId()))
+                    .findFirst().orElseThrow();
+            assertThat(savings.getDebits()).isEqualByComparingTo("1250.00");
+            assertThat(savings.getLineCount()).isEqualTo(2L);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_monthly_balance WHERE period_start = ?", Long.class, LocalDate.of(2020, 1, 1))).isEqualTo(2L);
+            assertThat(accountBalanceService.verify().getDrifts()).isEmpty();
+        }
+    }
+
+    @Nested
+    class Rebuilding {
+
+        @Test
+        public void whenATransactionIsLateOnTheLastDayOfAUtcMonth() {
+            YearMonth lastMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(1);
+            Instant lastEvening = lastMonth.atEndOfMonth().atTime(23, 30).toInstant(ZoneOffset.UTC);
+            createTransaction(lastEvening.toString(), "paying the rent", "700.00");
+
+            accountBalanceService.rebuild();
+
+            assertThat(jdbcTemplate.queryForObject("SELECT debits FROM account_monthly_balance WHERE account_id = ? AND period_start = ?", BigDecimal.class,
+                    savingsAccount.getId(), lastMonth.atDay(1))).isEqualByComparingTo("700.00");
+            assertThat(accountBalanceService.verify().getDrifts()).isEmpty();
+        }
+    }
+
+    private void createTransaction(String createdAt, String description, String amount) {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setDescription(description);
+        transaction.setCreatedAt(Instant.parse(createdAt));
+        transaction.setLines(List.of(line(savingsAccount, amount, "0.00"), line(capitalAccount, "0.00", amount)));
+
+        TransactionBatchResult result = transactionBatchService.createTransactions(List.of(transaction), user.getId(), TransactionBatchMode.ALL_OR_NOTHING);
+        assertThat(result.getCreated()).isEqualTo(1L);
+    }
+
+    private static TransactionLineDTO line(Account account, String debit, String credit) {
+        TransactionLineDTO line = new TransactionLineDTO();
+        line.setAccountId(account.getId());
+        line.setDebitAmount(new BigDecimal(debit));
+        line.setCreditAmount(new BigDecimal(credit));
+        return line;
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ?", String.class, table);
+    }
+
+    private Account saveAccount(String number, String name) {
+        Account account = new Account();
+        account.setNumber(number);
+        account.setName(name);
+        return accountRepository.saveAndFlush(account);
+    }
+}
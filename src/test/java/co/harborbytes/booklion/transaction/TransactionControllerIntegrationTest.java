@@ -5,12 +5,17 @@ import co.harborbytes.booklion.ReplaceCamelCase;
 import co.harborbytes.booklion.account.Account;
 import co.harborbytes.booklion.account.AccountRepository;
 import co.harborbytes.booklion.budget.BudgetRepository;
+import co.harborbytes.booklion.report.ReportCache;
 import co.harborbytes.booklion.user.Role;
 import co.harborbytes.booklion.user.User;
 import co.harborbytes.booklion.user.UserRepository;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
 import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -24,6 +29,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.util.LinkedMultiValueMap;
@@ -55,10 +61,15 @@ public class TransactionControllerIntegrationTest {
 
     private final MockMvc mvc;
     private final TransactionRepository transactionRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final AccountMonthlyBalanceRepository accountMonthlyBalanceRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final ReportCache reportCache;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper jsonMapper;
+    private final Statistics statistics;
 
     private Account testAccount;
     private Account testAccount2;
@@ -102,7 +113,7 @@ public class TransactionControllerIntegrationTest {
     }
 
     @Autowired
-    public TransactionControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, ObjectMapper jsonMapper, TransactionRepository transactionRepository, UserRepository userRepository, @LocalServerPort int port, PasswordEncoder passwordEncoder) {
+    public TransactionControllerIntegrationTest(MockMvc mvc, AccountRepository accountRepository, ObjectMapper jsonMapper, TransactionRepository transactionRepository, UserRepository userRepository, @LocalServerPort int port, PasswordEncoder passwordEncoder, AccountBalanceRepository accountBalanceRepository, AccountMonthlyBalanceRepository accountMonthlyBalanceRepository, AccountBalanceService accountBalanceService, EntityManagerFactory entityManagerFactory, ReportCache reportCache) {
         this.port = port;
 
         System.out.println("STARTING ON PORT " + port);
@@ -111,15 +122,24 @@ public class TransactionControllerIntegrationTest {
         this.userRepository = userRepository;
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.accountMonthlyBalanceRepository = accountMonthlyBalanceRepository;
+        this.accountBalanceService = accountBalanceService;
+        this.reportCache = reportCache;
         this.passwordEncoder = passwordEncoder;
         this.jsonMapper = jsonMapper;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
         this.jsonMapper.setSerializationInclusion(JsonInclude.Include.ALWAYS);
     }
 
 
     @BeforeEach
     public void clearDatabase() {
+        this.accountBalanceRepository.deleteAll();
+        this.accountMonthlyBalanceRepository.deleteAll();
         this.transactionRepository.deleteAll();
+        // deleted behind the services' back, nothing tells the cache
+        this.reportCache.evictAll();
     }
 
     @Test
@@ -154,6 +174,7 @@ public class TransactionControllerIntegrationTest {
                 Map<String, Object> transactionPayload = new HashMap<>();
                 List<Map<String, Object>> linesPayload = new LinkedList<>();
                 transactionPayload.put("description", description);
+                transactionPayload.put("createdAt", Instant.now().minusSeconds(60).toString());
                 transactionPayload.put("lines", linesPayload);
 
                 Map<String, Object> line = new HashMap<>();
@@ -194,6 +215,7 @@ public class TransactionControllerIntegrationTest {
                 Map<String, Object> transactionPayload = new HashMap<>();
                 List<Map<String, Object>> linesPayload = new LinkedList<>();
                 transactionPayload.put("description", description);
+                transactionPayload.put("createdAt", Instant.now().minusSeconds(60).toString());
                 transactionPayload.put("lines", linesPayload);
 
                 Map<String, Object> line = new HashMap<>();
@@ -208,7 +230,7 @@ public class TransactionControllerIntegrationTest {
                 line.put("accountId", testAccount2.getId());
                 linesPayload.add(line);
 
-                MockHttpServletRequestBuilder requestBuilder = post("/transactions").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(transactionPayload));
+                MockHttpServletRequestBuilder requestBuilder = post("/api/transactions").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(transactionPayload));
 
                 mvc.perform(requestBuilder)
                         .andDo(print())
@@ -275,7 +297,7 @@ public class TransactionControllerIntegrationTest {
             @Test
             public void whenTransactionExists() throws Exception {
                 Long createdTransactionId = createTestTransaction();
-                MockHttpServletRequestBuilder requestBuilder = get("/transactions/{id}", createdTransactionId).contentType(MediaType.APPLICATION_JSON).content(new byte[0]);
+                MockHttpServletRequestBuilder requestBuilder = get("/api/transactions/{id}", createdTransactionId).contentType(MediaType.APPLICATION_JSON).content(new byte[0]);
 
                 mvc.perform(requestBuilder)
                         .andDo(print())
@@ -295,7 +317,7 @@ public class TransactionControllerIntegrationTest {
                 queryParams.add("size", "1");
                 queryParams.add("sort", "description,asc");
 
-                MockHttpServletRequestBuilder requestBuilder = get("/transactions")
+                MockHttpServletRequestBuilder requestBuilder = get("/api/transactions")
                         .contentType(MediaType.APPLICATION_JSON)
                         .queryParams(queryParams);
 
@@ -356,7 +378,7 @@ public class TransactionControllerIntegrationTest {
             })
             public void whenTransactionDoesNotExist(String id) throws Exception {
 
-                MockHttpServletRequestBuilder requestBuilder = delete("/transactions/{id}", id).contentType(MediaType.APPLICATION_JSON).content(new byte[0]);
+                MockHttpServletRequestBuilder requestBuilder = delete("/api/transactions/{id}", id).contentType(MediaType.APPLICATION_JSON).content(new byte[0]);
 
                 mvc.perform(requestBuilder)
                         .andDo(print())
@@ -370,7 +392,7 @@ public class TransactionControllerIntegrationTest {
             public void whenTransactionExists() throws  Exception{
 
                 Long createdTransactionId = createTestTransaction();
-                MockHttpServletRequestBuilder requestBuilder = delete("/transactions/{id}", createdTransactionId).contentType(MediaType.APPLICATION_JSON).content(new byte[0]);
+                MockHttpServletRequestBuilder requestBuilder = delete("/api/transactions/{id}", createdTransactionId).contentType(MediaType.APPLICATION_JSON).content(new byte[0]);
 
                 mvc.perform(requestBuilder)
                         .andDo(print())
@@ -381,9 +403,393 @@ public class TransactionControllerIntegrationTest {
         }
     }
 
+    @Nested
+    class PagedListingQueryCount {
+
+        private static final long MAX_STATEMENTS_PER_PAGE = 3;
+
+        @Test
+        public void whenListingAPageOfTransactionsWithSeveralLinesEach() throws Exception {
+            for (int i = 0; i < 5; i++)
+                createTestTransaction(String.format("transaction number %s", i));
+
+            statistics.clear();
+
+            mvc.perform(get("/api/transactions").param("page", "0").param("size", "4").param("sort", "description,desc"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.length()", is(4)))
+                    .andExpect(jsonPath("$.data[0].description", is("transaction number 4")))
+                    .andExpect(jsonPath("$.data[0].lines.length()", is(3)))
+                    .andExpect(jsonPath("$.data[0].lines[0].account.number", notNullValue()))
+                    .andExpect(jsonPath("$.page.totalElements", is(5)));
+
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+        }
+    }
+
+    @Nested
+    class AccountBalancesStayInSync {
+
+        @Test
+        public void whenTransactionsAreCreatedAndDeleted() throws Exception {
+            Long firstId = postTestTransaction("paying internet bill", "86000.32");
+            postTestTransaction("paying internet bill again", "1000.00");
+
+            assertThat(accountBalanceService.verify().getDrifts()).isEmpty();
+            assertThat(accountBalanceRepository.count()).isEqualTo(2);
+            assertThat(accountBalanceService.rebuild().getDrifts()).isEmpty();
+            assertThat(accountMonthlyBalanceRepository.count()).isEqualTo(2);
+
+            mvc.perform(delete("/api/transactions/{id}", firstId).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            assertThat(accountBalanceService.verify().getDrifts()).isEmpty();
+
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.assets[0].name", is("savings account")))
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("-1000.00")));
+
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", Instant.now().plusSeconds(3600).toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("0.00")));
+        }
+    }
+
+    @Nested
+    class ReportJobs {
+
+        @Test
+        public void whenABalanceSheetIsGeneratedInTheBackground() throws Exception {
+            postTestTransaction("paying internet bill", "1000.00");
+
+            String response = mvc.perform(post("/api/reports/jobs").contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(Map.of("type", "BALANCE_SHEET", "from", "2024-01-01T00:00:00Z"))))
+                    .andDo(print())
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().exists("Location"))
+                    .andExpect(jsonPath("$.data.type", is("BALANCE_SHEET")))
+                    .andReturn().getResponse().getContentAsString();
+
+            String jobId = jsonMapper.readTree(response).path("data").path("id").asText();
+
+            String status = "QUEUED";
+            for (int attempt = 0; attempt < 50 && (status.equals("QUEUED") || status.equals("RUNNING")); attempt++) {
+                Thread.sleep(100);
+                response = mvc.perform(get("/api/reports/jobs/{id}", jobId)).andReturn().getResponse().getContentAsString();
+                status = jsonMapper.readTree(response).path("data").path("status").asText();
+            }
+
+            mvc.perform(get("/api/reports/jobs/{id}", jobId))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.status", is("DONE")))
+                    .andExpect(jsonPath("$.data.result.assets[0].name", is("savings account")))
+                    .andExpect(jsonPath("$.data.result.assets[0].balance", is("-1000.00")));
+        }
+
+        @Test
+        public void whenTheReportJobDoesNotExist() throws Exception {
+            mvc.perform(get("/api/reports/jobs/{id}", "c1a4a0c8-0000-0000-0000-000000000000"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.status", is("fail")));
+        }
+    }
+
+    @Nested
+    class ConditionalReports {
+
+        @Test
+        public void whenTheBalanceSheetHasNotChanged() throws Exception {
+            postTestTransaction("paying internet bill", "1000.00");
+
+            String eTag = mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("-1000.00")))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z").header("If-None-Match", eTag))
+                    .andDo(print())
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", eTag))
+                    .andExpect(content().string(""));
+
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", "2023-01-01T00:00:00Z").header("If-None-Match", eTag))
+                    .andExpect(status().isOk());
+        }
+
+        @Test
+        public void whenATransactionWasCreatedOrDeletedSince() throws Exception {
+            Long id = postTestTransaction("paying internet bill", "1000.00");
+
+            String eTag = mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+
+            postTestTransaction("paying internet bill again", "500.00");
+
+            String eTagAfterCreate = mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z").header("If-None-Match", eTag))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("-1500.00")))
+                    .andReturn().getResponse().getHeader("ETag");
+            assertThat(eTagAfterCreate).isNotEqualTo(eTag);
+
+            mvc.perform(delete("/api/transactions/{id}", id).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z").header("If-None-Match", eTagAfterCreate))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("-500.00")));
+        }
+
+        @Test
+        public void whenTheSameReportIsAskedForAfterATransaction() throws Exception {
+            postTestTransaction("paying internet bill", "1000.00");
+
+            mvc.perform(get("/api/transactions/income-statement").param("from", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isOk());
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("-1000.00")));
+
+            postTestTransaction("paying internet bill again", "500.00");
+
+            mvc.perform(get("/api/transactions/balance-sheet").param("from", "2024-01-01T00:00:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.assets[0].balance", is("-1500.00")));
+        }
+    }
+
+    @Nested
+    class BatchRequests {
+
+        @Test
+        public void whenOneTransactionOfAnAllOrNothingBatchIsInvalid() throws Exception {
+            List<Map<String, Object>> batch = List.of(
+                    transactionPayload("paying internet bill", "1000.00", testAccount.getId()),
+                    transactionPayload("paying an unknown account", "500.00", 999_999L));
+
+            mvc.perform(post("/api/transactions/batch").param("mode", "ALL_OR_NOTHING").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(batch)))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is("fail")))
+                    .andExpect(jsonPath("$.errors.length()", is(2)))
+                    .andExpect(jsonPath("$.errors[1]", is("transaction 1: Account with id = 999999 was not found")));
+
+            assertThat(transactionRepository.count()).isZero();
+            assertThat(accountBalanceRepository.count()).isZero();
+        }
+
+        @Test
+        public void whenOneTransactionOfAPartialBatchIsInvalid() throws Exception {
+            List<Map<String, Object>> batch = List.of(
+                    transactionPayload("paying internet bill", "1000.00", testAccount.getId()),
+                    transactionPayload("paying an unknown account", "500.00", 999_999L),
+                    transactionPayload("paying internet bill again", "250.00", testAccount.getId()));
+
+            mvc.perform(post("/api/transactions/batch").param("mode", "PARTIAL").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(batch)))
+                    .andDo(print())
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.status", is("success")))
+                    .andExpect(jsonPath("$.data.created", is(2)))
+                    .andExpect(jsonPath("$.data.rejected", is(1)))
+                    .andExpect(jsonPath("$.data.items[0].status", is("CREATED")))
+                    .andExpect(jsonPath("$.data.items[0].id", notNullValue()))
+                    .andExpect(jsonPath("$.data.items[1].status", is("REJECTED")))
+                    .andExpect(jsonPath("$.data.items[2].status", is("CREATED")));
+
+            assertThat(transactionRepository.count()).isEqualTo(2);
+            assertThat(accountBalanceService.verify().getDrifts()).isEmpty();
+        }
+
+        @Test
+        public void whenEveryTransactionOfAPartialBatchIsInvalid() throws Exception {
+            List<Map<String, Object>> batch = List.of(transactionPayload("paying an unknown account", "500.00", 999_999L));
+
+            mvc.perform(post("/api/transactions/batch").param("mode", "PARTIAL").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(batch)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is("fail")));
+
+            assertThat(transactionRepository.count()).isZero();
+        }
+
+        @Test
+        public void whenTheBatchIsOverTheLimit() throws Exception {
+            Map<String, Object> transaction = transactionPayload("paying internet bill", "1.00", testAccount.getId());
+            List<Map<String, Object>> batch = Collections.nCopies(TransactionBatchService.MAX_BATCH_SIZE + 1, transaction);
+
+            mvc.perform(post("/api/transactions/batch").param("mode", "PARTIAL").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(batch)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is("fail")))
+                    .andExpect(jsonPath("$.errors[0]", is(String.format("validation error: the batch cannot contain more than %s transactions%n", TransactionBatchService.MAX_BATCH_SIZE))));
+
+            assertThat(transactionRepository.count()).isZero();
+        }
+
+        private Map<String, Object> transactionPayload(String description, String amount, Long creditAccountId) {
+            Map<String, Object> transactionPayload = new HashMap<>();
+            transactionPayload.put("description", description);
+            transactionPayload.put("createdAt", Instant.now().minusSeconds(60).toString());
+            transactionPayload.put("lines", List.of(
+                    Map.of("debitAmount", "0.00", "creditAmount", amount, "accountId", creditAccountId),
+                    Map.of("debitAmount", amount, "creditAmount", "0.00", "accountId", testAccount2.getId())));
+            return transactionPayload;
+        }
+    }
+
+    @Nested
+    class GeneralLedger {
+
+        private final List<Long> postedIds = new ArrayList<>();
+
+        @BeforeEach
+        public void postLedger() throws Exception {
+            postedIds.clear();
+            Instant first = Instant.parse("2024-03-01T10:00:00Z");
+            postedIds.add(postTestTransaction("paying internet bill", "100.00", first));
+            // two at the same instant, the transaction id decides which comes first
+            postedIds.add(postTestTransaction("paying internet bill again", "20.50", first.plusSeconds(60)));
+            postedIds.add(postTestTransaction("paying the phone bill", "3.25", first.plusSeconds(60)));
+            postedIds.add(postTestTransaction("paying for parking", "7.00", first.plusSeconds(3600)));
+            postedIds.add(postTestTransaction("paying for a book", "45.10", first.plusSeconds(7200)));
+        }
+
+        @Test
+        public void whenTheLedgerIsReadAPageAtATime() throws Exception {
+            List<JsonNode> entries = new ArrayList<>();
+            List<Integer> pageSizes = new ArrayList<>();
+            String cursor = null;
+            do {
+                MockHttpServletRequestBuilder request = get("/api/transactions/generalLedger").param("accountNumber", "101").param("size", "2");
+                if (cursor != null)
+                    request.param("cursor", cursor);
+
+                JsonNode page = jsonMapper.readTree(mvc.perform(request)
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString()).path("data");
+                page.path("entries").forEach(entries::add);
+                pageSizes.add(page.path("entries").size());
+                cursor = page.path("nextCursor").isTextual() ? page.path("nextCursor").asText() : null;
+            } while (cursor != null);
+
+            assertThat(pageSizes).containsExactly(2, 2, 1);
+            assertThat(entries).extracting(entry -> entry.path("transactionId").asLong()).containsExactlyElementsOf(postedIds);
+            assertThat(entries).extracting(entry -> entry.path("balance").asText())
+                    .containsExactly("-100.00", "-120.50", "-123.75", "-130.75", "-175.85");
+            assertThat(entries).extracting(entry -> entry.path("transactionId").asLong()).containsExactlyElementsOf(nonPagedTransactionIds());
+        }
+
+        // a full page can't tell there's nothing after it, the empty page its cursor leads to does
+        @Test
+        public void whenTheLastPageIsFull() throws Exception {
+            JsonNode page = jsonMapper.readTree(mvc.perform(get("/api/transactions/generalLedger").param("accountNumber", "101").param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).path("data");
+
+            mvc.perform(get("/api/transactions/generalLedger").param("accountNumber", "101").param("size", "5")
+                            .param("cursor", page.path("nextCursor").asText()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.entries.length()", is(0)))
+                    .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "not a cursor",
+                "bm90IGEgY3Vyc29y",
+                "MjAyNC0wMy0wMVQxMDowMDowMFp8MQ",
+                "MjAyNC0wMy0wMVQxMDowMDowMFp8b25lfC0xMDAuMDA",
+                "MjAyNC0wMy0wMVQxMDowMDowMFp8MXwtMTAwLjAwMQ",
+                "MjAyNC0xMy0wMVQxMDowMDowMFp8MXwtMTAwLjAw"
+        })
+        public void whenTheCursorIsNotValid(String cursor) throws Exception {
+            mvc.perform(get("/api/transactions/generalLedger").param("accountNumber", "101").param("size", "2").param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is("fail")))
+                    .andExpect(jsonPath("$.errors[0]", is(String.format("validation error: \"%s\" is not a valid ledger cursor%n", cursor))));
+        }
+
+        @Test
+        public void whenTheLedgerIsStreamed() throws Exception {
+            MvcResult started = mvc.perform(get("/api/transactions/generalLedger/stream").param("accountNumber", "101"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = mvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            List<JsonNode> rows = new ArrayList<>();
+            for (String line : body.split("\n"))
+                rows.add(jsonMapper.readTree(line));
+
+            JsonNode ledger = jsonMapper.readTree(mvc.perform(get("/api/transactions/generalLedger").param("accountNumber", "101"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).path("data");
+
+            assertThat(rows).hasSize(ledger.size());
+            for (int i = 0; i < rows.size(); i++) {
+                JsonNode row = rows.get(i);
+                JsonNode expected = ledger.get(i);
+                assertThat(row.path("transactionId").asLong()).isEqualTo(expected.path("transactionId").asLong());
+                assertThat(row.path("date").asText()).isEqualTo(expected.path("date").asText());
+                assertThat(row.path("description").asText()).isEqualTo(expected.path("description").asText());
+                assertThat(row.path("debits").asText()).isEqualTo(expected.path("debits").asText());
+                assertThat(row.path("credits").asText()).isEqualTo(expected.path("credits").asText());
+            }
+            assertThat(rows).extracting(row -> row.path("balance").asText())
+                    .containsExactly("-100.00", "-120.50", "-123.75", "-130.75", "-175.85");
+        }
+
+        private List<Long> nonPagedTransactionIds() throws Exception {
+            JsonNode ledger = jsonMapper.readTree(mvc.perform(get("/api/transactions/generalLedger").param("accountNumber", "101"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).path("data");
+
+            List<Long> ids = new ArrayList<>();
+            ledger.forEach(row -> ids.add(row.path("transactionId").asLong()));
+            return ids;
+        }
+    }
+
+    public Long postTestTransaction(String description, String amount) throws Exception {
+        return postTestTransaction(description, amount, Instant.now().minusSeconds(60));
+    }
+
+    public Long postTestTransaction(String description, String amount, Instant createdAt) throws Exception {
+        Map<String, Object> transactionPayload = new HashMap<>();
+        List<Map<String, Object>> linesPayload = new LinkedList<>();
+        transactionPayload.put("description", description);
+        transactionPayload.put("createdAt", createdAt.toString());
+        transactionPayload.put("lines", linesPayload);
+
+        Map<String, Object> line = new HashMap<>();
+        line.put("debitAmount", "0.00");
+        line.put("creditAmount", amount);
+        line.put("accountId", testAccount.getId());
+        linesPayload.add(line);
+
+        line = new HashMap<>();
+        line.put("debitAmount", amount);
+        line.put("creditAmount", "0.00");
+        line.put("accountId", testAccount2.getId());
+        linesPayload.add(line);
+
+        String response = mvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(transactionPayload)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        return jsonMapper.readTree(response).path("data").path("id").asLong();
+    }
+
     public void failedPostRequest(Object content, final Integer expectedErrorCount, final ResultMatcher expectedHttpStatus) throws Exception {
 
-        MockHttpServletRequestBuilder requestBuilder = post("/transactions").contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = post("/api/transactions").contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
@@ -392,7 +798,7 @@ public class TransactionControllerIntegrationTest {
         if (queryParams == null)
             queryParams = new LinkedMultiValueMap<>();
 
-        StringBuilder uriTemplate = new StringBuilder("/transactions");
+        StringBuilder uriTemplate = new StringBuilder("/api/transactions");
         if (id != null)
             uriTemplate.append(String.format("/%s", id));
 
@@ -401,7 +807,7 @@ public class TransactionControllerIntegrationTest {
     }
 
     public void failedDeleteRequest(Object content, final Integer expectedErrorCount, String id, final ResultMatcher expectedHttpStatus) throws Exception {
-        MockHttpServletRequestBuilder requestBuilder = delete("/transactions/{id}", id ).contentType(MediaType.APPLICATION_JSON);
+        MockHttpServletRequestBuilder requestBuilder = delete("/api/transactions/{id}", id ).contentType(MediaType.APPLICATION_JSON);
         doFailedRequest(content, requestBuilder, expectedErrorCount, expectedHttpStatus);
     }
 
@@ -0,0 +1,177 @@
+package co.harborbytes.booklion.user;
+
+import co.harborbytes.booklion.ReplaceCamelCase;
+import co.harborbytes.booklion.exception.DomainEntityNotFoundException;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// tokens signed here with keys of our own, served by a key source the tests control
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+public class GoogleIdTokenVerificationServiceTest {
+
+    private static final String CLIENT_ID = "booklion-test.apps.googleusercontent.com";
+
+    private final KeyPair googleKey = generateKeyPair();
+    private final KeyPair otherKey = generateKeyPair();
+
+    private TestKeySource keySource;
+    private SimpleMeterRegistry meterRegistry;
+    private GoogleIdTokenVerificationService verificationService;
+
+    @BeforeEach
+    public void createService() {
+        keySource = new TestKeySource();
+        keySource.keys.put("google-key", googleKey.getPublic());
+        meterRegistry = new SimpleMeterRegistry();
+        verificationService = new GoogleIdTokenVerificationService(CLIENT_ID, keySource, meterRegistry);
+    }
+
+    @Nested
+    class VerificationSucceeds {
+
+        @Test
+        public void whenTheTokenIsValid() {
+            User user = verificationService.verify(sign("google-key", googleKey.getPrivate(), payload()));
+
+            assertThat(user.getEmail()).isEqualTo("giga@example.com");
+            assertThat(user.getFirstName()).isEqualTo("Giga Chad");
+            assertThat(user.getLastName()).isEqualTo("Chad");
+            assertThat(user.getPassword()).isEqualTo("1234567890");
+            assertThat(user.getRole()).isEqualTo(Role.USER);
+            assertThat(outcomes("verified")).isEqualTo(1);
+        }
+
+        @Test
+        public void whenTheTokenIsSignedWithAKeyGooglePublishedSinceTheLastLoad() {
+            keySource.keysAfterRefresh.put("new-google-key", otherKey.getPublic());
+
+            User user = verificationService.verify(sign("new-google-key", otherKey.getPrivate(), payload()));
+
+            assertThat(user.getEmail()).isEqualTo("giga@example.com");
+            assertThat(keySource.refreshes).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class VerificationFails {
+
+        @Test
+        public void whenTheTokenHasExpired() {
+            GoogleIdToken.Payload payload = payload();
+            payload.setIssuedAtTimeSeconds(Instant.now().minusSeconds(7200).getEpochSecond());
+            payload.setExpirationTimeSeconds(Instant.now().minusSeconds(3600).getEpochSecond());
+
+            assertRejected(sign("google-key", googleKey.getPrivate(), payload));
+        }
+
+        @Test
+        public void whenTheTokenIsForAnotherAudience() {
+            assertRejected(sign("google-key", googleKey.getPrivate(), payload().setAudience("someone-else.apps.googleusercontent.com")));
+        }
+
+        @Test
+        public void whenTheTokenWasIssuedBySomeoneElse() {
+            assertRejected(sign("google-key", googleKey.getPrivate(), payload().setIssuer("https://accounts.example.com")));
+        }
+
+        @Test
+        public void whenTheSignatureDoesNotMatchTheKey() {
+            assertRejected(sign("google-key", otherKey.getPrivate(), payload()));
+            assertThat(keySource.refreshes).isZero();
+        }
+
+        @Test
+        public void whenTheKeyIdIsUnknownEvenAfterAReload() {
+            assertRejected(sign("forged-key", otherKey.getPrivate(), payload()));
+            assertThat(keySource.refreshes).isEqualTo(1);
+        }
+
+        @Test
+        public void whenTheTokenIsNotAToken() {
+            assertThatThrownBy(() -> verificationService.verify("not.a.token"))
+                    .isInstanceOf(DomainEntityNotFoundException.class);
+            assertThat(outcomes("error")).isEqualTo(1);
+        }
+
+        private void assertRejected(String token) {
+            assertThatThrownBy(() -> verificationService.verify(token))
+                    .isInstanceOf(DomainEntityNotFoundException.class);
+            assertThat(outcomes("rejected")).isEqualTo(1);
+        }
+    }
+
+    private long outcomes(String outcome) {
+        return meterRegistry.timer("booklion.google.id-token.verification", "outcome", outcome).count();
+    }
+
+    private static GoogleIdToken.Payload payload() {
+        long now = Instant.now().getEpochSecond();
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+                .setEmail("giga@example.com")
+                .setEmailVerified(true);
+        payload.setIssuer("https://accounts.google.com");
+        payload.setAudience(CLIENT_ID);
+        payload.setSubject("1234567890");
+        payload.setIssuedAtTimeSeconds(now);
+        payload.setExpirationTimeSeconds(now + 3600);
+        payload.set("name", "Giga Chad");
+        payload.set("family_name", "Chad");
+        return payload;
+    }
+
+    private static String sign(String keyId, PrivateKey privateKey, GoogleIdToken.Payload payload) {
+        JsonWebSignature.Header header = new JsonWebSignature.Header()
+                .setAlgorithm("RS256")
+                .setType("JWT")
+                .setKeyId(keyId);
+        try {
+            return JsonWebSignature.signUsingRsaSha256(privateKey, GsonFactory.getDefaultInstance(), header, payload);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static class TestKeySource implements GooglePublicKeySource {
+
+        private final Map<String, PublicKey> keys = new HashMap<>();
+        private final Map<String, PublicKey> keysAfterRefresh = new HashMap<>();
+        private int refreshes;
+
+        @Override
+        public Map<String, PublicKey> getPublicKeys() {
+            return keys;
+        }
+
+        @Override
+        public void refresh() {
+            refreshes++;
+            keys.putAll(keysAfterRefresh);
+        }
+    }
+}
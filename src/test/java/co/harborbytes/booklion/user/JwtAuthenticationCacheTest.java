@@ -0,0 +1,88 @@
+package co.harborbytes.booklion.user;
+
+import co.harborbytes.booklion.ReplaceCamelCase;
+import org.junit.jupiter.api.*;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+public class JwtAuthenticationCacheTest {
+
+    private JwtAuthenticationCache authenticationCache;
+
+    @BeforeEach
+    public void createCache() {
+        authenticationCache = new JwtAuthenticationCache(100, 10);
+    }
+
+    @Nested
+    class LookupsSucceed {
+
+        @Test
+        public void whenTheTokenWasCached() {
+            authenticationCache.put("token", user("user@example.com"), Instant.now().plusSeconds(3600));
+
+            User principal = authenticationCache.get("token");
+
+            assertThat(principal.getId()).isEqualTo(7L);
+            assertThat(principal.getUsername()).isEqualTo("user@example.com");
+            assertThat(principal.getPassword()).isEqualTo("hash");
+            assertThat(principal.getRole()).isEqualTo(Role.ADMIN);
+            assertThat(principal.isEnabled()).isFalse();
+            assertThat(principal.getLedgerVersion()).isEqualTo(3L);
+        }
+
+        @Test
+        public void whenAPrincipalHandedOutIsChanged() {
+            User user = user("user@example.com");
+            authenticationCache.put("token", user, Instant.now().plusSeconds(3600));
+            user.setRole(Role.USER);
+
+            User first = authenticationCache.get("token");
+            first.setEmail("someone-else@example.com");
+            User second = authenticationCache.get("token");
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(second.getUsername()).isEqualTo("user@example.com");
+            assertThat(second.getRole()).isEqualTo(Role.ADMIN);
+        }
+    }
+
+    @Nested
+    class LookupsMiss {
+
+        @Test
+        public void whenTheUsersCredentialsChanged() {
+            authenticationCache.put("token", user("user@example.com"), Instant.now().plusSeconds(3600));
+            authenticationCache.put("other-token", user("other@example.com"), Instant.now().plusSeconds(3600));
+
+            authenticationCache.onUserCredentialsChanged(new UserCredentialsChangedEvent("user@example.com"));
+
+            assertThat(authenticationCache.get("token")).isNull();
+            assertThat(authenticationCache.get("other-token")).isNotNull();
+        }
+
+        @Test
+        public void whenTheTokenHasExpired() {
+            authenticationCache.put("token", user("user@example.com"), Instant.now().minusSeconds(1));
+
+            assertThat(authenticationCache.get("token")).isNull();
+        }
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(7L);
+        user.setRole(Role.ADMIN);
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setFirstName("Giga");
+        user.setLastName("Chad");
+        user.setEnabled(false);
+        user.setLedgerVersion(3L);
+        return user;
+    }
+}
@@ -0,0 +1,88 @@
+package co.harborbytes.booklion.user;
+
+import co.harborbytes.booklion.Application;
+import co.harborbytes.booklion.ReplaceCamelCase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        classes = Application.class
+)
+@AutoConfigureMockMvc
+@TestPropertySource(
+        locations = "classpath:application-integrationtest.properties"
+)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayNameGeneration(ReplaceCamelCase.class)
+@RecordApplicationEvents
+public class UserControllerIntegrationTest {
+
+    private final MockMvc mvc;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper jsonMapper;
+
+    @Autowired
+    public UserControllerIntegrationTest(MockMvc mvc, UserRepository userRepository, PasswordEncoder passwordEncoder, ObjectMapper jsonMapper) {
+        this.mvc = mvc;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @AfterEach
+    public void removeTestUser() {
+        userRepository.findByEmail("rehash@example.com").ifPresent(userRepository::delete);
+    }
+
+    @Nested
+    class LoginSucceeds {
+
+        @Test
+        public void whenThePasswordWasHashedWithAnotherCost(@Autowired ApplicationEvents events) throws Exception {
+            User user = new User();
+            user.setRole(Role.USER);
+            user.setEmail("rehash@example.com");
+            user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+            user.setFirstName("Giga");
+            user.setLastName("Chad");
+            userRepository.saveAndFlush(user);
+
+            mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                            .content(jsonMapper.writeValueAsString(Map.of("email", "rehash@example.com", "password", "secret"))))
+                    .andDo(print())
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.status", is("success")))
+                    .andExpect(jsonPath("$.data.token", notNullValue()));
+
+            String rehashed = userRepository.findByEmail("rehash@example.com").orElseThrow().getPassword();
+            assertThat(rehashed).startsWith("$2a$10$");
+            assertThat(passwordEncoder.matches("secret", rehashed)).isTrue();
+            assertThat(passwordEncoder.upgradeEncoding(rehashed)).isFalse();
+            // the tokens issued before the new hash are looked up again
+            assertThat(events.stream(UserCredentialsChangedEvent.class))
+                    .extracting(UserCredentialsChangedEvent::getUsername)
+                    .containsExactly("rehash@example.com");
+        }
+    }
+}